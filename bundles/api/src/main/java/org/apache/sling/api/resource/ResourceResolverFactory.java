@@ -98,6 +98,23 @@ public interface ResourceResolverFactory {
      */
     String SUBSERVICE = "sling.service.subservice";
 
+    /**
+     * Name of the authentication information property enabling the cache of
+     * the resources read by path for the created resource resolver, if the
+     * implementation provides such a cache. As changes which are not done
+     * through the resource resolver are not seen by the cached resources, it
+     * should only be enabled for resource resolvers with a short lifetime,
+     * like the one of a request.
+     * <p>
+     * This property is not passed on to the resource providers.
+     * <p>
+     * The type of this property, if present, is <code>Boolean</code> or
+     * <code>String</code>.
+     *
+     * @since 2.11 (Sling API Bundle 2.16.2)
+     */
+    String RESOURCE_CACHE = "sling.resourceresolver.resourceCache";
+
     /**
      * Returns a new {@link ResourceResolver} instance with further
      * configuration taken from the given <code>authenticationInfo</code> map.
@@ -17,7 +17,7 @@
  * under the License.
  */
 
-@Version("2.10.0")
+@Version("2.11.0")
 package org.apache.sling.api.resource;
 
 import org.osgi.annotation.versioning.Version;
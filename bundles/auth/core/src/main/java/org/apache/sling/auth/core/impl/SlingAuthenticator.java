@@ -207,6 +207,13 @@ public class SlingAuthenticator implements Authenticator,
      */
     private static final String AUTH_INFO_PROP_FEEDBACK_HANDLER = "$$sling.auth.AuthenticationFeedbackHandler$$";
 
+    /**
+     * The name of the {@link AuthenticationInfo} property enabling the resource
+     * cache of the resource resolver, which is only used for the duration of
+     * the request (ResourceResolverFactory.RESOURCE_CACHE of Sling API 2.16.2).
+     */
+    private static final String AUTH_INFO_RESOURCE_CACHE = "sling.resourceresolver.resourceCache";
+
     @Reference
     private ResourceResolverFactory resourceResolverFactory;
 
@@ -788,6 +795,7 @@ public class SlingAuthenticator implements Authenticator,
         try {
             handleImpersonation(request, authInfo);
             handlePasswordChange(request, authInfo);
+            authInfo.put(AUTH_INFO_RESOURCE_CACHE, Boolean.TRUE);
             ResourceResolver resolver = resourceResolverFactory.getResourceResolver(authInfo);
             final boolean impersChanged = setSudoCookie(request, response, authInfo);
 
@@ -867,6 +875,7 @@ public class SlingAuthenticator implements Authenticator,
         if (isAnonAllowed(request)) {
 
             try {
+                authInfo.put(AUTH_INFO_RESOURCE_CACHE, Boolean.TRUE);
                 ResourceResolver resolver = resourceResolverFactory.getResourceResolver(authInfo);
 
                 // check whether the client asked for redirect after
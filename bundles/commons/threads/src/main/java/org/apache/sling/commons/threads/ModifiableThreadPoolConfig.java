@@ -36,6 +36,7 @@ import java.util.concurrent.TimeUnit;
  * - priority: NORM
  * - daemon: false
  * - factory: null (= default jvm thread factory)
+ * - thread type: PLATFORM
  */
 @ProviderType
 public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
@@ -60,6 +61,11 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     public static final String PROPERTY_PRIORITY = "priority";
     /** Configuration property for the daemon flag. */
     public static final String PROPERTY_DAEMON = "daemon";
+    /**
+     * Configuration property for the thread type.
+     * @since 3.5
+     */
+    public static final String PROPERTY_THREAD_TYPE = "threadType";
     /** Configuration property for the thread pool name. */
     public static final String PROPERTY_NAME = "name";
 
@@ -96,6 +102,9 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     /** Create daemon threads? */
     private  boolean isDaemon = false;
 
+    /** Thread type. */
+    private ThreadType threadType = ThreadType.PLATFORM;
+
     /**
      * Create a new default configuration.
      */
@@ -120,6 +129,7 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
             this.factory = copy.getFactory();
             this.priority = copy.getPriority();
             this.isDaemon = copy.isDaemon();
+            this.threadType = copy.getThreadType();
         }
     }
 
@@ -298,6 +308,26 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
         this.isDaemon = isDaemon;
     }
 
+    /**
+     * @see org.apache.sling.commons.threads.ThreadPoolConfig#getThreadType()
+     */
+    public ThreadType getThreadType() {
+        return threadType;
+    }
+
+    /**
+     * Set the thread type.
+     * @param threadType The thread type.
+     * @throws IllegalArgumentException If threadType is null.
+     * @since 3.5
+     */
+    public void setThreadType(final ThreadType threadType) {
+        if ( threadType == null ) {
+            throw new IllegalArgumentException("Thread type must not be null.");
+        }
+        this.threadType = threadType;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if ( obj instanceof ModifiableThreadPoolConfig ) {
@@ -311,7 +341,8 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
                 && this.shutdownGraceful == o.shutdownGraceful
                 && this.shutdownWaitTimeMs == o.shutdownWaitTimeMs
                 && this.priority.equals(o.priority)
-                && this.isDaemon == o.isDaemon;
+                && this.isDaemon == o.isDaemon
+                && this.threadType == o.threadType;
         }
         return false;
     }
@@ -322,4 +353,4 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
         // contract with equals
         return this.blockPolicy.hashCode();
     }
-}
\ No newline at end of file
+}
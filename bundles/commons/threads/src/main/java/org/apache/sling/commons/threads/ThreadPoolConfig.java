@@ -40,6 +40,20 @@ public interface ThreadPoolConfig {
         MAX
     };
 
+    /**
+     * The type of threads used by the pool.
+     * @since 3.5
+     */
+    public enum ThreadType {
+        /** Regular platform threads. */
+        PLATFORM,
+        /**
+         * Virtual threads. If the JVM does not support virtual threads,
+         * platform threads are used instead.
+         */
+        VIRTUAL
+    };
+
     /**
      * Return the minimum pool size.
      * @return The minimum pool size.
@@ -107,4 +121,13 @@ public interface ThreadPoolConfig {
      * @return <code>true</code> if daemon threads should be created.
      */
     boolean isDaemon();
+
+    /**
+     * Return the type of threads used by the pool.
+     * If a thread factory is configured, it is used regardless of the type.
+     * Virtual threads are always daemon threads and do not support priorities.
+     * @return The thread type.
+     * @since 3.5
+     */
+    ThreadType getThreadType();
 }
\ No newline at end of file
@@ -31,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadType;
 import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,11 +74,24 @@ public class DefaultThreadPool
         this.configuration = new ModifiableThreadPoolConfig(origConfig);
 
         // factory
-        final ThreadFactory delegateThreadFactory;
+        ThreadFactory delegateThreadFactory = null;
         if (this.configuration.getFactory() == null) {
-            logger.debug("Thread pool [{}] ; No ThreadFactory is configured. Will use JVM default thread factory: {}",
-                    this.name, ExtendedThreadFactory.class.getName());
-            delegateThreadFactory = Executors.defaultThreadFactory();
+            if (this.configuration.getThreadType() == ThreadType.VIRTUAL) {
+                delegateThreadFactory = createVirtualThreadFactory();
+                if (delegateThreadFactory == null) {
+                    this.logger.warn("Virtual threads are not supported by this JVM. Thread pool [{}] uses platform threads.",
+                            this.name);
+                    this.configuration.setThreadType(ThreadType.PLATFORM);
+                } else {
+                    // virtual threads are always daemon threads
+                    this.configuration.setDaemon(true);
+                }
+            }
+            if (delegateThreadFactory == null) {
+                logger.debug("Thread pool [{}] ; No ThreadFactory is configured. Will use JVM default thread factory: {}",
+                        this.name, ExtendedThreadFactory.class.getName());
+                delegateThreadFactory = Executors.defaultThreadFactory();
+            }
         } else {
             delegateThreadFactory = this.configuration.getFactory();
         }
@@ -145,6 +159,22 @@ public class DefaultThreadPool
         this.logger.info("Thread pool [{}] initialized.", name);
     }
 
+    /**
+     * Create a factory for virtual threads.
+     * Reflection is used as virtual threads are only available with newer JVMs.
+     * @return The thread factory or {@code null} if virtual threads are not supported.
+     */
+    static ThreadFactory createVirtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (final Exception e) {
+            // not supported or not enabled
+            return null;
+        }
+    }
+
     /**
      * @see org.apache.sling.commons.threads.ThreadPool#getName()
      */
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.threads.impl;
+
+import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadType;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultThreadPoolTest {
+
+    @Test
+    public void shouldUsePlatformThreadsByDefault() throws Exception {
+        final DefaultThreadPool pool = new DefaultThreadPool("Test Pool", new ModifiableThreadPoolConfig());
+        try {
+            assertEquals(ThreadType.PLATFORM, pool.getConfiguration().getThreadType());
+            assertFalse("Non-daemon thread", pool.submit(currentThread()).get().isDaemon());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldUseVirtualThreadsIfSupported() throws Exception {
+        final ModifiableThreadPoolConfig config = new ModifiableThreadPoolConfig();
+        config.setThreadType(ThreadType.VIRTUAL);
+        final DefaultThreadPool pool = new DefaultThreadPool("Test Pool", config);
+        try {
+            final Thread thread = pool.submit(currentThread()).get();
+            assertEquals("Thread name", "sling-test-pool-1", thread.getName());
+            if ( DefaultThreadPool.createVirtualThreadFactory() != null ) {
+                assertEquals(ThreadType.VIRTUAL, pool.getConfiguration().getThreadType());
+                assertTrue("Virtual threads are daemon threads", thread.isDaemon());
+            } else {
+                assertEquals(ThreadType.PLATFORM, pool.getConfiguration().getThreadType());
+            }
+            // the completed task count is only updated after the future is done
+            final ThreadPoolExecutor executor = pool.getExecutor();
+            executor.shutdown();
+            assertTrue("Terminated", executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals("Completed tasks", 1, executor.getCompletedTaskCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Callable<Thread> currentThread() {
+        return new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        };
+    }
+}
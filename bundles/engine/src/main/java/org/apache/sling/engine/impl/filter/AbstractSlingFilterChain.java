@@ -34,12 +34,30 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
 
     private FilterHandle[] filters;
 
+    private final SlingFilterChainHelper helper;
+
     private int current;
 
     private long[] times;
 
+    /** path for which {@link #selection} has been determined */
+    private String selectionPath;
+
+    private boolean[] selection;
+
     protected AbstractSlingFilterChain(FilterHandle[] filters) {
+        this(filters, null);
+    }
+
+    /**
+     * @param filters The filters of the chain
+     * @param helper The helper which provided the filters, used to look up
+     *            the cached selection of the filters for the request path.
+     *            If <code>null</code> each filter is selected on its own.
+     */
+    protected AbstractSlingFilterChain(FilterHandle[] filters, SlingFilterChainHelper helper) {
         this.filters = filters;
+        this.helper = helper;
         this.current = -1;
         this.times = (filters != null) ? new long[filters.length + 1] : null;
     }
@@ -63,7 +81,7 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
                 // continue filtering with the next filter
                 FilterHandle filter = this.filters[this.current];
                 
-                if (filter.select(slingRequest)) {
+                if (isSelected(slingRequest, filter)) {
                     trackFilter(slingRequest, filter);
                     filter.getFilter().doFilter(slingRequest, slingResponse, this);
                 } else {
@@ -91,6 +109,23 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
 
     // ---------- internal helper
 
+    /**
+     * Returns whether the current filter is selected for the request. The
+     * selection is looked up once for the path of the request and reused
+     * as long as previous filters do not change the path.
+     */
+    private boolean isSelected(SlingHttpServletRequest request, FilterHandle filter) {
+        if (helper == null) {
+            return filter.select(request);
+        }
+        final String path = FilterHandle.getPath(request);
+        if (selection == null || !path.equals(selectionPath)) {
+            selection = helper.getSelection(filters, path);
+            selectionPath = path;
+        }
+        return selection[this.current];
+    }
+
     private void trackFilter(ServletRequest request, FilterHandle filter) {
         RequestData data = RequestData.getRequestData(request);
         if (data != null) {
@@ -76,19 +76,37 @@ public class FilterHandle implements Comparable<FilterHandle> {
     }
     
     boolean select(SlingHttpServletRequest slingHttpServletRequest) {
+        return select(getPath(slingHttpServletRequest));
+    }
+
+    boolean select(String path) {
         boolean select = true;        
         if (regex != null) {
-            String uri = slingHttpServletRequest.getPathInfo();
-            // assume root if uri is null
-            if (uri == null)
-            {
-                uri = "/";
-            }
-            select = this.regex.matcher(uri).matches();
+            select = this.regex.matcher(path).matches();
         }        
         return select;
     }
 
+    /**
+     * Whether this filter is selected for every request
+     */
+    boolean isUnconditional() {
+        return regex == null;
+    }
+
+    /**
+     * The path the filter patterns are matched against
+     */
+    static String getPath(SlingHttpServletRequest slingHttpServletRequest) {
+        String uri = slingHttpServletRequest.getPathInfo();
+        // assume root if uri is null
+        if (uri == null)
+        {
+            uri = "/";
+        }
+        return uri;
+    }
+
     public long getCalls() {
         return calls.get();
     }
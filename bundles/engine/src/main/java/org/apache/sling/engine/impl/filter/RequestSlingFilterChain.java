@@ -38,8 +38,9 @@ public class RequestSlingFilterChain extends AbstractSlingFilterChain {
 
     private final SlingRequestProcessorImpl handler;
 
-    public RequestSlingFilterChain(SlingRequestProcessorImpl handler, FilterHandle[] filters) {
-        super(filters);
+    public RequestSlingFilterChain(SlingRequestProcessorImpl handler, FilterHandle[] filters,
+            SlingFilterChainHelper helper) {
+        super(filters, helper);
         this.handler = handler;
     }
 
@@ -18,9 +18,12 @@
  */
 package org.apache.sling.engine.impl.filter;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.Filter;
 
@@ -35,10 +38,15 @@ public class SlingFilterChainHelper {
 
     private static final FilterHandle[] EMPTY_FILTER_ARRAY = new FilterHandle[0];
 
+    /** maximum number of paths for which the filter selection is cached */
+    static final int MAX_CACHED_SELECTIONS = 1000;
+
     private SortedSet<FilterHandle> filterList;
 
     private FilterHandle[] filters = EMPTY_FILTER_ARRAY;
 
+    private volatile Selections selections = new Selections(EMPTY_FILTER_ARRAY);
+
     SlingFilterChainHelper() {
     }
 
@@ -49,6 +57,7 @@ public class SlingFilterChainHelper {
         }
         filterList.add(new FilterHandle(filter, pattern, filterId, order, orderSource, mbean));
         filters = getFiltersInternal();
+        selections = new Selections(filters);
         return filter;
     }
 
@@ -61,6 +70,7 @@ public class SlingFilterChainHelper {
                         filterId))) {
                     fi.remove();
                     filters = getFiltersInternal();
+                    selections = new Selections(filters);
                     return true;
                 }
             }
@@ -79,10 +89,80 @@ public class SlingFilterChainHelper {
         return filters;
     }
 
+    /**
+     * Returns which of the given filters are selected for the given path.
+     * The selection is cached per path as long as the filters are the
+     * current filters of this instance, that is until a filter is added
+     * or removed.
+     *
+     * @param filters The filters as returned by {@link #getFilters()}
+     * @param path The path the filter patterns are matched against
+     * @return An array with an entry for each filter
+     */
+    public boolean[] getSelection(final FilterHandle[] filters, final String path) {
+        final Selections current = this.selections;
+        if (current.filters != filters) {
+            // the filters have been changed while the request was processed
+            return Selections.select(filters, path);
+        }
+        return current.get(path);
+    }
+
     private FilterHandle[] getFiltersInternal() {
         if (filterList == null || filterList.isEmpty()) {
             return EMPTY_FILTER_ARRAY;
         }
         return filterList.toArray(new FilterHandle[filterList.size()]);
     }
-}
\ No newline at end of file
+
+    /**
+     * The cached filter selections for one set of filters. A new instance is
+     * created whenever the filters change, so a selection is never computed
+     * for one set of filters and returned for another.
+     */
+    private static final class Selections {
+
+        final FilterHandle[] filters;
+
+        /** selection shared by all paths if no filter has a pattern */
+        private final boolean[] unconditional;
+
+        private final ConcurrentMap<String, boolean[]> cache = new ConcurrentHashMap<String, boolean[]>();
+
+        Selections(final FilterHandle[] filters) {
+            this.filters = filters;
+            boolean[] all = new boolean[filters.length];
+            Arrays.fill(all, true);
+            for (final FilterHandle filter : filters) {
+                if (!filter.isUnconditional()) {
+                    all = null;
+                    break;
+                }
+            }
+            this.unconditional = all;
+        }
+
+        boolean[] get(final String path) {
+            if (unconditional != null) {
+                return unconditional;
+            }
+            boolean[] selection = cache.get(path);
+            if (selection == null) {
+                selection = select(filters, path);
+                if (cache.size() >= MAX_CACHED_SELECTIONS) {
+                    cache.clear();
+                }
+                cache.put(path, selection);
+            }
+            return selection;
+        }
+
+        static boolean[] select(final FilterHandle[] filters, final String path) {
+            final boolean[] selection = new boolean[filters.length];
+            for (int i = 0; i < filters.length; i++) {
+                selection[i] = filters[i].select(path);
+            }
+            return selection;
+        }
+    }
+}
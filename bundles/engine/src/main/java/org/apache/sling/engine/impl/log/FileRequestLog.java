@@ -22,11 +22,32 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.io.Writer;
+import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.Hashtable;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.sling.engine.RequestLog;
+import org.apache.sling.engine.jmx.RequestLogMBean;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The <code>FileRequestLog</code> class is an implementation of the
@@ -35,52 +56,93 @@ import org.apache.sling.engine.RequestLog;
  * internal map of log files is kept and access to the <code>PrintWriter</code>s
  * to write to the file is synchronized.
  * <p>
- * This class has a defined lifecycle to ensure correct operation: To ensure no
- * log files are kept open, the {@link RequestLoggerFilter} object calls
- * {@link #dispose()} when it is being deactivated.
- * <p>
- * Note: Currently, each log file is kept open from the moment the log file is
- * first moment until the {@link #dispose()} method is called. Future
- * development should probably focus on the following issues: (1) Implement an
- * open/write/close cycle when logging a message, (2) close log files when the
- * last user has closed the log, (3) optimize the first strategy by keeping the
- * files open for some time.
+ * This class has a defined lifecycle to ensure correct operation: A log file
+ * is kept open from the moment it is first opened until the last log using it
+ * is closed. To ensure no log files are kept open, the
+ * {@link RequestLoggerFilter} object calls {@link #dispose()} when it is being
+ * deactivated.
  * <p>
- * Note: Currently, the <code>PrintWriter</code> used to log the message is
- * flushed after each log message written. Future development should probably
- * implement better buffering in conjunction with the temporary open/close
- * cycles of the files.
+ * A log file is either written synchronously or asynchronously, depending on
+ * the flush interval given by the log most recently opening the file. If
+ * written synchronously, the <code>PrintWriter</code> used to log the message
+ * is flushed after each log message written. If written asynchronously, the
+ * messages are added to a bounded queue without locking and a single writer
+ * thread shared by all files writes the queued messages and flushes the file
+ * once per flush interval. If the queue is full, the request thread writes the
+ * queued messages and its own message itself, so messages are never dropped
+ * or reordered while the file is open.
  */
 class FileRequestLog implements RequestLog {
 
-    // The map of shared open files (actually PrintWriter instances)
-    private static Map<String, PrintWriter> logFiles = new HashMap<String, PrintWriter>();
+    /** The maximum number of queued messages per asynchronously written file */
+    static final int QUEUE_CAPACITY = 10000;
+
+    // The map of shared open files
+    private static Map<String, LogFile> logFiles = new HashMap<String, LogFile>();
+
+    // The thread writing the asynchronously written files, guarded by logFiles
+    private static ScheduledExecutorService writerExecutor;
 
-    // Dispose class by closing all open PrintWeiter instances
+    // Dispose class by closing all open log files
     static void dispose() {
-        for (final Writer w : logFiles.values()) {
-            try {
-                w.close();
-            } catch (IOException ioe) {
-                // don't care
+        synchronized (logFiles) {
+            for (final LogFile file : logFiles.values()) {
+                file.close();
             }
+            logFiles.clear();
+            stopWriterExecutor();
+        }
+    }
+
+    private static ScheduledExecutorService getWriterExecutor() {
+        if (writerExecutor == null) {
+            writerExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Apache Sling Request Log Writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return writerExecutor;
+    }
+
+    private static void stopWriterExecutor() {
+        if (writerExecutor != null) {
+            writerExecutor.shutdown();
+            writerExecutor = null;
         }
-        logFiles.clear();
     }
 
-    // The PrintWriter used by this instance to write the messages
-    private PrintWriter output;
+    // The log file used by this instance to write the messages
+    private LogFile output;
 
     FileRequestLog(File logFile) throws IOException {
+        this(logFile, 0, null);
+    }
+
+    /**
+     * @param logFile The file to log to
+     * @param flushInterval The interval in milliseconds to write queued
+     *            messages or zero to write each message synchronously. This
+     *            applies to all logs sharing the file.
+     * @param bundleContext The bundle context to register the management
+     *            interface of an asynchronously written file, may be <code>null</code>
+     */
+    FileRequestLog(File logFile, long flushInterval, BundleContext bundleContext) throws IOException {
         synchronized (logFiles) {
             final String fileName = logFile.getAbsolutePath();
-            this.output = logFiles.get(fileName);
-            if (this.output == null) {
+            LogFile file = logFiles.get(fileName);
+            if (file == null) {
                 logFile.getParentFile().mkdirs();
                 FileWriter fw = new FileWriter(logFile, true);
-                this.output = new PrintWriter(fw);
-                logFiles.put(fileName, this.output);
+                file = new LogFile(fileName, new PrintWriter(fw));
+                logFiles.put(fileName, file);
             }
+            file.configure(flushInterval, flushInterval > 0 ? getWriterExecutor() : null, bundleContext);
+            file.users++;
+            this.output = file;
         }
     }
 
@@ -91,17 +153,281 @@ class FileRequestLog implements RequestLog {
         // use a local copy of the reference to not encounter NPE when this
         // log happens to be closed asynchronously while at the same time not
         // requiring synchronization
-        PrintWriter writer = this.output;
-        if (writer != null) {
-            synchronized (writer) {
-                writer.println(message);
-                writer.flush();
-            }
+        LogFile file = this.output;
+        if (file != null) {
+            file.write(message);
         }
     }
 
     public void close() {
-        // just drop the reference to the output
-        this.output = null;
+        synchronized (logFiles) {
+            final LogFile file = this.output;
+            this.output = null;
+            // close the file with its last log, unless it has been disposed already
+            if (file != null && --file.users == 0 && logFiles.get(file.fileName) == file) {
+                file.close();
+                logFiles.remove(file.fileName);
+                if (logFiles.isEmpty()) {
+                    stopWriterExecutor();
+                }
+            }
+        }
+    }
+
+    /**
+     * A shared open log file.
+     */
+    static final class LogFile implements Runnable {
+
+        /** default log */
+        private final Logger log = LoggerFactory.getLogger(getClass());
+
+        private final String fileName;
+
+        private final PrintWriter writer;
+
+        private final Queue<String> queue = new ConcurrentLinkedQueue<String>();
+
+        private final AtomicInteger queueSize = new AtomicInteger();
+
+        private final AtomicLong written = new AtomicLong();
+
+        private final AtomicLong backpressure = new AtomicLong();
+
+        private final AtomicLong dropped = new AtomicLong();
+
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+        /** The number of logs using this file, guarded by the map of log files */
+        private int users;
+
+        private volatile long flushInterval;
+
+        private volatile ScheduledExecutorService executor;
+
+        private ScheduledFuture<?> flushTask;
+
+        private ServiceRegistration mbeanRegistration;
+
+        private volatile boolean closed;
+
+        LogFile(final String fileName, final PrintWriter writer) {
+            this.fileName = fileName;
+            this.writer = writer;
+        }
+
+        /**
+         * Changes how the file is written.
+         * @param flushInterval The interval in milliseconds to write queued
+         *            messages or zero to write each message synchronously
+         * @param executor The executor writing the queued messages, only used
+         *            if the flush interval is positive
+         * @param bundleContext The bundle context to register the management
+         *            interface, may be <code>null</code>
+         */
+        synchronized void configure(final long flushInterval, final ScheduledExecutorService executor,
+                final BundleContext bundleContext) {
+            if (this.closed || flushInterval == this.flushInterval) {
+                return;
+            }
+            if (this.flushTask != null) {
+                this.flushTask.cancel(false);
+                this.flushTask = null;
+            }
+            this.flushInterval = flushInterval;
+            if (flushInterval > 0) {
+                this.executor = executor;
+                this.flushTask = executor.scheduleWithFixedDelay(this, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS);
+                if (this.mbeanRegistration == null) {
+                    this.mbeanRegistration = registerMBean(bundleContext);
+                }
+            } else {
+                this.executor = null;
+                unregisterMBean();
+                writeQueue();
+            }
+        }
+
+        void write(final String message) {
+            if (this.closed) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+            if (this.flushInterval <= 0) {
+                synchronized (this.writer) {
+                    // messages queued before the file was switched to synchronous
+                    // writing are written first
+                    this.written.addAndGet(drainQueue());
+                    this.writer.println(message);
+                    this.writer.flush();
+                }
+                this.written.incrementAndGet();
+                return;
+            }
+
+            final int size = this.queueSize.incrementAndGet();
+            if (size > QUEUE_CAPACITY) {
+                // the writer thread does not keep up, write the queued
+                // messages and this message ourselves instead of dropping it
+                this.queueSize.decrementAndGet();
+                this.backpressure.incrementAndGet();
+                synchronized (this.writer) {
+                    this.written.addAndGet(drainQueue());
+                    this.writer.println(message);
+                }
+                this.written.incrementAndGet();
+                scheduleWrite();
+                return;
+            }
+            this.queue.add(message);
+            if (this.closed) {
+                // the file has been closed while adding the message, the
+                // queue may have been written already
+                discardQueue();
+            } else if (size == QUEUE_CAPACITY / 2) {
+                // do not wait for the flush interval to write a half full queue
+                scheduleWrite();
+            }
+        }
+
+        private void scheduleWrite() {
+            final ScheduledExecutorService executor = this.executor;
+            if (executor != null && this.writeScheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (final RejectedExecutionException ree) {
+                    // shut down, the queue is written when the file is closed
+                    this.writeScheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Writes the queued messages, called by the writer thread once per
+         * flush interval and when the queue is filling up.
+         */
+        public void run() {
+            this.writeScheduled.set(false);
+            writeQueue();
+        }
+
+        /**
+         * Write all queued messages and flush the file.
+         */
+        void writeQueue() {
+            synchronized (this.writer) {
+                if (!this.closed) {
+                    this.written.addAndGet(drainQueue());
+                    this.writer.flush();
+                }
+            }
+        }
+
+        // must be called with the writer locked
+        private int drainQueue() {
+            int count = 0;
+            String message;
+            while ((message = this.queue.poll()) != null) {
+                this.queueSize.decrementAndGet();
+                this.writer.println(message);
+                count++;
+            }
+            return count;
+        }
+
+        private void discardQueue() {
+            while (this.queue.poll() != null) {
+                this.queueSize.decrementAndGet();
+                this.dropped.incrementAndGet();
+            }
+        }
+
+        /**
+         * Writes the queued messages and closes the file.
+         */
+        synchronized void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (this.flushTask != null) {
+                this.flushTask.cancel(false);
+                this.flushTask = null;
+            }
+            unregisterMBean();
+            synchronized (this.writer) {
+                this.written.addAndGet(drainQueue());
+                this.writer.close();
+            }
+        }
+
+        private ServiceRegistration registerMBean(final BundleContext bundleContext) {
+            if (bundleContext == null) {
+                return null;
+            }
+            try {
+                final Dictionary<String, String> mbeanProps = new Hashtable<String, String>();
+                mbeanProps.put("jmx.objectname", "org.apache.sling:type=engine-requestlog,service="
+                    + ObjectName.quote(this.fileName));
+                return bundleContext.registerService(RequestLogMBean.class.getName(),
+                    new RequestLogMBeanImpl(this), mbeanProps);
+            } catch (final Throwable t) {
+                log.debug("Unable to register mbean", t);
+                return null;
+            }
+        }
+
+        private void unregisterMBean() {
+            if (this.mbeanRegistration != null) {
+                try {
+                    this.mbeanRegistration.unregister();
+                } catch (final IllegalStateException ise) {
+                    // bundle already stopped
+                }
+                this.mbeanRegistration = null;
+            }
+        }
+    }
+
+    /**
+     * Management interface of an asynchronously written log file.
+     */
+    static final class RequestLogMBeanImpl extends StandardMBean implements RequestLogMBean {
+
+        private final LogFile file;
+
+        RequestLogMBeanImpl(final LogFile file) throws NotCompliantMBeanException {
+            super(RequestLogMBean.class);
+            this.file = file;
+        }
+
+        public String getFileName() {
+            return file.fileName;
+        }
+
+        public long getFlushIntervalMsec() {
+            return file.flushInterval;
+        }
+
+        public int getQueueCapacity() {
+            return QUEUE_CAPACITY;
+        }
+
+        public int getQueuedMessages() {
+            return file.queueSize.get();
+        }
+
+        public long getWrittenMessages() {
+            return file.written.get();
+        }
+
+        public long getBackpressureCount() {
+            return file.backpressure.get();
+        }
+
+        public long getDroppedMessages() {
+            return file.dropped.get();
+        }
     }
 }
@@ -66,6 +66,9 @@ public class RequestLoggerService {
     @Property(boolValue = false)
     public static final String PARAM_ON_ENTRY = "request.log.service.onentry";
 
+    @Property(longValue = 0)
+    public static final String PARAM_FILE_FLUSH_INTERVAL = "request.log.service.file.flushinterval";
+
     private static final int OUTPUT_TYPE_LOGGER = 0;
 
     private static final int OUTPUT_TYPE_FILE = 1;
@@ -103,7 +106,8 @@ public class RequestLoggerService {
         final String output = PropertiesUtil.toString(configuration.get(PARAM_OUTPUT), null);
         if (output != null) {
             final int outputType = PropertiesUtil.toInteger(configuration.get(PARAM_OUTPUT_TYPE), OUTPUT_TYPE_LOGGER);
-            this.log = this.getLog(bundleContext, output, outputType);
+            final long flushInterval = PropertiesUtil.toLong(configuration.get(PARAM_FILE_FLUSH_INTERVAL), 0);
+            this.log = this.getLog(bundleContext, output, outputType, flushInterval);
         }
     }
 
@@ -127,7 +131,7 @@ public class RequestLoggerService {
         return this.onEntry;
     }
 
-    private RequestLog getLog(BundleContext bundleContext, String output, int outputType) {
+    private RequestLog getLog(BundleContext bundleContext, String output, int outputType, long flushInterval) {
         switch (outputType) {
             case OUTPUT_TYPE_FILE:
                 // file logging
@@ -142,7 +146,7 @@ public class RequestLoggerService {
                         file = file.getAbsoluteFile();
                     }
 
-                    return new FileRequestLog(file);
+                    return new FileRequestLog(file, flushInterval, bundleContext);
                 } catch (IOException ioe) {
                     // TODO: log
                 }
@@ -39,6 +39,8 @@ import org.apache.commons.fileupload.RequestContext;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.apache.commons.fileupload.servlet.ServletRequestContext;
+import org.apache.sling.api.SlingException;
+import org.apache.sling.api.SlingIOException;
 import org.apache.sling.api.request.RequestParameter;
 import org.apache.sling.api.request.RequestParameterMap;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -113,6 +115,12 @@ public class ParameterSupport {
      */
     private static boolean checkForAdditionalParameters = false;
 
+    /**
+     * The request path prefixes for which multipart requests are always
+     * streamed, regardless of the upload mode requested by the client.
+     */
+    private static String[] streamedUploadPaths = new String[0];
+
     private final HttpServletRequest servletRequest;
 
     private ParameterMap postParameterMap;
@@ -155,12 +163,14 @@ public class ParameterSupport {
 
     static void configure(final long maxRequestSize, final String location, final long maxFileSize,
             final int fileSizeThreshold,
-            final boolean checkForAdditionalParameters) {
+            final boolean checkForAdditionalParameters,
+            final String[] streamedUploadPaths) {
         ParameterSupport.maxRequestSize = (maxRequestSize > 0) ? maxRequestSize : -1;
         ParameterSupport.location = (location != null) ? new File(location) : null;
         ParameterSupport.maxFileSize = (maxFileSize > 0) ? maxFileSize : -1;
         ParameterSupport.fileSizeThreshold = (fileSizeThreshold > 0) ? fileSizeThreshold : 256000;
         ParameterSupport.checkForAdditionalParameters = checkForAdditionalParameters;
+        ParameterSupport.streamedUploadPaths = (streamedUploadPaths != null) ? streamedUploadPaths : new String[0];
     }
 
     private ParameterSupport(HttpServletRequest servletRequest) {
@@ -292,16 +302,21 @@ public class ParameterSupport {
                 if (ServletFileUpload.isMultipartContent(new ServletRequestContext(this.getServletRequest()))) {
                     if (isStreamed(parameters, this.getServletRequest())) {
                         // special case, the request is Mutipart and streamed processing has been requested
+                        // The request data is passed to the RequestPartsIterator, hence from a RequestParameter pov its been used, and must not be used again.
+                        this.requestDataUsed = true;
                         try {
-                            this.getServletRequest().setAttribute(REQUEST_PARTS_ITERATOR_ATTRIBUTE, new RequestPartsIterator(this.getServletRequest()));
+                            final RequestPartsIterator partsIterator = new RequestPartsIterator(this.getServletRequest(),
+                                ParameterSupport.maxRequestSize, ParameterSupport.maxFileSize);
+                            // form fields sent before the first file are still available as parameters
+                            partsIterator.readFormFields(parameters, encoding, ParameterSupport.fileSizeThreshold);
+                            this.getServletRequest().setAttribute(REQUEST_PARTS_ITERATOR_ATTRIBUTE, partsIterator);
                             this.log.debug("getRequestParameterMapInternal: Iterator<javax.servlet.http.Part> available as request attribute  named request-parts-iterator");
                         } catch (IOException e) {
-                            this.log.error("getRequestParameterMapInternal: Error parsing mulmultipart streamed requesttipart streamed request", e);
+                            // the request body is partly consumed, the parts cannot be handed out
+                            throw new SlingIOException(e);
                         } catch (FileUploadException e) {
-                            this.log.error("getRequestParameterMapInternal: Error parsing mulmultipart streamed request", e);
+                            throw new SlingException("Error parsing multipart streamed request", e);
                         }
-                        // The request data has been passed to the RequestPartsIterator, hence from a RequestParameter pov its been used, and must not be used again.
-                        this.requestDataUsed = true;
                         // must not try and get anything from the request at this point so avoid jumping through the stream.
                         addContainerParameters = false;
                         useFallback = false;
@@ -329,7 +344,7 @@ public class ParameterSupport {
 
     /**
      * Checks to see if there is an upload mode header or uploadmode parameter indicating the request is
-     * to be streamed from the client to the server.
+     * to be streamed from the client to the server or if the request path is configured to be streamed.
      * @param parameters parameters processed from the query string only.
      * @param servletRequest the servlet request, where the body has not been processed.
      * @return true if the request was made with streaming in mind.
@@ -338,10 +353,37 @@ public class ParameterSupport {
         if ( STREAM_UPLOAD.equals(servletRequest.getHeader(SLING_UPLOADMODE_HEADER)) ) {
             return true;
         }
+        if ( streamedUploadPaths.length > 0 ) {
+            final String path = servletRequest.getPathInfo();
+            if ( path != null ) {
+                for (final String prefix : streamedUploadPaths) {
+                    if ( isPathOrDescendant(path, prefix) ) {
+                        return true;
+                    }
+                }
+            }
+        }
         RequestParameter[] rp = parameters.get(UPLOADMODE_PARAM);
         return ( rp != null && rp.length == 1 && STREAM_UPLOAD.equals(rp[0].getString()));
     }
 
+    /**
+     * Checks whether the path is the given configured path or below it. The
+     * configured path only matches whole path segments, "/content" matches
+     * "/content/a" but not "/contentfoo".
+     * @param path the request path
+     * @param prefix the configured path, with or without a trailing slash
+     * @return true if the path is the configured path or a descendant of it.
+     */
+    static boolean isPathOrDescendant(final String path, final String prefix) {
+        if ( prefix.isEmpty() || !path.startsWith(prefix) ) {
+            return false;
+        }
+        return path.length() == prefix.length()
+            || prefix.charAt(prefix.length() - 1) == '/'
+            || path.charAt(prefix.length()) == '/';
+    }
+
     private void getContainerParameters(final ParameterMap parameters, final String encoding, final boolean alwaysAdd) {
         final Map<?, ?> pMap = getServletRequest().getParameterMap();
         for (Map.Entry<?, ?> entry : pMap.entrySet()) {
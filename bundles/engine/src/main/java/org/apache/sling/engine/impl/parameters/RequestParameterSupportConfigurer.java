@@ -19,12 +19,14 @@
 package org.apache.sling.engine.impl.parameters;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Dictionary;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyUnbounded;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.settings.SlingSettingsService;
@@ -95,6 +97,15 @@ public class RequestParameterSupportConfigurer {
             description = "Enable this if you want to include request parameters added through the container, e.g through a valve.")
     private static final String PROP_CHECK_ADDITIONAL_PARAMETERS = "sling.default.parameter.checkForAdditionalContainerParameters";
 
+    @Property(
+            unbounded = PropertyUnbounded.ARRAY,
+            label = "Streamed Upload Paths",
+            description = "Request path prefixes for which multipart/form-data requests are always streamed, "
+                + "as if the 'Sling-uploadmode: stream' header had been sent. The parts are not written to "
+                + "temporary files but are available from the 'request-parts-iterator' request attribute. "
+                + "Form fields sent before the first file are also available as request parameters.")
+    private static final String PROP_STREAMED_UPLOAD_PATHS = "request.stream.paths";
+
     @Reference
     private SlingSettingsService settignsService;
 
@@ -112,6 +123,7 @@ public class RequestParameterSupportConfigurer {
         final long maxFileSize = PropertiesUtil.toLong(props.get(PROP_FILE_SIZE_MAX), -1);
         final int fileSizeThreshold = PropertiesUtil.toInteger(props.get(PROP_FILE_SIZE_THRESHOLD), -1);
         final boolean checkAddParameters = PropertiesUtil.toBoolean(props.get(PROP_CHECK_ADDITIONAL_PARAMETERS), false);
+        final String[] streamedUploadPaths = PropertiesUtil.toStringArray(props.get(PROP_STREAMED_UPLOAD_PATHS), new String[0]);
 
         if (log.isInfoEnabled()) {
             log.info("Default Character Encoding: {}", fixEncoding);
@@ -121,12 +133,13 @@ public class RequestParameterSupportConfigurer {
             log.info("Maximum File Size: {}", maxFileSize);
             log.info("Tempory File Creation Threshold: {}", fileSizeThreshold);
             log.info("Check for additional container parameters: {}", checkAddParameters);
+            log.info("Streamed upload paths: {}", Arrays.toString(streamedUploadPaths));
         }
 
         Util.setDefaultFixEncoding(fixEncoding);
         ParameterMap.setMaxParameters(maxParams);
         ParameterSupport.configure(maxRequestSize, fileLocation, maxFileSize,
-                fileSizeThreshold, checkAddParameters);
+                fileSizeThreshold, checkAddParameters, streamedUploadPaths);
     }
 
     private String getFileLocation(final ComponentContext context, String fileLocation) {
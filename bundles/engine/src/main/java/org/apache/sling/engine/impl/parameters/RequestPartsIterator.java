@@ -21,6 +21,7 @@ package org.apache.sling.engine.impl.parameters;
 
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.slf4j.Logger;
@@ -28,16 +29,22 @@ import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.Part;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Contains a Lazy iterator of Parts from the request stream loaded as the request is streamed using the Commons FileUpload API.
+ * <p>
+ * The form fields sent before the first file may be read ahead with {@link #readFormFields(ParameterMap, String, int)} to
+ * make them available as request parameters. These form fields are still returned by this iterator.
  */
 public class RequestPartsIterator implements Iterator<Part> {
     private static final Logger LOG = LoggerFactory.getLogger(RequestPartsIterator.class);
@@ -45,6 +52,9 @@ public class RequestPartsIterator implements Iterator<Part> {
     /** The CommonsFile Upload streaming API iterator */
     private final FileItemIterator itemIterator;
 
+    /** The parts which have already been read from the item iterator */
+    private final LinkedList<Part> readAhead = new LinkedList<Part>();
+
     /**
      * Create and initialse the iterator using the request. The request must be fresh. Headers can have been read but the stream
      * must not have been parsed.
@@ -53,12 +63,80 @@ public class RequestPartsIterator implements Iterator<Part> {
      * @throws FileUploadException when there is a problem parsing the request.
      */
     public RequestPartsIterator(HttpServletRequest servletRequest) throws IOException, FileUploadException {
+        this(servletRequest, -1, -1);
+    }
+
+    /**
+     * Create and initialse the iterator using the request and size limits.
+     * @param servletRequest the request
+     * @param maxRequestSize the maximum size of the request, -1 means unlimited
+     * @param maxFileSize the maximum size of a single part, -1 means unlimited
+     * @throws IOException when there is a problem reading the request.
+     * @throws FileUploadException when there is a problem parsing the request.
+     */
+    public RequestPartsIterator(HttpServletRequest servletRequest, long maxRequestSize, long maxFileSize)
+    throws IOException, FileUploadException {
         ServletFileUpload upload = new ServletFileUpload();
+        upload.setSizeMax(maxRequestSize);
+        upload.setFileSizeMax(maxFileSize);
         itemIterator = upload.getItemIterator(servletRequest);
     }
 
+    /**
+     * Reads the form fields up to the first file from the request and adds them to the
+     * parameters. The body of the first file is not read.
+     * <p>
+     * The form fields are held in memory, a form field larger than the given maximum size
+     * fails the request.
+     * @param parameters the parameters to add the form fields to
+     * @param encoding the encoding to decode the form field values
+     * @param maxFieldSize the maximum size of a single form field
+     * @throws IOException when there is a problem reading the request.
+     * @throws FileUploadException when there is a problem parsing the request or a form field is too large.
+     */
+    void readFormFields(final ParameterMap parameters, final String encoding, final int maxFieldSize)
+    throws IOException, FileUploadException {
+        while (itemIterator.hasNext()) {
+            final FileItemStream item = itemIterator.next();
+            if (!item.isFormField()) {
+                readAhead.add(new StreamedRequestPart(item));
+                return;
+            }
+            final byte[] content = readFormField(item, maxFieldSize);
+            readAhead.add(new StreamedRequestPart(item, content));
+            parameters.addParameter(new ContainerRequestParameter(item.getFieldName(),
+                new String(content, encoding), encoding), false);
+        }
+    }
+
+    private static byte[] readFormField(final FileItemStream item, final int maxFieldSize)
+    throws IOException, FileUploadException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final InputStream in = item.openStream();
+        try {
+            final byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                if (out.size() + len > maxFieldSize) {
+                    final FileUploadBase.FileSizeLimitExceededException e = new FileUploadBase.FileSizeLimitExceededException(
+                        "The form field " + item.getFieldName() + " exceeds its maximum permitted size of "
+                            + maxFieldSize + " bytes.", out.size() + len, maxFieldSize);
+                    e.setFieldName(item.getFieldName());
+                    throw e;
+                }
+                out.write(buffer, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+
     @Override
     public boolean hasNext() {
+        if (!readAhead.isEmpty()) {
+            return true;
+        }
         try {
             return itemIterator.hasNext();
         } catch (FileUploadException e) {
@@ -71,6 +149,9 @@ public class RequestPartsIterator implements Iterator<Part> {
 
     @Override
     public Part next() {
+        if (!readAhead.isEmpty()) {
+            return readAhead.removeFirst();
+        }
         try {
             return new StreamedRequestPart(itemIterator.next());
         } catch (IOException e) {
@@ -92,10 +173,21 @@ public class RequestPartsIterator implements Iterator<Part> {
     private static class StreamedRequestPart implements Part {
         private final FileItemStream fileItem;
         private final InputStream inputStream;
+        private final long size;
 
         public StreamedRequestPart(FileItemStream fileItem) throws IOException {
             this.fileItem = fileItem;
             inputStream = fileItem.openStream();
+            size = 0;
+        }
+
+        /**
+         * Creates a part whose content has already been read from the request.
+         */
+        StreamedRequestPart(FileItemStream fileItem, byte[] content) {
+            this.fileItem = fileItem;
+            inputStream = new ByteArrayInputStream(content);
+            size = content.length;
         }
 
         @Override
@@ -115,7 +207,7 @@ public class RequestPartsIterator implements Iterator<Part> {
 
         @Override
         public long getSize() {
-            return 0;
+            return size;
         }
 
         @Override
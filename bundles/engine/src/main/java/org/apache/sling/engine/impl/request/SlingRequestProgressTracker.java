@@ -19,11 +19,17 @@
 package org.apache.sling.engine.impl.request;
 
 import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -89,6 +95,20 @@ import org.apache.sling.api.request.RequestProgressTracker;
  * <li>The absolute time of the timer in parenthesis.
  * <li>The entry message
  * </ol>
+ * <p>
+ * <b>Recording Overhead</b>
+ * <p>
+ * To keep the overhead for the majority of requests, whose entries are never
+ * read, as low as possible, entries are recorded in arrays as the time stamp,
+ * the message format or timer name and the message arguments. The arrays are
+ * only allocated with the first entry. The messages are only formatted when
+ * they are read through {@link #getMessages()} or {@link #dump(PrintWriter)}.
+ * Message arguments which may change after they have been logged are
+ * converted to immutable values when they are logged.
+ * <p>
+ * Additionally only one in a configurable number of requests may be tracked,
+ * see {@link #setSampling(int)}. For the other requests only the duration is
+ * recorded.
  */
 public class SlingRequestProgressTracker implements RequestProgressTracker {
 
@@ -107,9 +127,37 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     /** TIMER_END format explanation */
     private static final String TIMER_END_FORMAT = "{<elapsed microseconds>,<timer name>} <optional message>";
 
+    /** Comment for requests which are not tracked */
+    private static final String NOT_TRACKED_FORMAT = "request not tracked, only one in {0} requests is tracked";
+
     /** The leading nanosecond number is left-padded with white-space to this width. */
     private static final int PADDING_WIDTH = 7;
 
+    /** The initial number of entries for which space is allocated. */
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static final long[] NO_LONGS = new long[0];
+    private static final byte[] NO_BYTES = new byte[0];
+    private static final String[] NO_STRINGS = new String[0];
+    private static final Object[][] NO_ARGUMENTS = new Object[0][];
+
+    // entry types
+    private static final byte TYPE_COMMENT = 0;
+    private static final byte TYPE_LOG = 1;
+    private static final byte TYPE_TIMER_START = 2;
+    private static final byte TYPE_TIMER_END = 3;
+
+    /** Only one in this number of requests is tracked. */
+    private static volatile int sampling = 1;
+
+    /** Counter of the created trackers used for sampling. */
+    private static final AtomicLong trackerCounter = new AtomicLong();
+
+    /**
+     * Whether entries are recorded for this request.
+     */
+    private final boolean tracked;
+
     /**
      * The system time at creation of this instance or the last {@link #reset()}.
      */
@@ -121,66 +169,156 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     private long processingEnd;
 
     /**
-     * The list of tracking entries.
+     * The sampling in effect when this request was skipped.
      */
-    private final List<TrackingEntry> entries = new ArrayList<TrackingEntry>();
+    private int notTrackedSampling;
+
+    /**
+     * The number of tracking entries.
+     */
+    private int size;
+
+    /**
+     * The creation time stamps of the tracking entries.
+     */
+    private long[] timeStamps = NO_LONGS;
+
+    /**
+     * The types of the tracking entries.
+     */
+    private byte[] types = NO_BYTES;
+
+    /**
+     * The message formats of the comment and log entries or the timer
+     * names of the timer entries.
+     */
+    private String[] texts = NO_STRINGS;
+
+    /**
+     * The optional message formats of the timer end entries.
+     */
+    private String[] formats = NO_STRINGS;
+
+    /**
+     * The message arguments of the tracking entries.
+     */
+    private Object[][] arguments = NO_ARGUMENTS;
+
+    /**
+     * The elapsed times of the timer end entries.
+     */
+    private long[] elapsed = NO_LONGS;
+
     /**
      * Map of named timers indexed by timer name storing the system time of
      * start of the respective timer.
      */
     private final Map<String, Long> namedTimerEntries = new HashMap<String, Long>();
 
-    private final FastMessageFormat messageFormat = new FastMessageFormat();
-
     /**
      * Creates a new request progress tracker.
      */
     public SlingRequestProgressTracker() {
-        this(null);
+        this(null, true);
     }
 
     /**
      * Creates a new request progress tracker and logs initial messages about the supplied request
+     * if this request is tracked according to the configured sampling.
      */
     public SlingRequestProgressTracker(HttpServletRequest request) {
+        this(request, request == null || nextTracked());
+    }
+
+    SlingRequestProgressTracker(final HttpServletRequest request, final boolean tracked) {
+        this.tracked = tracked;
         reset();
         if(request != null) {
             log("Method={0}, PathInfo={1}", request.getMethod(), request.getPathInfo());
         }
     }
 
+    /**
+     * Sets the sampling of the trackers created for requests: only one in
+     * <code>sampling</code> requests records tracking entries. For all other
+     * requests only the duration is available. A value less than or equal
+     * to one tracks all requests.
+     */
+    public static void setSampling(final int sampling) {
+        SlingRequestProgressTracker.sampling = (sampling < 1 ? 1 : sampling);
+    }
+
+    public static int getSampling() {
+        return sampling;
+    }
+
+    /**
+     * Returns whether the next tracker created for a request is tracked.
+     */
+    static boolean nextTracked() {
+        final int current = sampling;
+        return current <= 1 || trackerCounter.getAndIncrement() % current == 0;
+    }
+
+    /**
+     * Returns <code>true</code> if tracking entries are recorded by this
+     * tracker or <code>false</code> if this request has been skipped by the
+     * configured sampling.
+     */
+    public boolean isTracked() {
+        return tracked;
+    }
+
     /**
      * Resets this timer by removing all current entries and timers and adds an
      * initial timer entry
      */
     public void reset() {
         // remove all entries
-        entries.clear();
+        Arrays.fill(texts, 0, size, null);
+        Arrays.fill(formats, 0, size, null);
+        Arrays.fill(arguments, 0, size, null);
+        size = 0;
         namedTimerEntries.clear();
 
         // enter initial messages
-        processingStart = startTimerInternal(REQUEST_PROCESSING_TIMER);
         processingEnd = -1;
-
-        entries.add(new TrackingEntry(COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT));
+        if (tracked) {
+            processingStart = startTimerInternal(REQUEST_PROCESSING_TIMER);
+            addEntry(TYPE_COMMENT, "timer_end format is " + TIMER_END_FORMAT, null, null, 0);
+        } else {
+            // no entries are recorded, the comment is created when the messages are read
+            processingStart = System.nanoTime();
+            notTrackedSampling = sampling;
+        }
     }
 
     /**
      * @see org.apache.sling.api.request.RequestProgressTracker#getMessages()
      */
     public Iterator<String> getMessages() {
+        if (!tracked) {
+            return Collections.singletonList(formatMessage(0,
+                COMMENT_PREFIX + new FastMessageFormat().format(NOT_TRACKED_FORMAT, notTrackedSampling))).iterator();
+        }
         return new Iterator<String>() {
-            private final Iterator<TrackingEntry> entryIter = entries.iterator();
+            private final FastMessageFormat messageFormat = new FastMessageFormat();
+
+            private final int end = size;
+
+            private int index;
 
             public boolean hasNext() {
-                return entryIter.hasNext();
+                return index < end;
             }
 
             public String next() {
-                // throws NoSuchElementException if no entries any more
-                final TrackingEntry entry = entryIter.next();
-                final long offset = entry.getTimeStamp() - getTimeStamp();
-                return formatMessage(offset, entry.getMessage());
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int i = index++;
+                final long offset = timeStamps[i] - getTimeStamp();
+                return formatMessage(offset, formatEntry(messageFormat, i));
             }
 
             public void remove() {
@@ -189,6 +327,32 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
         };
     }
 
+    /**
+     * Creates the message of the entry at the given index.
+     */
+    private String formatEntry(final FastMessageFormat messageFormat, final int i) {
+        switch (types[i]) {
+            case TYPE_COMMENT:
+                return COMMENT_PREFIX + messageFormat.format(texts[i], arguments[i]);
+            case TYPE_LOG:
+                return LOG_PREFIX + messageFormat.format(texts[i], arguments[i]);
+            case TYPE_TIMER_START:
+                return "TIMER_START{" + texts[i] + "}";
+            default:
+                final StringBuilder sb = new StringBuilder();
+                sb.append("TIMER_END{");
+                sb.append(elapsed[i] / 1000);
+                sb.append(',');
+                sb.append(texts[i]);
+                sb.append('}');
+                if (formats[i] != null) {
+                    sb.append(' ');
+                    sb.append(messageFormat.format(formats[i], arguments[i]));
+                }
+                return sb.toString();
+        }
+    }
+
     private String formatMessage(long offset, String message) {
         // Set exact length to avoid array copies within StringBuilder
         final StringBuilder sb = new StringBuilder(PADDING_WIDTH + 1 +  message.length() + 1);
@@ -218,13 +382,16 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
 
     /** Creates an entry with the given message. */
     public void log(String message) {
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (tracked) {
+            addEntry(TYPE_LOG, message, null, null, 0);
+        }
     }
 
     /** Creates an entry with the given entry tag and message */
     public void log(String format, Object... args) {
-        String message = messageFormat.format(format, args);
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (tracked) {
+            addEntry(TYPE_LOG, format, null, immutableArguments(args), 0);
+        }
     }
 
     /**
@@ -232,7 +399,9 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      * reset to the current time.
      */
     public void startTimer(String name) {
-        startTimerInternal(name);
+        if (tracked) {
+            startTimerInternal(name);
+        }
     }
 
     /**
@@ -245,7 +414,7 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     private long startTimerInternal(String name) {
         long timer = System.nanoTime();
         namedTimerEntries.put(name, timer);
-        entries.add(new TrackingEntry(timer, "TIMER_START{" + name + "}"));
+        addEntry(timer, TYPE_TIMER_START, name, null, null, 0);
         return timer;
     }
 
@@ -253,8 +422,9 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, null, namedTimerEntries.get(name));
+        final Long startTime = namedTimerEntries.get(name);
+        if (startTime != null) {
+            logTimerInternal(name, null, null, startTime);
         }
     }
 
@@ -262,26 +432,77 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name, String format, Object... args) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, messageFormat.format(format, args), namedTimerEntries.get(name));
+        final Long startTime = namedTimerEntries.get(name);
+        if (startTime != null) {
+            logTimerInternal(name, format, immutableArguments(args), startTime);
         }
     }
 
     /**
      * Log a timer entry, including start, end and elapsed time using TIMER_END_FORMAT
      */
-    private void logTimerInternal(String name, String msg, long startTime) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("TIMER_END{");
-        sb.append((System.nanoTime() - startTime) / 1000);
-        sb.append(',');
-        sb.append(name);
-        sb.append('}');
-        if(msg != null) {
-            sb.append(' ');
-            sb.append(msg);
+    private void logTimerInternal(String name, String format, Object[] args, long startTime) {
+        final long now = System.nanoTime();
+        addEntry(now, TYPE_TIMER_END, name, format, args, now - startTime);
+    }
+
+    /**
+     * Returns a copy of the message arguments, in which the arguments which
+     * may change after they have been logged are replaced by immutable values
+     * formatted the same way: dates by a copy, other numbers by their current
+     * value and all other objects by their string representation.
+     */
+    static Object[] immutableArguments(final Object[] args) {
+        if (args == null || args.length == 0) {
+            return args;
+        }
+        final Object[] copy = args.clone();
+        for (int i = 0; i < copy.length; i++) {
+            final Object arg = copy[i];
+            if (arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long
+                    || arg instanceof Boolean || arg instanceof Enum || arg instanceof Double
+                    || arg instanceof Float || arg instanceof Short || arg instanceof Byte
+                    || arg instanceof Character || arg instanceof BigDecimal || arg instanceof BigInteger) {
+                continue;
+            }
+            if (arg instanceof Date) {
+                copy[i] = new Date(((Date) arg).getTime());
+            } else if (arg instanceof AtomicInteger) {
+                copy[i] = ((AtomicInteger) arg).get();
+            } else if (arg instanceof AtomicLong) {
+                copy[i] = ((AtomicLong) arg).get();
+            } else if (arg instanceof Number) {
+                copy[i] = ((Number) arg).doubleValue();
+            } else {
+                copy[i] = String.valueOf(arg);
+            }
         }
-        entries.add(new TrackingEntry(sb.toString()));
+        return copy;
+    }
+
+    private void addEntry(final byte type, final String text, final String format, final Object[] args,
+            final long elapsedTime) {
+        addEntry(System.nanoTime(), type, text, format, args, elapsedTime);
+    }
+
+    private void addEntry(final long timeStamp, final byte type, final String text, final String format,
+            final Object[] args, final long elapsedTime) {
+        if (size == timeStamps.length) {
+            final int capacity = size == 0 ? INITIAL_CAPACITY : size * 2;
+            timeStamps = Arrays.copyOf(timeStamps, capacity);
+            types = Arrays.copyOf(types, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            formats = Arrays.copyOf(formats, capacity);
+            arguments = Arrays.copyOf(arguments, capacity);
+            elapsed = Arrays.copyOf(elapsed, capacity);
+        }
+        timeStamps[size] = timeStamp;
+        types[size] = type;
+        texts[size] = text;
+        formats[size] = format;
+        arguments[size] = args;
+        elapsed[size] = elapsedTime;
+        size++;
     }
 
     public void done() {
@@ -300,32 +521,4 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
         }
         return System.nanoTime() - processingStart;
     }
-
-    /** Process tracker entry keeping timestamp, tag and message */
-    private static class TrackingEntry {
-
-        // creation time stamp
-        private final long timeStamp;
-
-        // tracking message
-        private final String message;
-
-        TrackingEntry(String message) {
-            this.timeStamp = System.nanoTime();
-            this.message = message;
-        }
-
-        TrackingEntry(long timeStamp, String message) {
-            this.timeStamp = timeStamp;
-            this.message = message;
-        }
-
-        long getTimeStamp() {
-            return timeStamp;
-        }
-
-        String getMessage() {
-            return message;
-        }
-    }
 }
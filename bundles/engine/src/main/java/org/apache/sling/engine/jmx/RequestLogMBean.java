@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.engine.jmx;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * This is the management interface for a request log file written
+ * asynchronously.
+ *
+ * @since 1.2, Sling Engine 2.6.8
+ */
+@ProviderType
+public interface RequestLogMBean {
+
+    /**
+     * Returns the absolute path of the log file.
+     *
+     * @return The log file path
+     */
+    String getFileName();
+
+    /**
+     * Returns the interval in milliseconds after which queued messages are
+     * written to the log file.
+     *
+     * @return The flush interval
+     */
+    long getFlushIntervalMsec();
+
+    /**
+     * Returns the maximum number of messages waiting to be written.
+     *
+     * @return The queue capacity
+     */
+    int getQueueCapacity();
+
+    /**
+     * Returns the number of messages currently waiting to be written.
+     *
+     * @return The number of queued messages
+     */
+    int getQueuedMessages();
+
+    /**
+     * Returns the number of messages written to the log file.
+     *
+     * @return The number of written messages
+     */
+    long getWrittenMessages();
+
+    /**
+     * Returns the number of messages which had to be written by the
+     * request thread as the queue was full.
+     *
+     * @return The number of messages not queued due to backpressure
+     */
+    long getBackpressureCount();
+
+    /**
+     * Returns the number of messages which could not be written as the log
+     * file had already been closed.
+     *
+     * @return The number of dropped messages
+     */
+    long getDroppedMessages();
+}
@@ -16,7 +16,10 @@
  */
 package org.apache.sling.engine.impl.filter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import javax.servlet.Filter;
 
@@ -50,4 +53,37 @@ public class SlingFilterChainHelperTest {
         assertEquals("3:-100", entries[3].getOrderSource());
         assertEquals("4:-1000", entries[4].getOrderSource());
     }
+
+    @Test public void testSelection() {
+        final SlingFilterChainHelper chain = new SlingFilterChainHelper();
+        chain.addFilter(context.mock(Filter.class, "A"), "/content/.*", 1L, 100, "1:100", null);
+        chain.addFilter(context.mock(Filter.class, "B"), null, 2L, 50, "2:50", null);
+
+        FilterHandle[] filters = chain.getFilters();
+        final boolean[] content = chain.getSelection(filters, "/content/page.html");
+        assertArrayEquals(new boolean[] {true, true}, content);
+        assertArrayEquals(new boolean[] {false, true}, chain.getSelection(filters, "/apps/page.html"));
+
+        // cached per path
+        assertSame(content, chain.getSelection(filters, "/content/page.html"));
+
+        // a new filter invalidates the cache
+        chain.addFilter(context.mock(Filter.class, "C"), "/apps/.*", 3L, 10, "3:10", null);
+        final FilterHandle[] previous = filters;
+        filters = chain.getFilters();
+        final boolean[] changed = chain.getSelection(filters, "/content/page.html");
+        assertNotSame(content, changed);
+        assertArrayEquals(new boolean[] {true, true, false}, changed);
+        assertArrayEquals(new boolean[] {false, true, true}, chain.getSelection(filters, "/apps/page.html"));
+
+        // a chain still running with the previous filters gets a selection for those
+        assertArrayEquals(new boolean[] {false, true}, chain.getSelection(previous, "/apps/page.html"));
+
+        // removing the filters with patterns makes the selection unconditional
+        chain.removeFilterById(1L);
+        chain.removeFilterById(3L);
+        filters = chain.getFilters();
+        assertSame(chain.getSelection(filters, "/a"), chain.getSelection(filters, "/b"));
+        assertArrayEquals(new boolean[] {true}, chain.getSelection(filters, "/a"));
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.engine.impl.log.FileRequestLog.LogFile;
+import org.apache.sling.engine.impl.log.FileRequestLog.RequestLogMBeanImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileRequestLogTest {
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("request", ".log");
+        file.delete();
+    }
+
+    @After
+    public void teardown() {
+        FileRequestLog.dispose();
+        file.delete();
+    }
+
+    @Test
+    public void testSynchronousWrite() throws Exception {
+        final FileRequestLog log = new FileRequestLog(file);
+        log.write("one");
+        log.write("two");
+        // written and flushed immediately
+        assertEquals(lines("one", "two"), readLines());
+    }
+
+    @Test
+    public void testAsynchronousWrite() throws Exception {
+        final FileRequestLog log = new FileRequestLog(file, TimeUnit.HOURS.toMillis(1), null);
+        // a second log for the same file shares the queue
+        final FileRequestLog other = new FileRequestLog(file, TimeUnit.HOURS.toMillis(1), null);
+        log.write("one");
+        other.write("two");
+        assertEquals(lines(), readLines());
+
+        // the file is kept open for the other log
+        log.close();
+        other.write("three");
+        assertEquals(lines(), readLines());
+
+        // closing the last log writes the queued messages
+        other.close();
+        assertEquals(lines("one", "two", "three"), readLines());
+    }
+
+    @Test
+    public void testChangedFlushInterval() throws Exception {
+        final FileRequestLog log = new FileRequestLog(file, TimeUnit.HOURS.toMillis(1), null);
+        log.write("one");
+        assertEquals(lines(), readLines());
+
+        // the most recently opened log defines how the shared file is written
+        final FileRequestLog other = new FileRequestLog(file, 0, null);
+        assertEquals(lines("one"), readLines());
+        log.write("two");
+        assertEquals(lines("one", "two"), readLines());
+        log.close();
+        other.close();
+
+        // a reopened file uses the new flush interval
+        final FileRequestLog reopened = new FileRequestLog(file, 10, null);
+        reopened.write("three");
+        final long end = System.currentTimeMillis() + 5000;
+        while (readLines().size() < 3 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(lines("one", "two", "three"), readLines());
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        final FileRequestLog log = new FileRequestLog(file, 10, null);
+        log.write("one");
+        final long end = System.currentTimeMillis() + 5000;
+        while (readLines().isEmpty() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(lines("one"), readLines());
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        final PrintWriter writer = new PrintWriter(new FileWriter(file));
+        final LogFile logFile = new LogFile(file.getAbsolutePath(), writer);
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        logFile.configure(TimeUnit.HOURS.toMillis(1), executor, null);
+        final RequestLogMBeanImpl mbean = new RequestLogMBeanImpl(logFile);
+        try {
+            // keep the writer thread from writing the queue
+            synchronized (writer) {
+                for (int i = 0; i < FileRequestLog.QUEUE_CAPACITY + 5; i++) {
+                    logFile.write("message " + i);
+                }
+                // the first message not fitting into the queue is written
+                // after the queued messages, the remaining ones are queued again
+                assertEquals(4, mbean.getQueuedMessages());
+                assertEquals(1, mbean.getBackpressureCount());
+                assertEquals(FileRequestLog.QUEUE_CAPACITY + 1, mbean.getWrittenMessages());
+            }
+        } finally {
+            logFile.close();
+            executor.shutdown();
+        }
+        assertEquals(0, mbean.getQueuedMessages());
+        assertEquals(FileRequestLog.QUEUE_CAPACITY + 5, mbean.getWrittenMessages());
+        final List<String> lines = readLines();
+        assertEquals(FileRequestLog.QUEUE_CAPACITY + 5, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("message " + i, lines.get(i));
+        }
+
+        logFile.write("closed");
+        assertEquals(1, mbean.getDroppedMessages());
+    }
+
+    private List<String> lines(final String... lines) {
+        final List<String> result = new ArrayList<String>();
+        for (final String line : lines) {
+            result.add(line);
+        }
+        return result;
+    }
+
+    private List<String> readLines() throws IOException {
+        final List<String> result = new ArrayList<String>();
+        if (file.exists()) {
+            final BufferedReader reader = new BufferedReader(new FileReader(file));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    result.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.parameters;
+
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ParameterSupportTest {
+
+    @Test
+    public void testIsPathOrDescendant() {
+        assertTrue(ParameterSupport.isPathOrDescendant("/content", "/content"));
+        assertTrue(ParameterSupport.isPathOrDescendant("/content/a", "/content"));
+        assertTrue(ParameterSupport.isPathOrDescendant("/content/a", "/content/"));
+        assertFalse(ParameterSupport.isPathOrDescendant("/contentfoo", "/content"));
+        assertFalse(ParameterSupport.isPathOrDescendant("/content", "/content/"));
+        assertFalse(ParameterSupport.isPathOrDescendant("/content", ""));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.parameters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.Part;
+
+import org.apache.commons.fileupload.FileUploadBase;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class RequestPartsIteratorTest {
+
+    private static final String BOUNDARY = "----boundary";
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testReadFormFields() throws Exception {
+        final String body = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+            + "Some title\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"test.txt\"\r\n"
+            + "Content-Type: text/plain\r\n\r\n"
+            + "file content\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"late\"\r\n\r\n"
+            + "late value\r\n"
+            + "--" + BOUNDARY + "--\r\n";
+        final RequestPartsIterator iterator = new RequestPartsIterator(createRequest(body), -1, -1);
+
+        final ParameterMap parameters = new ParameterMap();
+        iterator.readFormFields(parameters, Util.ENCODING_DIRECT, 1024);
+        assertEquals("Some title", parameters.getStringValue("title"));
+        assertNull(parameters.getValue("file"));
+        assertNull(parameters.getValue("late"));
+
+        // the form field read ahead is still returned as a part
+        assertTrue(iterator.hasNext());
+        final Part title = iterator.next();
+        assertEquals("title", title.getName());
+        assertEquals("Some title", toString(title.getInputStream()));
+
+        assertTrue(iterator.hasNext());
+        final Part file = iterator.next();
+        assertEquals("file", file.getName());
+        assertEquals("test.txt", file.getSubmittedFileName());
+        assertEquals("file content", toString(file.getInputStream()));
+
+        assertTrue(iterator.hasNext());
+        final Part late = iterator.next();
+        assertEquals("late", late.getName());
+        assertEquals("late value", toString(late.getInputStream()));
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testReadFormFieldsFailsForLargeField() throws Exception {
+        final String body = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"small\"\r\n\r\n"
+            + "0123456789\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"large\"\r\n\r\n"
+            + "01234567890\r\n"
+            + "--" + BOUNDARY + "--\r\n";
+        final RequestPartsIterator iterator = new RequestPartsIterator(createRequest(body), -1, -1);
+
+        final ParameterMap parameters = new ParameterMap();
+        try {
+            iterator.readFormFields(parameters, Util.ENCODING_DIRECT, 10);
+            fail("Form field larger than the maximum size must not be read");
+        } catch (FileUploadBase.FileSizeLimitExceededException e) {
+            assertEquals("large", e.getFieldName());
+            assertEquals(10, e.getPermittedSize());
+        }
+        assertEquals("0123456789", parameters.getStringValue("small"));
+        assertNull(parameters.getValue("large"));
+    }
+
+    private HttpServletRequest createRequest(final String body) throws IOException {
+        final byte[] content = body.getBytes("ISO-8859-1");
+        final ByteArrayInputStream in = new ByteArrayInputStream(content);
+        final HttpServletRequest request = context.mock(HttpServletRequest.class);
+        context.checking(new Expectations() {{
+            allowing(request).getMethod();
+            will(returnValue("POST"));
+            allowing(request).getContentType();
+            will(returnValue("multipart/form-data; boundary=" + BOUNDARY));
+            allowing(request).getCharacterEncoding();
+            will(returnValue(null));
+            allowing(request).getContentLength();
+            will(returnValue(content.length));
+            allowing(request).getHeader(with(any(String.class)));
+            will(returnValue(null));
+            allowing(request).getInputStream();
+            will(returnValue(new ServletInputStream() {
+
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            }));
+        }});
+        return request;
+    }
+
+    private static String toString(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int len;
+        while ((len = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, len);
+        }
+        return out.toString("ISO-8859-1");
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.sling.engine.impl.request;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -26,6 +27,7 @@ import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -124,6 +126,73 @@ public class SlingRequestProgressTrackerTest {
         assertEquals(d, tracker.getDuration());
     }
     
+    @Test
+    public void manyEntries() {
+        for (int i = 0; i < 100; i++) {
+            tracker.log("entry {0}", i);
+        }
+        final Iterator<String> messages = tracker.getMessages();
+        // skip initial entries
+        messages.next();
+        messages.next();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("LOG entry " + i + "\n", messages.next().substring(8));
+        }
+        assertFalse(messages.hasNext());
+    }
+
+    @Test
+    public void mutableArguments() {
+        final StringBuilder value = new StringBuilder("before");
+        final AtomicLong count = new AtomicLong(1);
+        tracker.log("value {0}, count {1}", value, count);
+        value.append(" and after");
+        count.incrementAndGet();
+
+        final Iterator<String> messages = tracker.getMessages();
+        // skip initial entries
+        messages.next();
+        messages.next();
+        assertEquals("LOG value before, count 1\n", messages.next().substring(8));
+    }
+
+    @Test
+    public void notTracked() throws InterruptedException {
+        tracker = new SlingRequestProgressTracker(null, false);
+        assertFalse(tracker.isTracked());
+        tracker.startTimer("foo");
+        tracker.log("one {0}", "eins");
+        tracker.logTimer("foo");
+        Thread.sleep(25);
+        tracker.done();
+        assertTrue(tracker.getDuration() >= 25);
+
+        final Iterator<String> messages = tracker.getMessages();
+        assertTrue(messages.next().startsWith("COMMENT request not tracked", 8));
+        assertFalse(messages.hasNext());
+    }
+
+    @Test
+    public void sampling() {
+        final int oldSampling = SlingRequestProgressTracker.getSampling();
+        try {
+            SlingRequestProgressTracker.setSampling(3);
+            int count = 0;
+            for (int i = 0; i < 30; i++) {
+                if (SlingRequestProgressTracker.nextTracked()) {
+                    count++;
+                }
+            }
+            assertEquals(10, count);
+
+            SlingRequestProgressTracker.setSampling(0);
+            assertTrue(SlingRequestProgressTracker.nextTracked());
+            assertTrue(SlingRequestProgressTracker.nextTracked());
+        } finally {
+            SlingRequestProgressTracker.setSampling(oldSampling);
+        }
+    }
+
     @Test(expected=UnsupportedOperationException.class)
     public void removeFails() {
         tracker.getMessages().remove();
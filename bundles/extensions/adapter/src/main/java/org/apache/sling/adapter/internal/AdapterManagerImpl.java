@@ -24,13 +24,19 @@ import static org.apache.sling.api.adapter.AdapterFactory.ADAPTER_CLASSES;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Dictionary;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Properties;
@@ -72,6 +78,9 @@ import org.slf4j.LoggerFactory;
 cardinality=ReferenceCardinality.OPTIONAL_MULTIPLE, policy=ReferencePolicy.DYNAMIC)
 public class AdapterManagerImpl implements AdapterManager {
 
+    /** The maximum number of adapter types without factories remembered per adaptable class. */
+    static final int MAX_TYPES_WITHOUT_FACTORIES = 100;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /**
@@ -98,16 +107,36 @@ public class AdapterManagerImpl implements AdapterManager {
     private final Map<String, AdapterFactoryDescriptorMap> descriptors = new HashMap<String, AdapterFactoryDescriptorMap>();
 
     /**
-     * Matrix of {@link AdapterFactoryDescriptor} instances primarily indexed by the fully
-     * qualified name of the class to be adapted and secondarily indexed by the
-     * fully qualified name of the class to adapt to (the target class).
+     * The {@link DispatchTable} of each adaptable class, stored with the
+     * class itself. A dispatch table is built on demand by calling the
+     * {@link #getDispatchTable(Class)} method. Whenever an adapter factory is
+     * registered or unregistered, only the tables of the classes having one
+     * of the factory's adaptable classes in their hierarchy are dropped.
      * <p>
-     * This cache is built on demand by calling the
-     * {@link #getAdapterFactories(Class)} method. It is cleared
-     * whenever an adapter factory is registered on unregistered.
+     * The values stored with the classes are of a JDK type, so that the
+     * adaptable classes do not keep the class loader of this bundle reachable.
+     * All tables are dropped on deactivation, which releases the adapter
+     * factories as well.
+     */
+    private final ClassValue<AtomicReference<DispatchTable>> dispatchTables = new ClassValue<AtomicReference<DispatchTable>>() {
+        @Override
+        protected AtomicReference<DispatchTable> computeValue(final Class<?> type) {
+            return new AtomicReference<DispatchTable>();
+        }
+    };
+
+    /**
+     * The adaptable classes for which a dispatch table is currently cached.
+     * The classes are weakly referenced to not prevent unloading. This map
+     * also serves as the lock for installing and dropping dispatch tables.
+     */
+    private final Map<Class<?>, Boolean> dispatchClasses = new WeakHashMap<Class<?>, Boolean>();
+
+    /**
+     * Incremented whenever dispatch tables are dropped. A table built
+     * concurrently to a change of the factories is not cached.
      */
-    private final ConcurrentMap<String, Map<String, List<AdapterFactoryDescriptor>>> factoryCache
-    = new ConcurrentHashMap<String, Map<String, List<AdapterFactoryDescriptor>>>();
+    private long dispatchVersion;
 
     /**
      * The service tracker for the event admin
@@ -129,27 +158,22 @@ public class AdapterManagerImpl implements AdapterManager {
     public <AdapterType> AdapterType getAdapter(final Object adaptable,
             final Class<AdapterType> type) {
 
-        // get the adapter factories for the type of adaptable object
-        final Map<String, List<AdapterFactoryDescriptor>> factories = getAdapterFactories(adaptable.getClass());
+        // get the factories for the type of adaptable object and the target type
+        final AdapterFactoryDescriptor[] descList = getDispatchTable(adaptable.getClass()).getFactories(type);
 
-        // get the factory for the target type
-        final List<AdapterFactoryDescriptor> descList = factories.get(type.getName());
+        for (final AdapterFactoryDescriptor desc : descList) {
+            final AdapterFactory factory = desc == null ? null : desc.getFactory();
 
-        if (descList != null && descList.size() > 0) {
-            for (AdapterFactoryDescriptor desc : descList) {
-                final AdapterFactory factory = desc == null ? null : desc.getFactory();
+            // have the factory adapt the adaptable if the factory exists
+            if (factory != null) {
+                log.debug("Trying adapter factory {} to map {} to {}",
+                        new Object [] { factory, adaptable, type });
 
-                // have the factory adapt the adaptable if the factory exists
-                if (factory != null) {
-                    log.debug("Trying adapter factory {} to map {} to {}",
+                AdapterType adaptedObject = factory.getAdapter(adaptable, type);
+                if (adaptedObject != null) {
+                    log.debug("Using adapter factory {} to map {} to {}",
                             new Object [] { factory, adaptable, type });
-
-                    AdapterType adaptedObject = factory.getAdapter(adaptable, type);
-                    if (adaptedObject != null) {
-                        log.debug("Using adapter factory {} to map {} to {}",
-                                new Object [] { factory, adaptable, type });
-                        return adaptedObject;
-                    }
+                    return adaptedObject;
                 }
             }
         }
@@ -191,6 +215,7 @@ public class AdapterManagerImpl implements AdapterManager {
     protected void deactivate(final ComponentContext context) {
         SyntheticResource.unsetAdapterManager(this);
         this.context = null;
+        this.invalidateDispatchTables(null);
     }
 
     /**
@@ -231,13 +256,34 @@ public class AdapterManagerImpl implements AdapterManager {
     }
 
     /**
-     * Returns the current adapter factory cache.
+     * Returns a snapshot of the current adapter factory cache indexed by the
+     * name of the adaptable class.
      * <p>
      * <strong><em>THIS METHOD IS FOR UNIT TESTING ONLY. IT MAY BE REMOVED OR
      * MODIFIED WITHOUT NOTICE.</em></strong>
      */
     Map<String, Map<String, List<AdapterFactoryDescriptor>>> getFactoryCache() {
-        return factoryCache;
+        final Map<String, Map<String, List<AdapterFactoryDescriptor>>> cache = new HashMap<String, Map<String, List<AdapterFactoryDescriptor>>>();
+        synchronized ( this.dispatchClasses ) {
+            for (final Class<?> clazz : this.dispatchClasses.keySet()) {
+                final DispatchTable table = this.dispatchTables.get(clazz).get();
+                if (table != null) {
+                    cache.put(clazz.getName(), table.factories);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the number of adapter types remembered by the dispatch table of
+     * the adaptable class, including the types without factories.
+     * <p>
+     * <strong><em>THIS METHOD IS FOR UNIT TESTING ONLY. IT MAY BE REMOVED OR
+     * MODIFIED WITHOUT NOTICE.</em></strong>
+     */
+    int getCachedTypeCount(final Class<?> adaptable) {
+        return getDispatchTable(adaptable).factoriesByType.size();
     }
 
     /**
@@ -283,8 +329,8 @@ public class AdapterManagerImpl implements AdapterManager {
             }
         }
 
-        // clear the factory cache to force rebuild on next access
-        this.factoryCache.clear();
+        // drop the affected dispatch tables to force rebuild on next access
+        this.invalidateDispatchTables(adaptables);
 
         // register adaption
         final Dictionary<String, Object> props = new Hashtable<String, Object>();
@@ -370,10 +416,10 @@ public class AdapterManagerImpl implements AdapterManager {
             }
         }
 
-        // only remove cache if some adapter factories have actually been
-        // removed
+        // only drop dispatch tables if some adapter factories have actually
+        // been removed
         if (factoriesModified) {
-            this.factoryCache.clear();
+            this.invalidateDispatchTables(adaptables);
         }
 
         // unregister adaption
@@ -398,26 +444,60 @@ public class AdapterManagerImpl implements AdapterManager {
     }
 
     /**
-     * Returns the map of adapter factories index by adapter (target) class name
-     * for the given adaptable <code>clazz</code>. If no adapter exists for
-     * the <code>clazz</code> and empty map is returned.
+     * Returns the dispatch table for the given adaptable <code>clazz</code>.
+     * The table is built and cached on first access.
      *
      * @param clazz The adaptable <code>Class</code> for which to return the
-     *            adapter factory map by target class name.
-     * @return The map of adapter factories by target class name. The map may be
-     *         empty if there is no adapter factory for the adaptable
-     *         <code>clazz</code>.
+     *            dispatch table.
+     * @return The dispatch table, never <code>null</code>.
      */
-    private Map<String, List<AdapterFactoryDescriptor>> getAdapterFactories(final Class<?> clazz) {
-        final String className = clazz.getName();
-        Map<String, List<AdapterFactoryDescriptor>> entry = this.factoryCache.get(className);
-        if (entry == null) {
-            // create entry
-            entry = createAdapterFactoryMap(clazz);
-            this.factoryCache.put(className, entry);
+    private DispatchTable getDispatchTable(final Class<?> clazz) {
+        final AtomicReference<DispatchTable> holder = this.dispatchTables.get(clazz);
+        DispatchTable table = holder.get();
+        if (table == null) {
+            final long version;
+            synchronized ( this.dispatchClasses ) {
+                version = this.dispatchVersion;
+            }
+
+            final Set<String> hierarchy = new HashSet<String>();
+            hierarchy.add(clazz.getName());
+            table = new DispatchTable(createAdapterFactoryMap(clazz, hierarchy), hierarchy);
+
+            synchronized ( this.dispatchClasses ) {
+                // only cache the table if no factory has changed meanwhile
+                // and the manager has not been deactivated
+                if (version == this.dispatchVersion && this.context != null) {
+                    holder.set(table);
+                    this.dispatchClasses.put(clazz, Boolean.TRUE);
+                }
+            }
         }
 
-        return entry;
+        return table;
+    }
+
+    /**
+     * Drops the dispatch tables of all adaptable classes which have one of
+     * the given <code>adaptables</code> in their class hierarchy.
+     *
+     * @param adaptables The names of the adaptable classes whose adapter
+     *            factories have been changed or <code>null</code> to drop
+     *            all dispatch tables.
+     */
+    private void invalidateDispatchTables(final String[] adaptables) {
+        synchronized ( this.dispatchClasses ) {
+            this.dispatchVersion++;
+            final Iterator<Class<?>> i = this.dispatchClasses.keySet().iterator();
+            while (i.hasNext()) {
+                final AtomicReference<DispatchTable> holder = this.dispatchTables.get(i.next());
+                final DispatchTable table = holder.get();
+                if (table == null || adaptables == null || table.dependsOn(adaptables)) {
+                    holder.set(null);
+                    i.remove();
+                }
+            }
+        }
     }
 
     /**
@@ -428,11 +508,14 @@ public class AdapterManagerImpl implements AdapterManager {
      *
      * @param clazz The adaptable <code>Class</code> for which to build the
      *            adapter factory map by target class name.
+     * @param hierarchy The names of all classes and interfaces considered
+     *            are added to this set.
      * @return The map of adapter factories by target class name. The map may be
      *         empty if there is no adapter factory for the adaptable
      *         <code>clazz</code>.
      */
-    private Map<String, List<AdapterFactoryDescriptor>> createAdapterFactoryMap(final Class<?> clazz) {
+    private Map<String, List<AdapterFactoryDescriptor>> createAdapterFactoryMap(final Class<?> clazz,
+            final Set<String> hierarchy) {
         final Map<String, List<AdapterFactoryDescriptor>> afm = new HashMap<String, List<AdapterFactoryDescriptor>>();
 
         // AdapterFactories for this class
@@ -462,13 +545,13 @@ public class AdapterManagerImpl implements AdapterManager {
         // AdapterFactories for the interfaces
         final Class<?>[] interfaces = clazz.getInterfaces();
         for (final Class<?> iFace : interfaces) {
-            copyAdapterFactories(afm, iFace);
+            copyAdapterFactories(afm, hierarchy, iFace);
         }
 
         // AdapterFactories for the super class
         final Class<?> superClazz = clazz.getSuperclass();
         if (superClazz != null) {
-            copyAdapterFactories(afm, superClazz);
+            copyAdapterFactories(afm, hierarchy, superClazz);
         }
 
         return afm;
@@ -483,14 +566,19 @@ public class AdapterManagerImpl implements AdapterManager {
      * @param dest The map of target class name to adapter factory into which
      *            additional factories are copied. Existing factories are not
      *            replaced.
+     * @param hierarchy The set of class names to which the hierarchy of
+     *            <code>clazz</code> is added.
      * @param clazz The adaptable class whose adapter factories are considered
      *            for adding into <code>dest</code>.
      */
     private void copyAdapterFactories(final Map<String, List<AdapterFactoryDescriptor>> dest,
+            final Set<String> hierarchy,
             final Class<?> clazz) {
 
         // get the adapter factories for the adaptable clazz
-        final Map<String, List<AdapterFactoryDescriptor>> scMap = getAdapterFactories(clazz);
+        final DispatchTable table = getDispatchTable(clazz);
+        hierarchy.addAll(table.hierarchy);
+        final Map<String, List<AdapterFactoryDescriptor>> scMap = table.factories;
 
         // for each target class copy the entry to dest and put it in the list or create the list
         for (Map.Entry<String, List<AdapterFactoryDescriptor>> entry : scMap.entrySet()) {
@@ -506,4 +594,62 @@ public class AdapterManagerImpl implements AdapterManager {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The <code>DispatchTable</code> holds the adapter factories of a single
+     * adaptable class. The factories are indexed by the adapter (target) class
+     * name, lazily also as arrays to not copy the list on each adaption.
+     * The adapter classes themselves are not referenced by the table, so
+     * it does not prevent unloading them.
+     */
+    private static final class DispatchTable {
+
+        private static final AdapterFactoryDescriptor[] NO_FACTORIES = new AdapterFactoryDescriptor[0];
+
+        /** The adapter factories by target class name. This map is never modified. */
+        final Map<String, List<AdapterFactoryDescriptor>> factories;
+
+        /** The names of the adaptable class, its super classes and interfaces. */
+        final Set<String> hierarchy;
+
+        /**
+         * The adapter factories by target class name, including up to
+         * {@link #MAX_TYPES_WITHOUT_FACTORIES} types without factories.
+         */
+        private final ConcurrentMap<String, AdapterFactoryDescriptor[]> factoriesByType
+            = new ConcurrentHashMap<String, AdapterFactoryDescriptor[]>();
+
+        DispatchTable(final Map<String, List<AdapterFactoryDescriptor>> factories, final Set<String> hierarchy) {
+            this.factories = factories;
+            this.hierarchy = Collections.unmodifiableSet(hierarchy);
+        }
+
+        AdapterFactoryDescriptor[] getFactories(final Class<?> type) {
+            final String typeName = type.getName();
+            AdapterFactoryDescriptor[] result = this.factoriesByType.get(typeName);
+            if (result == null) {
+                final List<AdapterFactoryDescriptor> descList = this.factories.get(typeName);
+                if (descList == null || descList.isEmpty()) {
+                    result = NO_FACTORIES;
+                    // the size is only checked roughly, the types with factories are bound by the factories map
+                    if (this.factoriesByType.size() < this.factories.size() + MAX_TYPES_WITHOUT_FACTORIES) {
+                        this.factoriesByType.put(typeName, result);
+                    }
+                } else {
+                    result = descList.toArray(new AdapterFactoryDescriptor[descList.size()]);
+                    this.factoriesByType.put(typeName, result);
+                }
+            }
+            return result;
+        }
+
+        boolean dependsOn(final String[] adaptables) {
+            for (final String adaptable : adaptables) {
+                if (this.hierarchy.contains(adaptable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
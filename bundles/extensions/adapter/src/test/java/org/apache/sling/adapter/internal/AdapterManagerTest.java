@@ -39,6 +39,10 @@ import org.osgi.service.component.ComponentContext;
 import org.osgi.service.packageadmin.ExportedPackage;
 import org.osgi.service.packageadmin.PackageAdmin;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Dictionary;
 import java.util.Map;
 
@@ -472,6 +476,108 @@ public class AdapterManagerTest {
         assertTrue("Did not get the correct adaptable back for second implementation, service ranking 2, ", adapter instanceof SecondImplementation);
     }
 
+    @org.junit.Test public void testBindOnlyDropsAffectedCacheEntries() throws Exception {
+        am.activate(this.createComponentContext());
+
+        final ServiceReference ref = createServiceReference();
+        am.bindAdapterFactory(ref);
+
+        assertNotNull(am.getAdapter(new TestSlingAdaptable2(), ITestAdapter.class));
+        assertNull(am.getAdapter(new AdapterObject(Want.INDIFFERENT), ITestAdapter.class));
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable.class.getName()));
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable2.class.getName()));
+        assertTrue(am.getFactoryCache().containsKey(AdapterObject.class.getName()));
+
+        // only the subclass is affected by a factory for the subclass
+        final ServiceReference ref2 = createServiceReference2();
+        am.bindAdapterFactory(ref2);
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable.class.getName()));
+        assertTrue(am.getFactoryCache().containsKey(AdapterObject.class.getName()));
+        assertNull(am.getFactoryCache().get(TestSlingAdaptable2.class.getName()));
+
+        assertNotNull(am.getAdapter(new TestSlingAdaptable2(), TestAdapter.class));
+    }
+
+    @org.junit.Test public void testBindDropsCacheEntriesOfSubclasses() throws Exception {
+        am.activate(this.createComponentContext());
+
+        final ServiceReference ref2 = createServiceReference2();
+        am.bindAdapterFactory(ref2);
+
+        assertNull(am.getAdapter(new TestSlingAdaptable2(), ITestAdapter.class));
+        assertNull(am.getAdapter(new AdapterObject(Want.INDIFFERENT), ITestAdapter.class));
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable2.class.getName()));
+
+        // the base class and all subclasses are affected by a factory for the base class
+        final ServiceReference ref = createServiceReference();
+        am.bindAdapterFactory(ref);
+        assertNull(am.getFactoryCache().get(TestSlingAdaptable.class.getName()));
+        assertNull(am.getFactoryCache().get(TestSlingAdaptable2.class.getName()));
+        assertTrue(am.getFactoryCache().containsKey(AdapterObject.class.getName()));
+
+        assertNotNull(am.getAdapter(new TestSlingAdaptable2(), ITestAdapter.class));
+        assertNotNull(am.getAdapter(new TestSlingAdaptable2(), TestAdapter.class));
+    }
+
+    @org.junit.Test public void testDeactivateDropsCacheEntries() throws Exception {
+        am.activate(this.createComponentContext());
+
+        final ServiceReference ref = createServiceReference();
+        am.bindAdapterFactory(ref);
+
+        assertNotNull(am.getAdapter(new TestSlingAdaptable2(), ITestAdapter.class));
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable2.class.getName()));
+
+        am.deactivate(null);
+        assertTrue("AdapterFactory cache must be empty", am.getFactoryCache().isEmpty());
+    }
+
+    @org.junit.Test public void testCacheDoesNotReferenceAdapterClasses() throws Exception {
+        am.activate(this.createComponentContext());
+
+        final ServiceReference ref = createServiceReference();
+        am.bindAdapterFactory(ref);
+
+        final WeakReference<ClassLoader> loaderRef = adaptToUnloadableClasses();
+        for (int i = 0; i < 10 && loaderRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull("Adapter classes must not be referenced by the cache", loaderRef.get());
+    }
+
+    @org.junit.Test public void testTypesWithoutFactoriesAreBounded() throws Exception {
+        am.activate(this.createComponentContext());
+
+        final ServiceReference ref = createServiceReference();
+        am.bindAdapterFactory(ref);
+
+        assertNotNull(am.getAdapter(new TestSlingAdaptable(), ITestAdapter.class));
+        // proxy classes have distinct names
+        for (int i = 0; i < 2 * AdapterManagerImpl.MAX_TYPES_WITHOUT_FACTORIES; i++) {
+            final ClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+            assertNull(am.getAdapter(new TestSlingAdaptable(), Proxy.getProxyClass(loader, IUnusedAdapter.class)));
+        }
+        assertTrue(am.getCachedTypeCount(TestSlingAdaptable.class) <= AdapterManagerImpl.MAX_TYPES_WITHOUT_FACTORIES + 1);
+        assertNotNull(am.getAdapter(new TestSlingAdaptable(), ITestAdapter.class));
+    }
+
+    /**
+     * Adapts to adapter classes with and without factory, loaded by a class
+     * loader which is not referenced anymore after this method returns.
+     */
+    private WeakReference<ClassLoader> adaptToUnloadableClasses() throws Exception {
+        final URLClassLoader loader = new URLClassLoader(new URL[] {
+                ITestAdapter.class.getProtectionDomain().getCodeSource().getLocation()}, null);
+        final Class<?> adapterType = loader.loadClass(ITestAdapter.class.getName());
+        final Class<?> unusedType = loader.loadClass(IUnusedAdapter.class.getName());
+        assertTrue(adapterType != ITestAdapter.class);
+        assertNotNull(am.getAdapter(new TestSlingAdaptable(), adapterType));
+        assertNull(am.getAdapter(new TestSlingAdaptable(), unusedType));
+        assertTrue(am.getFactoryCache().containsKey(TestSlingAdaptable.class.getName()));
+        loader.close();
+        return new WeakReference<ClassLoader>(loader);
+    }
 
     //---------- Test Adaptable and Adapter Classes ---------------------------
 
@@ -487,6 +593,10 @@ public class AdapterManagerTest {
 
     }
 
+    public static interface IUnusedAdapter {
+
+    }
+
     public static class TestAdapter {
 
     }
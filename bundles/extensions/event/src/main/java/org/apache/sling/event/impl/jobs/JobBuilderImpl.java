@@ -59,6 +59,14 @@ public class JobBuilderImpl implements JobBuilder {
         return this.jobManager.addJob(this.topic, this.properties, errors);
     }
 
+    String getTopic() {
+        return this.topic;
+    }
+
+    Map<String, Object> getProperties() {
+        return this.properties;
+    }
+
     @Override
     public ScheduleBuilder schedule() {
         return new JobScheduleBuilderImpl(
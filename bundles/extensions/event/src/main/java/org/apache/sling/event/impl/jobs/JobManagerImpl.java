@@ -25,8 +25,10 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -92,6 +94,9 @@ import org.slf4j.LoggerFactory;
 public class JobManagerImpl
     implements JobManager, EventHandler, Runnable {
 
+    /** Number of jobs written or removed with a single commit by the bulk methods. */
+    private static final int BATCH_SIZE = 50;
+
     /** Default logger. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -554,31 +559,16 @@ public class JobManagerImpl
     private Job addJobInternal(final String jobTopic,
             final Map<String, Object> jobProperties,
             final List<String> errors) {
-        final QueueInfo info = this.configuration.getQueueConfigurationManager().getQueueInfo(jobTopic);
+        final QueueInfo info = this.getQueueInfo(jobTopic, jobProperties);
 
-        final TopologyCapabilities caps = this.configuration.getTopologyCapabilities();
-        info.targetId = (caps == null ? null : caps.detectTarget(jobTopic, jobProperties, info));
-
-        if ( logger.isDebugEnabled() ) {
-            if ( info.targetId != null ) {
-                logger.debug("Persisting job {} into queue {}, target={}", new Object[] {Utility.toString(jobTopic, jobProperties), info.queueName, info.targetId});
-            } else {
-                logger.debug("Persisting job {} into queue {}", Utility.toString(jobTopic, jobProperties), info.queueName);
-            }
-        }
         final ResourceResolver resolver = this.configuration.createResourceResolver();
         try {
             final JobImpl job = this.writeJob(resolver,
                     jobTopic,
                     jobProperties,
-                    info);
-            if ( info.targetId != null ) {
-                this.configuration.getAuditLogger().debug("ASSIGN OK {} : {}",
-                        info.targetId, job.getId());
-            } else {
-                this.configuration.getAuditLogger().debug("UNASSIGN OK : {}",
-                        job.getId());
-            }
+                    info,
+                    true);
+            this.auditAssignment(info, job);
             return job;
         } catch (final PersistenceException re ) {
             // something went wrong, so let's log it
@@ -593,17 +583,52 @@ public class JobManagerImpl
         return null;
     }
 
+    /**
+     * Get the queue information and the target instance for a new job
+     * @param jobTopic The job topic
+     * @param jobProperties The optional job properties
+     * @return The queue information
+     */
+    private QueueInfo getQueueInfo(final String jobTopic,
+            final Map<String, Object> jobProperties) {
+        final QueueInfo info = this.configuration.getQueueConfigurationManager().getQueueInfo(jobTopic);
+
+        final TopologyCapabilities caps = this.configuration.getTopologyCapabilities();
+        info.targetId = (caps == null ? null : caps.detectTarget(jobTopic, jobProperties, info));
+
+        if ( logger.isDebugEnabled() ) {
+            if ( info.targetId != null ) {
+                logger.debug("Persisting job {} into queue {}, target={}", new Object[] {Utility.toString(jobTopic, jobProperties), info.queueName, info.targetId});
+            } else {
+                logger.debug("Persisting job {} into queue {}", Utility.toString(jobTopic, jobProperties), info.queueName);
+            }
+        }
+        return info;
+    }
+
+    private void auditAssignment(final QueueInfo info, final Job job) {
+        if ( info.targetId != null ) {
+            this.configuration.getAuditLogger().debug("ASSIGN OK {} : {}",
+                    info.targetId, job.getId());
+        } else {
+            this.configuration.getAuditLogger().debug("UNASSIGN OK : {}",
+                    job.getId());
+        }
+    }
+
     /**
      * Write a job to the resource tree.
      * @param resolver The resolver resolver
      * @param event The event
      * @param info The queue information (queue name etc.)
+     * @param autoCommit Whether the job should be committed immediately
      * @throws PersistenceException
      */
     private JobImpl writeJob(final ResourceResolver resolver,
             final String jobTopic,
             final Map<String, Object> jobProperties,
-            final QueueInfo info)
+            final QueueInfo info,
+            final boolean autoCommit)
     throws PersistenceException {
         final String jobId = this.configuration.getUniqueId(jobTopic);
         final String path = this.configuration.getUniquePath(info.targetId, jobTopic, jobId, jobProperties);
@@ -640,9 +665,15 @@ public class JobManagerImpl
         if ( logger.isDebugEnabled() ) {
             logger.debug("Storing new job {} at {}", Utility.toString(jobTopic, properties), path);
         }
-        ResourceHelper.getOrCreateResource(resolver,
-                path,
-                properties);
+        if ( autoCommit ) {
+            ResourceHelper.getOrCreateResource(resolver,
+                    path,
+                    properties);
+        } else {
+            ResourceHelper.getOrCreateResourceWithoutCommit(resolver,
+                    path,
+                    properties);
+        }
 
         // update property types - priority, add path and create job
         properties.put(JobImpl.PROPERTY_RESOURCE_PATH, path);
@@ -703,9 +734,10 @@ public class JobManagerImpl
     }
 
     /**
-     * Internal method to add a job
+     * Check a new job
+     * @return {@code true} if the job is valid
      */
-    public Job addJob(final String topic,
+    private boolean checkJob(final String topic,
             final Map<String, Object> properties,
             final List<String> errors) {
         final String errorMessage = Utility.checkJob(topic, properties);
@@ -718,6 +750,18 @@ public class JobManagerImpl
                     new Object[] {topic,
                                   properties,
                                   errorMessage});
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Internal method to add a job
+     */
+    public Job addJob(final String topic,
+            final Map<String, Object> properties,
+            final List<String> errors) {
+        if ( !this.checkJob(topic, properties, errors) ) {
             return null;
         }
         final List<String> errorList = new ArrayList<String>();
@@ -740,6 +784,154 @@ public class JobManagerImpl
         return result;
     }
 
+    /**
+     * @see org.apache.sling.event.jobs.JobManager#addJobs(java.util.Collection)
+     */
+    @Override
+    public Collection<Job> addJobs(final Collection<JobBuilder> builders) {
+        final List<Job> result = new ArrayList<Job>();
+        final List<JobBuilderImpl> batch = new ArrayList<JobBuilderImpl>();
+        for(final JobBuilder builder : builders) {
+            if ( builder instanceof JobBuilderImpl ) {
+                final JobBuilderImpl jb = (JobBuilderImpl)builder;
+                if ( this.checkJob(jb.getTopic(), jb.getProperties(), null) ) {
+                    batch.add(jb);
+                    if ( batch.size() == BATCH_SIZE ) {
+                        this.addJobBatch(batch, result);
+                        batch.clear();
+                    }
+                }
+            } else {
+                // keep the order of the jobs
+                this.addJobBatch(batch, result);
+                batch.clear();
+                final Job job = builder.add();
+                if ( job != null ) {
+                    result.add(job);
+                }
+            }
+        }
+        this.addJobBatch(batch, result);
+        return result;
+    }
+
+    /**
+     * Persist a batch of already checked jobs with a single commit.
+     * If the commit fails, the jobs are added one by one.
+     * @param batch The job builders
+     * @param result The list to add the new jobs to
+     */
+    private void addJobBatch(final List<JobBuilderImpl> batch, final List<Job> result) {
+        if ( batch.isEmpty() ) {
+            return;
+        }
+        final List<QueueInfo> infos = new ArrayList<QueueInfo>();
+        final List<JobImpl> jobs = new ArrayList<JobImpl>();
+        final ResourceResolver resolver = this.configuration.createResourceResolver();
+        try {
+            for(final JobBuilderImpl builder : batch) {
+                final QueueInfo info = this.getQueueInfo(builder.getTopic(), builder.getProperties());
+                infos.add(info);
+                jobs.add(this.writeJob(resolver,
+                        builder.getTopic(),
+                        builder.getProperties(),
+                        info,
+                        false));
+            }
+            resolver.commit();
+        } catch (final PersistenceException pe ) {
+            this.logger.warn("Unable to persist batch of " + batch.size() + " jobs, adding them one by one.", pe);
+            resolver.revert();
+            jobs.clear();
+        } finally {
+            resolver.close();
+        }
+        if ( jobs.isEmpty() ) {
+            for(final JobBuilderImpl builder : batch) {
+                final Job job = this.addJob(builder.getTopic(), builder.getProperties(), null);
+                if ( job != null ) {
+                    result.add(job);
+                }
+            }
+        } else {
+            for(int i=0; i<jobs.size(); i++) {
+                final JobImpl job = jobs.get(i);
+                this.auditAssignment(infos.get(i), job);
+                this.configuration.getAuditLogger().debug("ADD OK topic={}, properties={} : {}",
+                        new Object[] {job.getTopic(),
+                                      batch.get(i).getProperties(),
+                                      job.getId()});
+                result.add(job);
+            }
+        }
+    }
+
+    /**
+     * @see org.apache.sling.event.jobs.JobManager#removeJobsById(java.util.Collection)
+     */
+    @Override
+    public boolean removeJobsById(final Collection<String> jobIds) {
+        boolean result = true;
+        final List<JobImpl> historyJobs = new ArrayList<JobImpl>();
+        for(final String jobId : jobIds) {
+            final JobImpl job = (JobImpl)this.getJobById(jobId);
+            if ( job != null && this.configuration.isStoragePath(job.getResourcePath()) ) {
+                historyJobs.add(job);
+            } else if ( job != null ) {
+                // active jobs are moved to the history one by one
+                result &= this.internalRemoveJobById(jobId, true);
+            } else {
+                logger.debug("Job for removal does not exist (anymore): {}", jobId);
+            }
+        }
+        if ( historyJobs.isEmpty() ) {
+            return result;
+        }
+        // the jobs whose resources have been deleted by a successful commit
+        final Set<JobImpl> removedJobs = new LinkedHashSet<JobImpl>();
+        boolean failed = false;
+        final ResourceResolver resolver = this.configuration.createResourceResolver();
+        try {
+            // commit every BATCH_SIZE jobs to keep track of the removed jobs
+            final List<JobImpl> deletedJobs = new ArrayList<JobImpl>();
+            for(final JobImpl job : historyJobs) {
+                final Resource jobResource = resolver.getResource(job.getResourcePath());
+                if ( jobResource != null ) {
+                    resolver.delete(jobResource);
+                    deletedJobs.add(job);
+                    if ( deletedJobs.size() == BATCH_SIZE ) {
+                        resolver.commit();
+                        removedJobs.addAll(deletedJobs);
+                        deletedJobs.clear();
+                    }
+                } else {
+                    logger.debug("Unable to remove job with id - resource already removed: {}", job.getId());
+                }
+            }
+            resolver.commit();
+            removedJobs.addAll(deletedJobs);
+        } catch ( final PersistenceException pe) {
+            logger.warn("Unable to remove batch of " + historyJobs.size() + " jobs, removing the remaining ones one by one.", pe);
+            resolver.revert();
+            failed = true;
+        } finally {
+            resolver.close();
+        }
+        for(final JobImpl job : removedJobs) {
+            logger.debug("Removed job with id: {}", job.getId());
+            NotificationUtility.sendNotification(this.eventAdmin, NotificationConstants.TOPIC_JOB_REMOVED, job, null);
+            this.configuration.getAuditLogger().debug("REMOVE OK : {}", job.getId());
+        }
+        if ( failed ) {
+            for(final JobImpl job : historyJobs) {
+                if ( !removedJobs.contains(job) ) {
+                    result &= this.internalRemoveJobById(job.getId(), true);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.apache.sling.event.jobs.JobManager#retryJobById(java.lang.String)
      */
@@ -80,6 +80,11 @@ import org.slf4j.LoggerFactory;
               label="Startup Delay",
               description="Specify amount in seconds that job manager waits on startup before starting with job handling. "
                         + "This can be used to allow enough time to restart a cluster before jobs are eventually reassigned."),
+    @Property(name=JobManagerConfiguration.PROPERTY_PREFETCH_LIMIT,
+              intValue=JobManagerConfiguration.DEFAULT_PREFETCH_LIMIT,
+              label="Prefetch Limit",
+              description="The maximum number of jobs per topic which are loaded ahead of processing for a queue. "
+                        + "If half of these jobs are processed, the next jobs are loaded in the background."),
     @Property(name=JobManagerConfiguration.PROPERTY_REPOSITORY_PATH,
               value=JobManagerConfiguration.DEFAULT_REPOSITORY_PATH, propertyPrivate=true),
     @Property(name=JobManagerConfiguration.PROPERTY_SCHEDULED_JOBS_PATH,
@@ -134,6 +139,12 @@ public class JobManagerConfiguration {
     /** Default value for deprecation warnings. */
     public static final boolean DEFAULT_LOG_DEPRECATION_WARNINGS = true;
 
+    /** Configuration property for the number of jobs loaded per topic ahead of processing. */
+    public static final String PROPERTY_PREFETCH_LIMIT = "job.prefetch.limit";
+
+    /** Default value for the prefetch limit. */
+    public static final int DEFAULT_PREFETCH_LIMIT = 10;
+
     /** The jobs base path with a slash. */
     private String jobsBasePathWithSlash;
 
@@ -161,6 +172,8 @@ public class JobManagerConfiguration {
 
     private volatile boolean disabledDistribution;
 
+    private volatile int prefetchLimit;
+
     private String storedCancelledJobsPath;
 
     private String storedSuccessfulJobsPath;
@@ -256,6 +269,7 @@ public class JobManagerConfiguration {
     protected void update(final Map<String, Object> props) {
         this.disabledDistribution = PropertiesUtil.toBoolean(props.get(PROPERTY_DISABLE_DISTRIBUTION), DEFAULT_DISABLE_DISTRIBUTION);
         this.backgroundLoadDelay = PropertiesUtil.toLong(props.get(PROPERTY_BACKGROUND_LOAD_DELAY), DEFAULT_BACKGROUND_LOAD_DELAY);
+        this.prefetchLimit = Math.max(1, PropertiesUtil.toInteger(props.get(PROPERTY_PREFETCH_LIMIT), DEFAULT_PREFETCH_LIMIT));
         // SLING-5560: note that currently you can't change the startupDelay to have
         // an immediate effect - it will only have an effect on next activation.
         // (as 'startup delay runnable' is already scheduled in activate)
@@ -422,6 +436,14 @@ public class JobManagerConfiguration {
         return this.disabledDistribution;
     }
 
+    /**
+     * The maximum number of jobs per topic a queue loads ahead of processing.
+     * @return The prefetch limit, at least {@code 1}.
+     */
+    public int getPrefetchLimit() {
+        return this.prefetchLimit;
+    }
+
     public String getStoredCancelledJobsPath() {
         return this.storedCancelledJobsPath;
     }
@@ -85,6 +85,18 @@ public abstract class AbstractJobStatistics extends StandardMBean implements
         return getStatistics().getNumberOfJobs();
     }
 
+    public long getNumberOfPrefetchedJobs() {
+        return getStatistics().getNumberOfPrefetchedJobs();
+    }
+
+    public long getNumberOfPrefetchStarvations() {
+        return getStatistics().getNumberOfPrefetchStarvations();
+    }
+
+    public long getAveragePrefetchLag() {
+        return getStatistics().getAveragePrefetchLag();
+    }
+
     public void reset() {
         getStatistics().reset();
     }
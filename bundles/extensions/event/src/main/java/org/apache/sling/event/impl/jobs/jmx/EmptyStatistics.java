@@ -73,6 +73,18 @@ public class EmptyStatistics implements Statistics {
         return 0;
     }
 
+    public long getNumberOfPrefetchedJobs() {
+        return 0;
+    }
+
+    public long getNumberOfPrefetchStarvations() {
+        return 0;
+    }
+
+    public long getAveragePrefetchLag() {
+        return 0;
+    }
+
     public void reset() {
     }
 
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +31,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.event.impl.jobs.JobConsumerManager;
 import org.apache.sling.event.impl.jobs.JobHandler;
 import org.apache.sling.event.impl.jobs.JobImpl;
@@ -48,14 +50,22 @@ import org.slf4j.LoggerFactory;
 /**
  * The queue job cache caches jobs per queue based on the topics the queue is actively
  * processing.
+ * <p>
+ * Up to {@link JobManagerConfiguration#getPrefetchLimit()} jobs per topic are loaded
+ * ahead of processing. Once half of the cached jobs are taken and there are topics
+ * with more jobs, the next jobs are prefetched in the background, so the queue does
+ * not have to wait for loading jobs while it is processing a burst of jobs.
  */
 public class QueueJobCache {
 
+    /** The maximum time in milliseconds to wait for a running prefetch. */
+    static final long PREFETCH_WAIT_TIMEOUT = 1000;
+
     /** Logger. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     /** The maximum of pre loaded jobs for a topic. */
-    private final int maxPreloadLimit = 10;
+    private final int maxPreloadLimit;
 
     /** The job manager configuration. */
     private final JobManagerConfiguration configuration;
@@ -72,9 +82,18 @@ public class QueueJobCache {
     /** The queue type. */
     private final QueueConfiguration.Type queueType;
 
+    /** The thread pool for prefetching jobs. */
+    private final ThreadPool prefetchThreadPool;
+
     /** Block the cache - for ordered queues only. */
     private final AtomicBoolean queueIsBlocked = new AtomicBoolean(false);
 
+    /** Is a prefetch running? Guarded by the cache. */
+    private boolean prefetchRunning;
+
+    /** The ids of the jobs taken from the cache while a prefetch is running. Guarded by the cache. */
+    private final Set<String> takenDuringPrefetch = new HashSet<String>();
+
     /**
      * Create a new queue job cache
      * @param configuration Current job manager configuration
@@ -82,14 +101,18 @@ public class QueueJobCache {
      * @param statisticsManager The statistics manager
      * @param queueType The queue type
      * @param topics The topics handled by this queue.
+     * @param prefetchThreadPool The thread pool for prefetching jobs
      */
     public QueueJobCache(final JobManagerConfiguration configuration,
             final String queueName,
             final StatisticsManager statisticsManager,
             final QueueConfiguration.Type queueType,
-            final Set<String> topics) {
+            final Set<String> topics,
+            final ThreadPool prefetchThreadPool) {
         this.configuration = configuration;
+        this.maxPreloadLimit = configuration.getPrefetchLimit();
         this.queueType = queueType;
+        this.prefetchThreadPool = prefetchThreadPool;
         this.topics = new ConcurrentSkipListSet<String>(topics);
         this.fillCache(queueName, statisticsManager);
     }
@@ -109,7 +132,7 @@ public class QueueJobCache {
     public boolean isEmpty() {
         boolean result = true;
         synchronized ( this.cache ) {
-            result = this.cache.isEmpty();
+            result = this.cache.isEmpty() && !this.prefetchRunning;
         }
         if ( result ) {
             synchronized ( this.topicsWithNewJobs ) {
@@ -131,7 +154,7 @@ public class QueueJobCache {
         final Set<String> checkingTopics = new HashSet<String>();
         checkingTopics.addAll(this.topics);
         if ( !checkingTopics.isEmpty() ) {
-            this.loadJobs(queueName, checkingTopics, statisticsManager);
+            this.orderTopics(this.loadJobs(queueName, checkingTopics, statisticsManager));
         }
     }
 
@@ -157,22 +180,45 @@ public class QueueJobCache {
                 boolean retry;
                 do {
                     retry = false;
+                    boolean loadAll = doFull;
+                    if ( this.cache.isEmpty() && this.prefetchRunning ) {
+                        // we caught up with the prefetch, wait for it - but not forever as
+                        // the queue might hold its lock while waiting
+                        statisticsManager.prefetchStarved(queue.getName());
+                        final long endTime = System.currentTimeMillis() + PREFETCH_WAIT_TIMEOUT;
+                        long remaining = PREFETCH_WAIT_TIMEOUT;
+                        while ( this.cache.isEmpty() && this.prefetchRunning && remaining > 0 ) {
+                            try {
+                                this.cache.wait(remaining);
+                            } catch ( final InterruptedException ie ) {
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                            remaining = endTime - System.currentTimeMillis();
+                        }
+                        // the prefetch is too slow, load the jobs ourselves
+                        // jobs loaded twice are not added again by the prefetch
+                        loadAll |= this.cache.isEmpty() && this.prefetchRunning;
+                    }
                     if ( this.cache.isEmpty() ) {
                         final Set<String> checkingTopics = new HashSet<String>();
                         synchronized ( this.topicsWithNewJobs ) {
                             checkingTopics.addAll(this.topicsWithNewJobs);
                             this.topicsWithNewJobs.clear();
                         }
-                        if ( doFull ) {
+                        if ( loadAll ) {
                             checkingTopics.addAll(this.topics);
                         }
                         if ( !checkingTopics.isEmpty() ) {
-                            this.loadJobs(queue.getName(), checkingTopics, statisticsManager);
+                            this.orderTopics(this.loadJobs(queue.getName(), checkingTopics, statisticsManager));
                         }
                     }
 
                     if ( !this.cache.isEmpty() ) {
                         final JobImpl job = this.cache.remove(0);
+                        if ( this.prefetchRunning ) {
+                            this.takenDuringPrefetch.add(job.getId());
+                        }
                         final JobExecutor consumer = jobConsumerManager.getExecutor(job.getTopic());
 
                         handler = new JobHandler(job, consumer, this.configuration);
@@ -196,16 +242,105 @@ public class QueueJobCache {
 
                     }
                 } while ( handler == null && retry);
+
+                this.startPrefetchIfNeeded(queue.getName(), statisticsManager);
             }
         }
         return handler;
     }
 
+    /**
+     * Start a background prefetch if less than half of the preload limit
+     * is cached and there are topics with more jobs.
+     * This method must be called while holding the lock on the cache.
+     */
+    private void startPrefetchIfNeeded(final String queueName, final StatisticsManager statisticsManager) {
+        if ( this.prefetchRunning || this.cache.size() > this.maxPreloadLimit / 2 ) {
+            return;
+        }
+        final Set<String> checkingTopics = new HashSet<String>();
+        synchronized ( this.topicsWithNewJobs ) {
+            checkingTopics.addAll(this.topicsWithNewJobs);
+            this.topicsWithNewJobs.clear();
+        }
+        if ( checkingTopics.isEmpty() ) {
+            return;
+        }
+        this.prefetchRunning = true;
+        final long startTime = System.currentTimeMillis();
+        // the job threads of the queue might wait for the prefetch, therefore it
+        // does not use the job thread pool
+        try {
+            this.prefetchThreadPool.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    prefetch(queueName, checkingTopics, statisticsManager, startTime);
+                }
+            });
+        } catch ( final RuntimeException re ) {
+            logger.warn("Unable to start prefetching jobs for queue " + queueName, re);
+            synchronized ( this.topicsWithNewJobs ) {
+                this.topicsWithNewJobs.addAll(checkingTopics);
+            }
+            this.prefetchRunning = false;
+        }
+    }
+
+    /**
+     * Load the jobs for the topics and merge them into the cache.
+     */
+    private void prefetch(final String queueName,
+            final Set<String> checkingTopics,
+            final StatisticsManager statisticsManager,
+            final long startTime) {
+        Map<String, List<JobImpl>> topicCache = null;
+        try {
+            if ( this.configuration.isActive() ) {
+                topicCache = this.loadJobs(queueName, checkingTopics, statisticsManager);
+            }
+        } catch ( final RuntimeException re ) {
+            logger.warn("Unable to prefetch jobs for queue " + queueName, re);
+            synchronized ( this.topicsWithNewJobs ) {
+                this.topicsWithNewJobs.addAll(checkingTopics);
+            }
+        } finally {
+            synchronized ( this.cache ) {
+                if ( topicCache != null ) {
+                    // jobs already in the cache or taken meanwhile are not added again
+                    final Set<String> knownIds = new HashSet<String>(this.takenDuringPrefetch);
+                    for(final JobImpl job : this.cache) {
+                        knownIds.add(job.getId());
+                    }
+                    int count = 0;
+                    for(final List<JobImpl> list : topicCache.values()) {
+                        final Iterator<JobImpl> i = list.iterator();
+                        while ( i.hasNext() ) {
+                            final JobImpl job = i.next();
+                            if ( knownIds.contains(job.getId()) ) {
+                                i.remove();
+                                statisticsManager.jobDequeued(queueName, job.getTopic());
+                            } else {
+                                count++;
+                            }
+                        }
+                    }
+                    this.orderTopics(topicCache);
+                    statisticsManager.jobsPrefetched(queueName, count, System.currentTimeMillis() - startTime);
+                }
+                this.takenDuringPrefetch.clear();
+                this.prefetchRunning = false;
+                this.cache.notifyAll();
+            }
+        }
+    }
+
     /**
      * Load the next N x numberOf(topics) jobs
      * @param checkingTopics The set of topics to check.
+     * @return The loaded jobs by topic
      */
-    private void loadJobs( final String queueName, final Set<String> checkingTopics,
+    private Map<String, List<JobImpl>> loadJobs( final String queueName, final Set<String> checkingTopics,
             final StatisticsManager statisticsManager) {
         logger.debug("Starting jobs loading from {}...", checkingTopics);
 
@@ -227,13 +362,14 @@ public class QueueJobCache {
         } finally {
             resolver.close();
         }
-        orderTopics(topicCache);
 
-        logger.debug("Finished jobs loading {}", this.cache.size());
+        logger.debug("Finished jobs loading for {} topics", topicCache.size());
+        return topicCache;
     }
 
     /**
      * Order the topics based on the queue type and put them in the cache.
+     * This method must be called while holding the lock on the cache.
      * @param topicCache The topic based cache
      */
     private void orderTopics(final Map<String, List<JobImpl>> topicCache) {
@@ -39,7 +39,9 @@ import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPool;
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPriority;
 import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.apache.sling.event.impl.EventingThreadPool;
 import org.apache.sling.event.impl.jobs.JobConsumerManager;
@@ -111,6 +113,9 @@ public class QueueManager
     @Reference
     private StatisticsManager statisticsManager;
 
+    /** The number of threads prefetching jobs for all queues. */
+    private static final int PREFETCH_THREAD_POOL_SIZE = 5;
+
     /** Lock object for the queues map - we don't want to sync directly on the concurrent map. */
     private final Object queuesLock = new Object();
 
@@ -141,6 +146,7 @@ public class QueueManager
         queueServices.threadPoolManager = this.threadPoolManager;
         queueServices.statisticsManager = statisticsManager;
         queueServices.eventingThreadPool = this.threadPool;
+        queueServices.prefetchThreadPool = this.createPrefetchThreadPool();
         this.configuration.addListener(this);
     }
 
@@ -160,10 +166,26 @@ public class QueueManager
             ((QueuesMBeanImpl)queuesMBean).sendEvent(new QueueStatusEvent(null, jbq));
         }
         this.queues.clear();
+        this.threadPoolManager.release(this.queueServices.prefetchThreadPool);
         this.queueServices = null;
         logger.info("Apache Sling Queue Manager stopped on instance {}", Environment.APPLICATION_ID);
     }
 
+    /**
+     * Create the thread pool used by all queues for prefetching jobs.
+     * The job thread pool can't be used as job threads might wait for a prefetch.
+     */
+    private ThreadPool createPrefetchThreadPool() {
+        final ModifiableThreadPoolConfig config = new ModifiableThreadPoolConfig();
+        config.setMinPoolSize(PREFETCH_THREAD_POOL_SIZE);
+        config.setMaxPoolSize(PREFETCH_THREAD_POOL_SIZE);
+        config.setQueueSize(-1); // unlimited
+        config.setShutdownGraceful(true);
+        config.setPriority(ThreadPriority.NORM);
+        config.setDaemon(true);
+        return this.threadPoolManager.create(config, "Apache Sling Job Prefetch Thread Pool");
+    }
+
     /**
      * This method is invoked periodically by the scheduler.
      * It searches for idle queues and stops them after a timeout. If a queue
@@ -46,4 +46,6 @@ public class QueueServices {
     public StatisticsManager statisticsManager;
 
     public ThreadPool eventingThreadPool;
+
+    public ThreadPool prefetchThreadPool;
 }
@@ -53,6 +53,14 @@ public class StatisticsImpl implements Statistics {
 
     private volatile long cancelledJobs;
 
+    private volatile long prefetchedJobs;
+
+    private volatile long prefetchStarvations;
+
+    private volatile long prefetchLag;
+
+    private volatile long prefetchCount;
+
     public StatisticsImpl() {
         this(System.currentTimeMillis());
     }
@@ -157,6 +165,48 @@ public class StatisticsImpl implements Statistics {
         return this.lastFinished;
     }
 
+    /**
+     * @see org.apache.sling.event.jobs.Statistics#getNumberOfPrefetchedJobs()
+     */
+    @Override
+    public synchronized long getNumberOfPrefetchedJobs() {
+        return this.prefetchedJobs;
+    }
+
+    /**
+     * @see org.apache.sling.event.jobs.Statistics#getNumberOfPrefetchStarvations()
+     */
+    @Override
+    public synchronized long getNumberOfPrefetchStarvations() {
+        return this.prefetchStarvations;
+    }
+
+    /**
+     * @see org.apache.sling.event.jobs.Statistics#getAveragePrefetchLag()
+     */
+    @Override
+    public synchronized long getAveragePrefetchLag() {
+        return this.prefetchCount == 0 ? 0 : this.prefetchLag / this.prefetchCount;
+    }
+
+    /**
+     * Add a finished prefetch
+     * @param jobs The number of jobs added to the queue
+     * @param lag The time between triggering the prefetch and the jobs being available
+     */
+    public synchronized void prefetched(final long jobs, final long lag) {
+        this.prefetchCount++;
+        this.prefetchedJobs += jobs;
+        this.prefetchLag += lag;
+    }
+
+    /**
+     * A queue had to wait for a running prefetch.
+     */
+    public synchronized void prefetchStarved() {
+        this.prefetchStarvations++;
+    }
+
     /**
      * Add a finished job
      * @param jobTime The processing time for this job.
@@ -246,6 +296,10 @@ public class StatisticsImpl implements Statistics {
             this.failedJobs += other.failedJobs;
             this.cancelledJobs += other.cancelledJobs;
             this.activeJobs += other.activeJobs;
+            this.prefetchedJobs += other.prefetchedJobs;
+            this.prefetchStarvations += other.prefetchStarvations;
+            this.prefetchLag += other.prefetchLag;
+            this.prefetchCount += other.prefetchCount;
         }
     }
 
@@ -266,6 +320,10 @@ public class StatisticsImpl implements Statistics {
         final long localFailedJobs;
         final long localCancelledJobs;
         final long localActiveJobs;
+        final long localPrefetchedJobs;
+        final long localPrefetchStarvations;
+        final long localPrefetchLag;
+        final long localPrefetchCount;
         synchronized ( other ) {
             localQueuedJobs = other.queuedJobs;
             localLastActivated = other.lastActivated;
@@ -280,6 +338,10 @@ public class StatisticsImpl implements Statistics {
             localFailedJobs = other.failedJobs;
             localCancelledJobs = other.cancelledJobs;
             localActiveJobs = other.activeJobs;
+            localPrefetchedJobs = other.prefetchedJobs;
+            localPrefetchStarvations = other.prefetchStarvations;
+            localPrefetchLag = other.prefetchLag;
+            localPrefetchCount = other.prefetchCount;
         }
         synchronized ( this ) {
             this.queuedJobs = localQueuedJobs;
@@ -295,6 +357,10 @@ public class StatisticsImpl implements Statistics {
             this.failedJobs = localFailedJobs;
             this.cancelledJobs = localCancelledJobs;
             this.activeJobs = localActiveJobs;
+            this.prefetchedJobs = localPrefetchedJobs;
+            this.prefetchStarvations = localPrefetchStarvations;
+            this.prefetchLag = localPrefetchLag;
+            this.prefetchCount = localPrefetchCount;
         }
     }
 
@@ -315,5 +381,9 @@ public class StatisticsImpl implements Statistics {
         this.finishedJobs = 0;
         this.failedJobs = 0;
         this.cancelledJobs = 0;
+        this.prefetchedJobs = 0;
+        this.prefetchStarvations = 0;
+        this.prefetchLag = 0;
+        this.prefetchCount = 0;
     }
 }
@@ -179,4 +179,20 @@ public class StatisticsManager {
             queueStats.decQueued();
         }
     }
+
+    public void jobsPrefetched(final String queueName, final long jobs, final long lag) {
+        final StatisticsImpl queueStats = getStatisticsForQueue(queueName);
+        this.globalStatistics.prefetched(jobs, lag);
+        if ( queueStats != null ) {
+            queueStats.prefetched(jobs, lag);
+        }
+    }
+
+    public void prefetchStarved(final String queueName) {
+        final StatisticsImpl queueStats = getStatisticsForQueue(queueName);
+        this.globalStatistics.prefetchStarved();
+        if ( queueStats != null ) {
+            queueStats.prefetchStarved();
+        }
+    }
 }
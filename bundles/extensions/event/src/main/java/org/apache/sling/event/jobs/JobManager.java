@@ -220,4 +220,31 @@ public interface JobManager {
      * @since 1.4
      */
     Collection<ScheduledJobInfo> getScheduledJobs(String topic, long limit, Map<String, Object>... templates);
+
+    /**
+     * Add several new jobs at once.
+     *
+     * Each job builder is handled as if {@link JobBuilder#add()} would have been called,
+     * however the jobs are persisted in batches. This reduces the number of writes to the
+     * persistence layer considerably when many jobs are created at once.
+     * If a job can't be created, it is not part of the returned collection.
+     *
+     * @param builders The job builders, created through {@link #createJob(String)}.
+     * @return The new jobs in the order of the builders - the collection might be empty.
+     * @since 2.1
+     */
+    Collection<Job> addJobs(Collection<JobBuilder> builders);
+
+    /**
+     * Removes several jobs even if they are currently in processing.
+     *
+     * Each job is handled as if {@link #removeJobById(String)} would have been called,
+     * however jobs from the history are removed in batches.
+     *
+     * @param jobIds The unique identifiers from {@link Job#getId()}
+     * @return <code>true</code> if all jobs could be removed or do not exist anymore.
+     *         <code>false</code> otherwise.
+     * @since 2.1
+     */
+    boolean removeJobsById(Collection<String> jobIds);
 }
@@ -103,6 +103,29 @@ public interface Statistics {
      */
     long getAverageProcessingTime();
 
+    /**
+     * Number of jobs loaded in the background ahead of processing.
+     * @return Number of prefetched jobs.
+     * @since 2.1
+     */
+    long getNumberOfPrefetchedJobs();
+
+    /**
+     * Number of times a queue ran out of jobs while jobs were prefetched
+     * and had to wait for the prefetch.
+     * @return Number of prefetch starvations.
+     * @since 2.1
+     */
+    long getNumberOfPrefetchStarvations();
+
+    /**
+     * The average time between triggering a prefetch and the prefetched jobs
+     * being available for processing.
+     * @return The average prefetch lag.
+     * @since 2.1
+     */
+    long getAveragePrefetchLag();
+
     /**
      * Clear all collected statistics and set the starting time to the current time.
      * Note that not all fields are cleared, last waiting time or number of active and queued
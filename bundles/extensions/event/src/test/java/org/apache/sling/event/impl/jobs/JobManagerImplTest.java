@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.event.impl.TestUtil;
+import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.NotificationConstants;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.slf4j.LoggerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobManagerImplTest {
+
+    private static final String HISTORY_PATH = JobManagerConfiguration.DEFAULT_REPOSITORY_PATH + "/finished/sling.test";
+    private static final String TOPIC = "sling/test";
+
+    @Rule
+    public final SlingContext ctx = new SlingContext();
+
+    @Mock
+    private JobManagerConfiguration configuration;
+    @Mock
+    private EventAdmin eventAdmin;
+
+    private JobManagerImpl jobManager;
+
+    @Before
+    public void setUp() {
+        Mockito.when(configuration.isStoragePath(Matchers.anyString())).thenReturn(true);
+        Mockito.when(configuration.getAuditLogger()).thenReturn(LoggerFactory.getLogger("audit"));
+        // the job manager closes the resolver after each operation
+        Mockito.when(configuration.createResourceResolver()).thenAnswer(new Answer<ResourceResolver>() {
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public ResourceResolver answer(final InvocationOnMock invocation) throws Throwable {
+                return ctx.getService(ResourceResolverFactory.class).getAdministrativeResourceResolver(null);
+            }
+        });
+        jobManager = Mockito.spy(new JobManagerImpl());
+        TestUtil.setFieldValue(jobManager, "configuration", configuration);
+        TestUtil.setFieldValue(jobManager, "eventAdmin", eventAdmin);
+    }
+
+    @Test
+    public void testRemoveJobsById() throws Exception {
+        // job_1 is in the history, the resource of job_2 has been removed in the meantime, job_3 does not exist
+        ctx.create().resource(HISTORY_PATH + "/job_1");
+        ctx.resourceResolver().commit();
+        Mockito.doReturn(createJob("job_1")).when(jobManager).getJobById("job_1");
+        Mockito.doReturn(createJob("job_2")).when(jobManager).getJobById("job_2");
+        Mockito.doReturn(null).when(jobManager).getJobById("job_3");
+
+        assertTrue(jobManager.removeJobsById(Arrays.asList("job_1", "job_2", "job_3")));
+
+        ctx.resourceResolver().refresh();
+        assertNull(ctx.resourceResolver().getResource(HISTORY_PATH + "/job_1"));
+        // only the removed job is notified
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(eventAdmin).postEvent(events.capture());
+        assertEquals(NotificationConstants.TOPIC_JOB_REMOVED, events.getValue().getTopic());
+        assertEquals("job_1", events.getValue().getProperty(NotificationConstants.NOTIFICATION_PROPERTY_JOB_ID));
+    }
+
+    @Test
+    public void testRemoveJobsByIdWithoutExistingJobs() throws Exception {
+        Mockito.doReturn(null).when(jobManager).getJobById(Matchers.anyString());
+
+        assertTrue(jobManager.removeJobsById(Arrays.asList("job_1", "job_2")));
+        Mockito.verifyZeroInteractions(eventAdmin);
+    }
+
+    @Test
+    public void testRemoveJobsByIdWithFailingCommit() throws Exception {
+        // one more job than fits into a batch, the second commit fails
+        final int count = 51;
+        final List<String> ids = new ArrayList<String>();
+        for(int i = 1; i <= count; i++) {
+            final String id = "job_" + i;
+            ids.add(id);
+            ctx.create().resource(HISTORY_PATH + "/" + id);
+        }
+        ctx.resourceResolver().commit();
+        // like the query, only jobs with a resource are found
+        Mockito.doAnswer(new Answer<Job>() {
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public Job answer(final InvocationOnMock invocation) throws Throwable {
+                final String id = (String) invocation.getArguments()[0];
+                final ResourceResolver resolver = ctx.getService(ResourceResolverFactory.class).getAdministrativeResourceResolver(null);
+                try {
+                    return resolver.getResource(HISTORY_PATH + "/" + id) != null ? createJob(id) : null;
+                } finally {
+                    resolver.close();
+                }
+            }
+        }).when(jobManager).getJobById(Matchers.anyString());
+        final AtomicInteger resolvers = new AtomicInteger();
+        Mockito.when(configuration.createResourceResolver()).thenAnswer(new Answer<ResourceResolver>() {
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public ResourceResolver answer(final InvocationOnMock invocation) throws Throwable {
+                final ResourceResolver resolver = ctx.getService(ResourceResolverFactory.class).getAdministrativeResourceResolver(null);
+                if ( resolvers.incrementAndGet() > 1 ) {
+                    return resolver;
+                }
+                final ResourceResolver failing = Mockito.spy(resolver);
+                final AtomicInteger commits = new AtomicInteger();
+                Mockito.doAnswer(new Answer<Void>() {
+
+                    @Override
+                    public Void answer(final InvocationOnMock invocation) throws Throwable {
+                        if ( commits.incrementAndGet() > 1 ) {
+                            throw new PersistenceException("failed");
+                        }
+                        return (Void) invocation.callRealMethod();
+                    }
+                }).when(failing).commit();
+                return failing;
+            }
+        });
+
+        assertTrue(jobManager.removeJobsById(ids));
+
+        ctx.resourceResolver().refresh();
+        assertNull(ctx.resourceResolver().getResource(HISTORY_PATH + "/job_1"));
+        assertNull(ctx.resourceResolver().getResource(HISTORY_PATH + "/job_" + count));
+        // the jobs removed by the first commit and the job removed afterwards are notified once
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(eventAdmin, Mockito.times(count)).postEvent(events.capture());
+        final Set<Object> notified = new HashSet<Object>();
+        for(final Event event : events.getAllValues()) {
+            assertEquals(NotificationConstants.TOPIC_JOB_REMOVED, event.getTopic());
+            notified.add(event.getProperty(NotificationConstants.NOTIFICATION_PROPERTY_JOB_ID));
+        }
+        assertEquals(new HashSet<Object>(ids), notified);
+    }
+
+    private static JobImpl createJob(final String id) {
+        final Map<String, Object> props = new HashMap<String, Object>();
+        props.put(JobImpl.PROPERTY_RESOURCE_PATH, HISTORY_PATH + "/" + id);
+        return new JobImpl(TOPIC, id, props);
+    }
+}
@@ -64,6 +64,9 @@ public class AllJobStatisticsMBeanTest {
         Assert.assertEquals(new Date(seed + 10), mbean.getLastFinishedJobDate());
         Assert.assertEquals(seed + 11, mbean.getAverageWaitingTime());
         Assert.assertEquals(seed + 12, mbean.getAverageProcessingTime());
+        Assert.assertEquals(seed + 13, mbean.getNumberOfPrefetchedJobs());
+        Assert.assertEquals(seed + 14, mbean.getNumberOfPrefetchStarvations());
+        Assert.assertEquals(seed + 15, mbean.getAveragePrefetchLag());
     }
 
 }
@@ -78,6 +78,18 @@ public class DummyStatistics implements Statistics {
         return base+12;
     }
 
+    public long getNumberOfPrefetchedJobs() {
+        return base+13;
+    }
+
+    public long getNumberOfPrefetchStarvations() {
+        return base+14;
+    }
+
+    public long getAveragePrefetchLag() {
+        return base+15;
+    }
+
     public void reset() {
     }
 
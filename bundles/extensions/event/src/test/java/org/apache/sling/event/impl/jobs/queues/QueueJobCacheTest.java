@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.commons.threads.ThreadPool;
+import org.apache.sling.event.impl.jobs.JobHandler;
+import org.apache.sling.event.impl.jobs.JobConsumerManager;
+import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
+import org.apache.sling.event.impl.jobs.stats.StatisticsManager;
+import org.apache.sling.event.impl.support.ResourceHelper;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.Queue;
+import org.apache.sling.event.jobs.QueueConfiguration;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueueJobCacheTest {
+
+    private static final String JOBS_PATH = JobManagerConfiguration.DEFAULT_REPOSITORY_PATH + "/assigned/test-instance";
+    private static final String TOPIC = "sling/test";
+    private static final String QUEUE_NAME = "test-queue";
+    private static final int PREFETCH_LIMIT = 4;
+
+    @Rule
+    public final SlingContext ctx = new SlingContext();
+
+    @Mock
+    private JobManagerConfiguration configuration;
+    @Mock
+    private StatisticsManager statisticsManager;
+    @Mock
+    private JobConsumerManager jobConsumerManager;
+    @Mock
+    private Queue queue;
+    @Mock
+    private ThreadPool prefetchThreadPool;
+
+    /** The prefetches started by the cache, run by the test. */
+    private final List<Runnable> prefetches = new ArrayList<Runnable>();
+
+    @Before
+    public void setUp() {
+        Mockito.when(configuration.getLocalJobsPath()).thenReturn(JOBS_PATH);
+        Mockito.when(configuration.getPrefetchLimit()).thenReturn(PREFETCH_LIMIT);
+        Mockito.when(configuration.isActive()).thenReturn(true);
+        // the cache closes the resolver after each load
+        Mockito.when(configuration.createResourceResolver()).thenAnswer(new Answer<ResourceResolver>() {
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public ResourceResolver answer(final InvocationOnMock invocation) throws Throwable {
+                return ctx.getService(ResourceResolverFactory.class).getAdministrativeResourceResolver(null);
+            }
+        });
+        Mockito.when(jobConsumerManager.getExecutor(TOPIC)).thenReturn(Mockito.mock(JobExecutor.class));
+        final QueueConfiguration queueConfiguration = Mockito.mock(QueueConfiguration.class);
+        Mockito.when(queue.getName()).thenReturn(QUEUE_NAME);
+        Mockito.when(queue.getConfiguration()).thenReturn(queueConfiguration);
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                prefetches.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(prefetchThreadPool).execute(Matchers.any(Runnable.class));
+    }
+
+    @Test
+    public void testJobsArePrefetched() throws Exception {
+        createJobs(10);
+        final QueueJobCache cache = createCache();
+
+        assertEquals("job_0", nextJobId(cache));
+        assertTrue(prefetches.isEmpty());
+        assertEquals("job_1", nextJobId(cache));
+        // only half of the limit is cached, the rest is fetched in the background
+        assertEquals(1, prefetches.size());
+        prefetches.remove(0).run();
+
+        final List<String> ids = new ArrayList<String>();
+        String id;
+        while ( (id = nextJobId(cache)) != null ) {
+            ids.add(id);
+            while ( !prefetches.isEmpty() ) {
+                prefetches.remove(0).run();
+            }
+        }
+        assertEquals(listOfIds(2, 10), ids);
+        Mockito.verify(statisticsManager, Mockito.atLeastOnce()).jobsPrefetched(Matchers.eq(QUEUE_NAME),
+                Matchers.anyLong(), Matchers.anyLong());
+        Mockito.verify(statisticsManager, Mockito.never()).prefetchStarved(QUEUE_NAME);
+    }
+
+    @Test
+    public void testJobsTakenDuringPrefetchAreNotAddedAgain() throws Exception {
+        createJobs(6);
+        final QueueJobCache cache = createCache();
+
+        assertEquals("job_0", nextJobId(cache));
+        assertEquals("job_1", nextJobId(cache));
+        assertEquals(1, prefetches.size());
+        // job2 is taken after the prefetch has read it, job3 is still in the cache
+        final List<String> taken = new ArrayList<String>();
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                if ( taken.isEmpty() ) {
+                    taken.add(nextJobId(cache));
+                }
+                return null;
+            }
+        }).when(statisticsManager).jobQueued(QUEUE_NAME, TOPIC);
+        prefetches.remove(0).run();
+        assertEquals(Collections.singletonList("job_2"), taken);
+        Mockito.verify(statisticsManager).jobsPrefetched(Matchers.eq(QUEUE_NAME),
+                Matchers.eq(2L), Matchers.anyLong());
+
+        assertEquals("job_3", nextJobId(cache));
+        assertEquals("job_4", nextJobId(cache));
+        assertEquals("job_5", nextJobId(cache));
+        assertNull(nextJobId(cache));
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitForStuckPrefetchIsBounded() throws Exception {
+        createJobs(6);
+        final QueueJobCache cache = createCache();
+
+        for(int i = 0; i < PREFETCH_LIMIT; i++) {
+            assertEquals("job_" + i, nextJobId(cache));
+        }
+        // the prefetch never runs, the jobs are loaded by the job thread after the timeout
+        assertEquals(1, prefetches.size());
+        final long start = System.currentTimeMillis();
+        assertEquals("job_4", nextJobId(cache));
+        assertTrue(System.currentTimeMillis() - start >= QueueJobCache.PREFETCH_WAIT_TIMEOUT);
+        Mockito.verify(statisticsManager).prefetchStarved(QUEUE_NAME);
+
+        // the late prefetch does not add the loaded jobs again
+        prefetches.remove(0).run();
+        assertEquals("job_5", nextJobId(cache));
+        assertNull(nextJobId(cache));
+    }
+
+    private QueueJobCache createCache() {
+        return new QueueJobCache(configuration, QUEUE_NAME, statisticsManager,
+                QueueConfiguration.Type.ORDERED, Collections.singleton(TOPIC), prefetchThreadPool);
+    }
+
+    private String nextJobId(final QueueJobCache cache) {
+        final JobHandler handler = cache.getNextJob(jobConsumerManager, statisticsManager, queue, false);
+        if ( handler == null ) {
+            return null;
+        }
+        assertNotNull(handler.getJob().getProcessingStarted());
+        return handler.getJob().getId();
+    }
+
+    private static List<String> listOfIds(final int from, final int to) {
+        final List<String> ids = new ArrayList<String>();
+        for(int i = from; i < to; i++) {
+            ids.add("job_" + i);
+        }
+        return ids;
+    }
+
+    private void createJobs(final int count) throws PersistenceException {
+        final Calendar created = Calendar.getInstance();
+        created.set(2016, Calendar.JANUARY, 1, 10, 0, 0);
+        for(int i = 0; i < count; i++) {
+            final Map<String, Object> props = new HashMap<String, Object>();
+            props.put(ResourceHelper.PROPERTY_JOB_TOPIC, TOPIC);
+            props.put(ResourceHelper.PROPERTY_JOB_ID, "job_" + i);
+            final Calendar jobCreated = (Calendar) created.clone();
+            jobCreated.add(Calendar.MINUTE, i);
+            props.put(Job.PROPERTY_JOB_CREATED, jobCreated);
+            // one job per minute, the jobs of a minute are always read together
+            ctx.create().resource(JOBS_PATH + "/" + TOPIC.replace('/', '.') + "/2016/1/1/10/" + i + "/job" + i, props);
+        }
+        ctx.resourceResolver().commit();
+    }
+}
@@ -37,6 +37,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.sling.event.impl.Barrier;
 import org.apache.sling.event.impl.jobs.config.ConfigurationConstants;
 import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.JobBuilder;
 import org.apache.sling.event.jobs.JobManager;
 import org.apache.sling.event.jobs.NotificationConstants;
 import org.apache.sling.event.jobs.QueueConfiguration;
@@ -161,6 +162,43 @@ public class JobHandlingTest extends AbstractJobHandlingTest {
         assertEquals("Finished count", COUNT, this.getJobManager().getStatistics().getNumberOfFinishedJobs());
     }
 
+    @Test(timeout = DEFAULT_TEST_TIMEOUT)
+    public void testAddJobsInBatch() throws Exception {
+        this.registerJobConsumer(TOPIC,
+                new JobConsumer() {
+
+                    @Override
+                    public JobResult process(final Job job) {
+                        return JobResult.OK;
+                    }
+
+                 });
+        final AtomicInteger count = new AtomicInteger(0);
+        this.registerEventHandler(NotificationConstants.TOPIC_JOB_FINISHED,
+                new EventHandler() {
+                    @Override
+                    public void handleEvent(final Event event) {
+                        count.incrementAndGet();
+                    }
+                 });
+
+        // more jobs than fit into a single batch and one invalid job
+        final int COUNT = 120;
+        final List<JobBuilder> builders = new ArrayList<JobBuilder>();
+        for(int i = 0; i < COUNT; i++ ) {
+            builders.add(this.getJobManager().createJob(TOPIC));
+            if ( i == 10 ) {
+                builders.add(this.getJobManager().createJob("invalid topic"));
+            }
+        }
+        final Collection<Job> jobs = this.getJobManager().addJobs(builders);
+        assertEquals("Added count", COUNT, jobs.size());
+        while ( count.get() < COUNT ) {
+            this.sleep(50);
+        }
+        assertEquals("Finished count", COUNT, count.get());
+    }
+
     /**
      * Test canceling a job
      * The job execution always fails
@@ -66,4 +66,11 @@ public @interface Model {
      */
     public String[] resourceType() default {};
 
+    /**
+     * @return {@code true} in case the model instance should be cached per adaptable. Subsequent adaptions of the same
+     *  adaptable object to the same model type then return the same instance. For a request adaptable the cached
+     *  instance is only reused as long as the request attributes and the request resource have not been changed.
+     */
+    public boolean cache() default false;
+
 }
@@ -18,13 +18,10 @@ package org.apache.sling.models.impl;
 
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,7 +29,6 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,7 +36,6 @@ import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import javax.annotation.PostConstruct;
 
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang.StringUtils;
@@ -80,6 +75,7 @@ import org.apache.sling.models.impl.model.InjectableField;
 import org.apache.sling.models.impl.model.InjectableMethod;
 import org.apache.sling.models.impl.model.ModelClass;
 import org.apache.sling.models.impl.model.ModelClassConstructor;
+import org.apache.sling.models.impl.model.TargetType;
 import org.apache.sling.models.spi.AcceptsNullName;
 import org.apache.sling.models.spi.DisposalCallback;
 import org.apache.sling.models.spi.DisposalCallbackRegistry;
@@ -200,6 +196,8 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
 
     final AdapterImplementations adapterImplementations = new AdapterImplementations();
 
+    private final ModelCache modelCache = new ModelCache();
+
     private ServiceRegistration jobRegistration;
 
     private ServiceRegistration configPrinterRegistration;
@@ -318,6 +316,12 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
                 String msg = String.format("Adaptables (%s) are not acceptable for the model class: %s", StringUtils.join(declaredAdaptable), modelClass.getType());
                 return new Result<ModelType>(new InvalidAdaptableException(msg)); 
             } else {
+                if (modelAnnotation.cache()) {
+                    ModelType cachedModel = (ModelType) modelCache.get(adaptable, requestedType);
+                    if (cachedModel != null) {
+                        return new Result<ModelType>(cachedModel);
+                    }
+                }
                 RuntimeException t = validateModel(adaptable, modelClass.getType(), modelAnnotation);
                 if (t != null) {
                     return new Result<ModelType>(t);
@@ -338,6 +342,9 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
                         return new Result<ModelType>(new ModelClassException(msg, e));
                     }
                 }
+                if (modelAnnotation.cache() && result.wasSuccessful()) {
+                    modelCache.put(adaptable, requestedType, modelClass, result.getValue());
+                }
             }
             return result;
         } finally {
@@ -439,16 +446,10 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         RuntimeException lastInjectionException = null;
         if (injectionAdaptable != null) {
             
-            // prepare the set of injectors to process. if a source is given only use injectors with this name.
-            final RankedServices<Injector> injectorsToProcess;
-            if (StringUtils.isEmpty(source)) {
-                injectorsToProcess = sortedInjectors;
-            }
-            else {
-                injectorsToProcess = injectors.get(source);
-                if (injectorsToProcess == null) {
-                    throw new IllegalArgumentException("No Sling Models Injector registered for source '" + source + "'.");
-                }
+            // the set of injectors to process, bound to the element once. if a source is given only injectors with this name are used.
+            final Injector[] injectorsToProcess = element.getInjectors(sortedInjectors.get());
+            if (injectorsToProcess.length == 0 && !StringUtils.isEmpty(source) && !injectors.containsKey(source)) {
+                throw new IllegalArgumentException("No Sling Models Injector registered for source '" + source + "'.");
             }
             
             // find the right injector
@@ -559,7 +560,7 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         final Map<ValuePreparer, Object> preparedValues = new HashMap<ValuePreparer, Object>(VALUE_PREPARERS_COUNT);
 
         final ModelType object;
-        if (constructorToUse.getConstructor().getParameterTypes().length == 0) {
+        if (constructorToUse.getParameterTypes().length == 0) {
             // no parameters for constructor injection? instantiate it right away
             object = constructorToUse.getConstructor().newInstance();
         } else {
@@ -604,7 +605,7 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
             return new Result<ModelType>(missingElements);
         }
         try {
-            invokePostConstruct(object);
+            invokePostConstruct(object, modelClass);
         } catch (InvocationTargetException e) {
             return new Result<ModelType>(new PostConstructException("Post-construct method has thrown an exception for model " + modelClass.getType(), e.getCause()));
         } catch (IllegalAccessException e) {
@@ -630,15 +631,15 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
             }
             // compatibility mode for sling models implementation <= 1.0.6:
             // support constructor without @Inject if it has exactly one parameter matching the adaptable class
-            final Class<?>[] paramTypes = constructor.getConstructor().getParameterTypes();
+            final Class<?>[] paramTypes = constructor.getParameterTypes();
             if (paramTypes.length == 1) {
-                Class<?> paramType = constructor.getConstructor().getParameterTypes()[0];
+                Class<?> paramType = paramTypes[0];
                 if (paramType.isInstance(adaptable)) {
                     return constructor;
                 }
             }
             // if no constructor for injection found use public constructor without any params
-            if (constructor.getConstructor().getParameterTypes().length == 0) {
+            if (paramTypes.length == 0) {
                 return constructor;
             }
         }
@@ -701,29 +702,11 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
      * @param callback Inject callback
      */
     private RuntimeException injectPrimitiveInitialValue(InjectableElement point, InjectCallback callback) {
-        Type primitiveType = ReflectionUtil.mapWrapperClasses(point.getType());
-        Object value = null;
-        if (primitiveType == int.class) {
-            value = 0;
-        } else if (primitiveType == long.class) {
-            value = 0L;
-        } else if (primitiveType == boolean.class) {
-            value = Boolean.FALSE;
-        } else if (primitiveType == double.class) {
-            value = 0.0d;
-        } else if (primitiveType == float.class) {
-            value = 0.0f;
-        } else if (primitiveType == short.class) {
-            value = (short) 0;
-        } else if (primitiveType == byte.class) {
-            value = (byte) 0;
-        } else if (primitiveType == char.class) {
-            value = '\u0000';
-        }
+        Object value = point.getPrimitiveInitialValue();
         if (value != null) {
             return callback.inject(point, value);
         } else {
-            return new ModelClassException(String.format("Unknown primitive type %s", primitiveType.toString()));
+            return new ModelClassException(String.format("Unknown primitive type %s", ReflectionUtil.mapWrapperClasses(point.getType())));
         }
     }
     
@@ -758,62 +741,19 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         return element.getName();
     }
 
-    private boolean addMethodIfNotOverriden(List<Method> methods, Method newMethod) {
-        for (Method method : methods) {
-            if (method.getName().equals(newMethod.getName())) {
-                if (Arrays.equals(method.getParameterTypes(),newMethod.getParameterTypes())) {
-                    return false;
-                }
-            }
-        }
-        methods.add(newMethod);
-        return true;
-    }
-
-    private void invokePostConstruct(Object object) throws InvocationTargetException, IllegalAccessException {
-        Class<?> clazz = object.getClass();
-        List<Method> postConstructMethods = new ArrayList<Method>();
-        while (clazz != null) {
-            Method[] methods = clazz.getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.isAnnotationPresent(PostConstruct.class)) {
-                    addMethodIfNotOverriden(postConstructMethods, method);
-                }
-            }
-            clazz = clazz.getSuperclass();
-        }
-        Collections.reverse(postConstructMethods);
-        for (Method method : postConstructMethods) {
-            boolean accessible = method.isAccessible();
-            try {
-                if (!accessible) {
-                    method.setAccessible(true);
-                }
-                method.invoke(object);
-            } finally {
-                if (!accessible) {
-                    method.setAccessible(false);
-                }
-            }
+    private <ModelType> void invokePostConstruct(ModelType object, ModelClass<ModelType> modelClass) throws InvocationTargetException, IllegalAccessException {
+        for (Method method : modelClass.getPostConstructMethods()) {
+            method.invoke(object);
         }
     }
 
     private RuntimeException setField(InjectableField injectableField, Object createdObject, Object value) {
-        Field field = injectableField.getField();
-        Result<Object> result = adaptIfNecessary(value, field.getType(), field.getGenericType());
+        Result<Object> result = adaptIfNecessary(value, injectableField.getTargetType());
         if (result.wasSuccessful()) {
-            boolean accessible = field.isAccessible();
             try {
-                if (!accessible) {
-                    field.setAccessible(true);
-                }
-                field.set(createdObject, result.getValue());
+                injectableField.set(createdObject, result.getValue());
             } catch (Exception e) {
                 return new ModelClassException("Could not inject field due to reflection issues", e);
-            } finally {
-                if (!accessible) {
-                    field.setAccessible(false);
-                }
             }
             return null;
         } else {
@@ -823,7 +763,7 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
 
     private RuntimeException setMethod(InjectableMethod injectableMethod, Map<Method, Object> methods, Object value) {
         Method method = injectableMethod.getMethod();
-        Result<Object> result = adaptIfNecessary(value, method.getReturnType(), method.getGenericReturnType());
+        Result<Object> result = adaptIfNecessary(value, injectableMethod.getTargetType());
         if (result.wasSuccessful()) {
             methods.put(method, result.getValue());
             return null;
@@ -833,8 +773,8 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
     }
 
     private RuntimeException setConstructorParameter(ConstructorParameter constructorParameter, List<Object> parameterValues, Object value) {
-        if (constructorParameter.getParameterType() instanceof Class<?>) {
-            Result<Object> result = adaptIfNecessary(value, (Class<?>) constructorParameter.getParameterType(), constructorParameter.getGenericType());
+        if (constructorParameter.getTargetType().getType() != null) {
+            Result<Object> result = adaptIfNecessary(value, constructorParameter.getTargetType());
             if (result.wasSuccessful() ) {
                 parameterValues.set(constructorParameter.getParameterIndex(), result.getValue());
                 return null;
@@ -846,18 +786,15 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         }
     }
 
-    private Result<Object> adaptIfNecessary(final Object value, final Class<?> type, final Type genericType) {
+    private Result<Object> adaptIfNecessary(final Object value, final TargetType targetType) {
         final Object adaptedValue;
-        if (!isAcceptableType(type, genericType, value)) {
-            if (genericType instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) genericType;
-                if (value instanceof Collection &&
-                        (type.equals(Collection.class) || type.equals(List.class)) &&
-                        parameterizedType.getActualTypeArguments().length == 1) {
+        if (!targetType.isAcceptable(value)) {
+            if (targetType.isParameterized()) {
+                if (value instanceof Collection && targetType.getComponentType() != null) {
                     
                     List<Object> result = new ArrayList<Object>();
                     for (Object valueObject : (Collection<?>) value) {
-                        Result<Object> singleValueResult = adapt(valueObject, (Class<?>) parameterizedType.getActualTypeArguments()[0], true);
+                        Result<Object> singleValueResult = adapt(valueObject, targetType.getComponentType(), true);
                         if (singleValueResult.wasSuccessful()) {
                             result.add(singleValueResult.getValue());
                         } else {
@@ -867,10 +804,10 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
                     adaptedValue = result;
                 } else {
                     return new Result<Object>(new ModelClassException(String.format("%s is neither a parameterized Collection or List",
-                        type)));
+                        targetType.getType())));
                 }
             } else {
-                return adapt(value, type, false);
+                return adapt(value, targetType.getType(), false);
             }
             return new Result<Object>(adaptedValue);
         } else {
@@ -911,53 +848,6 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         }
     }
 
-    private static boolean isAcceptableType(Class<?> type, Type genericType, Object value) {
-        if (type.isInstance(value)) {
-            if ((type == Collection.class || type == List.class) && genericType instanceof ParameterizedType &&
-                    value instanceof Collection) {
-                Iterator<?> it = ((Collection<?>) value).iterator();
-                if (!it.hasNext()) {
-                    // empty collection, so it doesn't really matter
-                    return true;
-                } else {
-                    // this is not an ideal way to get the actual component type, but erasure...
-                    Class<?> actualComponentType = it.next().getClass();
-                    Class<?> desiredComponentType = (Class<?>) ((ParameterizedType) genericType).getActualTypeArguments()[0];
-                    return desiredComponentType.isAssignableFrom(actualComponentType);
-                }
-            } else {
-                return true;
-            }
-        }
-
-        if (type == Integer.TYPE) {
-            return Integer.class.isInstance(value);
-        }
-        if (type == Long.TYPE) {
-            return Long.class.isInstance(value);
-        }
-        if (type == Boolean.TYPE) {
-            return Boolean.class.isInstance(value);
-        }
-        if (type == Double.TYPE) {
-            return Double.class.isInstance(value);
-        }
-        if (type == Float.TYPE) {
-            return Float.class.isInstance(value);
-        }
-        if (type == Short.TYPE) {
-            return Short.class.isInstance(value);
-        }
-        if (type == Byte.TYPE) {
-            return Byte.class.isInstance(value);
-        }
-        if (type == Character.TYPE) {
-            return Character.class.isInstance(value);
-        }
-
-        return false;
-    }
-
     @Activate
     protected void activate(final ComponentContext ctx) {
         Dictionary<?, ?> props = ctx.getProperties();
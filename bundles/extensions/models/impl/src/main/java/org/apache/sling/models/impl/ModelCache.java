@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.models.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.servlet.ServletRequest;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.models.impl.model.ModelClass;
+
+/**
+ * Cache for model instances created from models with {@code @Model(cache = true)}.
+ * <p>
+ * The cached models can be garbage collected together with their adaptable, even if
+ * they reference the adaptable.
+ * <p>
+ * Models adapted from a request are stored in an attribute of this request. They are
+ * only returned as long as the resource of the request and the request attributes the
+ * model may be injected from (compared by identity) have not been changed since the
+ * model has been created.
+ * <p>
+ * Models adapted from a resource are stored in this cache, keyed by the identity of
+ * the resource instance. The resource metadata can't be used as it is locked by the
+ * resource resolver. Both the resources and the models are weakly referenced, as a
+ * model usually references its resource and would otherwise keep the key reachable:
+ * a model is therefore only returned as long as it is still referenced elsewhere.
+ * <p>
+ * Models adapted from any other adaptable are not cached.
+ */
+final class ModelCache {
+
+    static final String CACHE_KEY = ModelCache.class.getName();
+
+    /** The models adapted from resources, guarded by itself. */
+    private final Map<ResourceKey, Map<Class<?>, WeakReference<Object>>> resourceCache =
+            new HashMap<ResourceKey, Map<Class<?>, WeakReference<Object>>>();
+
+    /** The keys of garbage collected resources, guarded by {@link #resourceCache}. */
+    private final ReferenceQueue<Resource> collectedResources = new ReferenceQueue<Resource>();
+
+    /**
+     * Get a cached model
+     * @param adaptable The adaptable
+     * @param requestedType The requested model type
+     * @return The model or {@code null}
+     */
+    Object get(final Object adaptable, final Class<?> requestedType) {
+        if (adaptable instanceof ServletRequest) {
+            final ServletRequest request = (ServletRequest) adaptable;
+            final Map<Object, Map<Class<?>, RequestEntry>> requestCache = getRequestCache(request, false);
+            if (requestCache != null) {
+                synchronized (requestCache) {
+                    final Map<Class<?>, RequestEntry> models = requestCache.get(request);
+                    final RequestEntry entry = models == null ? null : models.get(requestedType);
+                    if (entry != null) {
+                        if (entry.isValid(request)) {
+                            return entry.model;
+                        }
+                        models.remove(requestedType);
+                    }
+                }
+            }
+        } else if (adaptable instanceof Resource) {
+            synchronized (resourceCache) {
+                expungeCollectedResources();
+                final Map<Class<?>, WeakReference<Object>> models = resourceCache.get(new ResourceKey((Resource) adaptable, null));
+                final WeakReference<Object> modelRef = models == null ? null : models.get(requestedType);
+                if (modelRef != null) {
+                    final Object model = modelRef.get();
+                    if (model != null) {
+                        return model;
+                    }
+                    models.remove(requestedType);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cache a model
+     * @param adaptable The adaptable
+     * @param requestedType The requested model type
+     * @param modelClass The implementation of the requested type
+     * @param model The model
+     */
+    void put(final Object adaptable, final Class<?> requestedType, final ModelClass<?> modelClass, final Object model) {
+        if (adaptable instanceof ServletRequest) {
+            final ServletRequest request = (ServletRequest) adaptable;
+            final Map<Object, Map<Class<?>, RequestEntry>> requestCache = getRequestCache(request, true);
+            synchronized (requestCache) {
+                Map<Class<?>, RequestEntry> models = requestCache.get(request);
+                if (models == null) {
+                    models = new HashMap<Class<?>, RequestEntry>();
+                    requestCache.put(request, models);
+                }
+                models.put(requestedType, new RequestEntry(model, request, modelClass.getInjectionNames()));
+            }
+        } else if (adaptable instanceof Resource) {
+            synchronized (resourceCache) {
+                expungeCollectedResources();
+                final ResourceKey key = new ResourceKey((Resource) adaptable, collectedResources);
+                Map<Class<?>, WeakReference<Object>> models = resourceCache.get(key);
+                if (models == null) {
+                    models = new HashMap<Class<?>, WeakReference<Object>>();
+                    resourceCache.put(key, models);
+                }
+                models.put(requestedType, new WeakReference<Object>(model));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Map<Class<?>, RequestEntry>> getRequestCache(final ServletRequest request, final boolean create) {
+        Map<Object, Map<Class<?>, RequestEntry>> requestCache = (Map<Object, Map<Class<?>, RequestEntry>>) request.getAttribute(CACHE_KEY);
+        if (requestCache == null && create) {
+            requestCache = new IdentityHashMap<Object, Map<Class<?>, RequestEntry>>();
+            request.setAttribute(CACHE_KEY, requestCache);
+        }
+        return requestCache;
+    }
+
+    /**
+     * Remove the entries of garbage collected resources, must be called
+     * while holding the lock of {@link #resourceCache}.
+     */
+    private void expungeCollectedResources() {
+        Reference<? extends Resource> ref;
+        while ((ref = collectedResources.poll()) != null) {
+            resourceCache.remove(ref);
+        }
+    }
+
+    /**
+     * Weak reference to a resource which is compared by the identity of the resource.
+     */
+    private static final class ResourceKey extends WeakReference<Resource> {
+
+        private final int hashCode;
+
+        ResourceKey(final Resource resource, final ReferenceQueue<Resource> queue) {
+            super(resource, queue);
+            this.hashCode = System.identityHashCode(resource);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ResourceKey)) {
+                return false;
+            }
+            final Resource resource = get();
+            return resource != null && resource == ((ResourceKey) obj).get();
+        }
+    }
+
+    /**
+     * A model adapted from a request together with the state of the request
+     * at creation time.
+     */
+    private static final class RequestEntry {
+
+        final Object model;
+
+        private final Object resource;
+
+        private final String[] names;
+
+        private final Object[] values;
+
+        RequestEntry(final Object model, final ServletRequest request, final String[] injectionNames) {
+            this.model = model;
+            this.resource = getResource(request);
+            this.names = new String[injectionNames.length + 1];
+            this.names[0] = SlingBindings.class.getName();
+            System.arraycopy(injectionNames, 0, this.names, 1, injectionNames.length);
+            this.values = new Object[this.names.length];
+            for (int i = 0; i < this.names.length; i++) {
+                this.values[i] = request.getAttribute(this.names[i]);
+            }
+        }
+
+        boolean isValid(final ServletRequest request) {
+            if (this.resource != getResource(request)) {
+                return false;
+            }
+            for (int i = 0; i < this.names.length; i++) {
+                if (request.getAttribute(this.names[i]) != this.values[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Object getResource(final ServletRequest request) {
+            if (request instanceof SlingHttpServletRequest) {
+                return ((SlingHttpServletRequest) request).getResource();
+            }
+            return null;
+        }
+    }
+}
@@ -20,10 +20,14 @@ package org.apache.sling.models.impl.model;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import javax.inject.Named;
 
 import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Optional;
@@ -32,6 +36,7 @@ import org.apache.sling.models.annotations.Source;
 import org.apache.sling.models.annotations.Via;
 import org.apache.sling.models.impl.ModelAdapterFactory;
 import org.apache.sling.models.impl.ReflectionUtil;
+import org.apache.sling.models.spi.Injector;
 import org.apache.sling.models.spi.injectorspecific.InjectAnnotationProcessor;
 import org.apache.sling.models.spi.injectorspecific.InjectAnnotationProcessor2;
 import org.apache.sling.models.spi.injectorspecific.StaticInjectAnnotationProcessorFactory;
@@ -52,13 +57,18 @@ abstract class AbstractInjectableElement implements InjectableElement {
     private final boolean isRequired;
     private final DefaultInjectionStrategy injectionStrategy;
     private final DefaultInjectionStrategy defaultInjectionStrategy;
+    private final TargetType targetType;
+    private final Object primitiveInitialValue;
+    private volatile InjectorBinding injectorBinding;
     
     private static final Logger log = LoggerFactory.getLogger(ModelAdapterFactory.class);
     
-    public AbstractInjectableElement(AnnotatedElement element, Type type, String defaultName,
+    public AbstractInjectableElement(AnnotatedElement element, Type type, Type declaredType, Type declaredGenericType, String defaultName,
             StaticInjectAnnotationProcessorFactory[] processorFactories, DefaultInjectionStrategy defaultInjectionStrategy) {
         this.element = element;
         this.type = type;
+        this.targetType = new TargetType(declaredType, declaredGenericType);
+        this.primitiveInitialValue = getPrimitiveInitialValue(type);
         InjectAnnotationProcessor2 annotationProcessor = getAnnotationProcessor(element, processorFactories);
         this.name = getName(element, defaultName, annotationProcessor);
         this.source = getSource(element);
@@ -197,6 +207,28 @@ abstract class AbstractInjectableElement implements InjectableElement {
         return value;
     }
 
+    private static Object getPrimitiveInitialValue(Type type) {
+        Type primitiveType = ReflectionUtil.mapWrapperClasses(type);
+        if (primitiveType == int.class) {
+            return 0;
+        } else if (primitiveType == long.class) {
+            return 0L;
+        } else if (primitiveType == boolean.class) {
+            return Boolean.FALSE;
+        } else if (primitiveType == double.class) {
+            return 0.0d;
+        } else if (primitiveType == float.class) {
+            return 0.0f;
+        } else if (primitiveType == short.class) {
+            return (short) 0;
+        } else if (primitiveType == byte.class) {
+            return (byte) 0;
+        } else if (primitiveType == char.class) {
+            return '\u0000';
+        }
+        return null;
+    }
+
     private static boolean getOptional(AnnotatedElement element, InjectAnnotationProcessor annotationProcessor) {
         if (annotationProcessor != null) {
             Boolean optional = annotationProcessor.isOptional();
@@ -264,6 +296,27 @@ abstract class AbstractInjectableElement implements InjectableElement {
         return this.defaultValue;
     }
 
+    @Override
+    public TargetType getTargetType() {
+        return this.targetType;
+    }
+
+    @Override
+    public Object getPrimitiveInitialValue() {
+        return this.primitiveInitialValue;
+    }
+
+    @Override
+    public Injector[] getInjectors(Collection<Injector> injectors) {
+        InjectorBinding binding = this.injectorBinding;
+        if (binding == null || binding.injectors != injectors) {
+            // the collection is replaced whenever an injector is bound or unbound
+            binding = new InjectorBinding(injectors, this.source);
+            this.injectorBinding = binding;
+        }
+        return binding.boundInjectors;
+    }
+
     @Override
     public boolean isOptional(InjectAnnotationProcessor annotationProcessor) {
         DefaultInjectionStrategy injectionStrategy = this.injectionStrategy;
@@ -283,4 +336,25 @@ abstract class AbstractInjectableElement implements InjectableElement {
         }
     }
 
+    /**
+     * The injectors used for an element, in ranking order. If the element has a source,
+     * only the injectors with this name are used.
+     */
+    private static final class InjectorBinding {
+
+        private final Collection<Injector> injectors;
+        private final Injector[] boundInjectors;
+
+        InjectorBinding(Collection<Injector> injectors, String source) {
+            this.injectors = injectors;
+            List<Injector> boundInjectors = new ArrayList<Injector>(injectors.size());
+            for (Injector injector : injectors) {
+                if (StringUtils.isEmpty(source) || source.equals(injector.getName())) {
+                    boundInjectors.add(injector);
+                }
+            }
+            this.boundInjectors = boundInjectors.toArray(new Injector[boundInjectors.size()]);
+        }
+    }
+
 }
@@ -40,7 +40,7 @@ public class ConstructorParameter extends AbstractInjectableElement {
 
     public ConstructorParameter(Annotation[] annotations, Type parameterType, Type genericType, boolean isPrimitive,
             int parameterIndex, StaticInjectAnnotationProcessorFactory[] processorFactories, DefaultInjectionStrategy defaultInjectionStrategy) {
-        super(new FakeAnnotatedElement(annotations, parameterIndex), genericType, null, processorFactories, defaultInjectionStrategy);
+        super(new FakeAnnotatedElement(annotations, parameterIndex), genericType, parameterType, genericType, null, processorFactories, defaultInjectionStrategy);
         this.parameterType = parameterType;
         this.genericType = genericType;
         this.isPrimitive = isPrimitive;
@@ -20,7 +20,9 @@ package org.apache.sling.models.impl.model;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Type;
+import java.util.Collection;
 
+import org.apache.sling.models.spi.Injector;
 import org.apache.sling.models.spi.injectorspecific.InjectAnnotationProcessor;
 
 @SuppressWarnings("deprecation")
@@ -66,6 +68,22 @@ public interface InjectableElement {
      */
     Object getDefaultValue();
     
+    /**
+     * @return Type to convert injected values to
+     */
+    TargetType getTargetType();
+
+    /**
+     * @return Initial value of a primitive type or null
+     */
+    Object getPrimitiveInitialValue();
+
+    /**
+     * @param injectors All injectors in ranking order, the collection must be replaced whenever the injectors change
+     * @return The injectors for this element, bound once per collection of injectors
+     */
+    Injector[] getInjectors(Collection<Injector> injectors);
+
     /**
      * @return {@code true} if the element is optional otherwise {@code false}
      */
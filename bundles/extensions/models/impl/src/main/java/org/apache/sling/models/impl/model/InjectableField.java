@@ -29,14 +29,28 @@ public class InjectableField extends AbstractInjectableElement {
     private final Field field;
     
     public InjectableField(Field field, StaticInjectAnnotationProcessorFactory[] processorFactories, DefaultInjectionStrategy defaultInjectionStrategy) {
-        super(field, ReflectionUtil.mapPrimitiveClasses(field.getGenericType()), field.getName(), processorFactories, defaultInjectionStrategy);
+        super(field, ReflectionUtil.mapPrimitiveClasses(field.getGenericType()), field.getType(), field.getGenericType(), field.getName(), processorFactories, defaultInjectionStrategy);
         this.field = field;
+        // make the field accessible once instead of on every injection
+        if (!field.isAccessible()) {
+            field.setAccessible(true);
+        }
     }
     
     public Field getField() {
         return field;
     }
 
+    /**
+     * Sets the field value on the given model instance.
+     * @param object Model instance
+     * @param value Value
+     * @throws IllegalAccessException if the field is not accessible
+     */
+    public void set(Object object, Object value) throws IllegalAccessException {
+        field.set(object, value);
+    }
+
     public boolean isPrimitive() {
         return false;
     }
@@ -31,7 +31,7 @@ public class InjectableMethod extends AbstractInjectableElement {
     private final Type genericReturnType;
 
     public InjectableMethod(Method method, StaticInjectAnnotationProcessorFactory[] processorFactories, DefaultInjectionStrategy defaultInjectionStrategy) {
-        super(method, ReflectionUtil.mapPrimitiveClasses(method.getGenericReturnType()), getDefaultName(method), processorFactories, defaultInjectionStrategy);
+        super(method, ReflectionUtil.mapPrimitiveClasses(method.getGenericReturnType()), method.getReturnType(), method.getGenericReturnType(), getDefaultName(method), processorFactories, defaultInjectionStrategy);
         this.method = method;
         this.genericReturnType = method.getGenericReturnType();
     }
@@ -21,8 +21,14 @@ package org.apache.sling.models.impl.model;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
@@ -37,6 +43,8 @@ public class ModelClass<ModelType> {
     private volatile ModelClassConstructor[] constructors;
     private volatile InjectableField[] injectableFields;
     private volatile InjectableMethod[] injectableMethods;
+    private volatile String[] injectionNames;
+    private final Method[] postConstructMethods;
 
     public ModelClass(Class<ModelType> type, StaticInjectAnnotationProcessorFactory[] processorFactories) {
         this.type = type;
@@ -46,6 +54,7 @@ public class ModelClass<ModelType> {
         } else {
             defaultInjectionStrategy = modelAnnotation.defaultInjectionStrategy();
         }
+        this.postConstructMethods = getPostConstructMethods(type);
         updateProcessorFactories(processorFactories);
     }
     
@@ -57,6 +66,29 @@ public class ModelClass<ModelType> {
         this.constructors = getConstructors(type, processorFactories, defaultInjectionStrategy);
         this.injectableFields = getInjectableFields(type, processorFactories, defaultInjectionStrategy);
         this.injectableMethods = getInjectableMethods(type, processorFactories, defaultInjectionStrategy);
+        this.injectionNames = getInjectionNames(constructors, injectableFields, injectableMethods);
+    }
+
+    private static String[] getInjectionNames(ModelClassConstructor[] constructors, InjectableField[] injectableFields, InjectableMethod[] injectableMethods) {
+        Set<String> names = new LinkedHashSet<String>();
+        for (ModelClassConstructor constructor : constructors) {
+            for (ConstructorParameter parameter : constructor.getConstructorParameters()) {
+                addName(names, parameter);
+            }
+        }
+        for (InjectableField field : injectableFields) {
+            addName(names, field);
+        }
+        for (InjectableMethod method : injectableMethods) {
+            addName(names, method);
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    private static void addName(Set<String> names, InjectableElement element) {
+        if (element.getName() != null) {
+            names.add(element.getName());
+        }
     }
     
     @SuppressWarnings("unchecked")
@@ -100,6 +132,46 @@ public class ModelClass<ModelType> {
         return array;
     }
 
+    /**
+     * Collects the post-construct methods once, super class methods first. The methods are made accessible
+     * here so that they can be invoked for each created model without further reflection lookups.
+     */
+    private static Method[] getPostConstructMethods(Class<?> type) {
+        if (type.isInterface()) {
+            return new Method[0];
+        }
+        List<Method> postConstructMethods = new ArrayList<Method>();
+        Class<?> clazz = type;
+        while (clazz != null) {
+            Method[] methods = clazz.getDeclaredMethods();
+            for (Method method : methods) {
+                if (method.isAnnotationPresent(PostConstruct.class)) {
+                    addMethodIfNotOverriden(postConstructMethods, method);
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        Collections.reverse(postConstructMethods);
+        for (Method method : postConstructMethods) {
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+        }
+        return postConstructMethods.toArray(new Method[postConstructMethods.size()]);
+    }
+
+    private static boolean addMethodIfNotOverriden(List<Method> methods, Method newMethod) {
+        for (Method method : methods) {
+            if (method.getName().equals(newMethod.getName())) {
+                if (Arrays.equals(method.getParameterTypes(),newMethod.getParameterTypes())) {
+                    return false;
+                }
+            }
+        }
+        methods.add(newMethod);
+        return true;
+    }
+
     public Class<ModelType> getType() {
         return this.type;
     }
@@ -124,4 +196,18 @@ public class ModelClass<ModelType> {
         return this.injectableMethods;
     }
 
+    /**
+     * @return Names of all injection points of the model, e.g. the request attributes it may read
+     */
+    public String[] getInjectionNames() {
+        return this.injectionNames;
+    }
+
+    /**
+     * @return Post-construct methods in invocation order, already accessible
+     */
+    public Method[] getPostConstructMethods() {
+        return this.postConstructMethods;
+    }
+
 }
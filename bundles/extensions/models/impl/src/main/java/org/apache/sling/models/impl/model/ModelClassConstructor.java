@@ -31,11 +31,13 @@ public class ModelClassConstructor<ModelType> {
 
     private final Constructor<ModelType> constructor;
     private final boolean hasInjectAnnotation;
+    private final Class<?>[] parameterTypes;
     private final ConstructorParameter[] constructorParametersArray;
 
     public ModelClassConstructor(Constructor<ModelType> constructor, StaticInjectAnnotationProcessorFactory[] processorFactories, DefaultInjectionStrategy defaultInjectionStrategy) {
         this.constructor = constructor;
         this.hasInjectAnnotation = constructor.isAnnotationPresent(Inject.class);
+        this.parameterTypes = constructor.getParameterTypes();
 
         Type[] parameterTypes = constructor.getGenericParameterTypes();
         this.constructorParametersArray = new ConstructorParameter[parameterTypes.length];
@@ -44,7 +46,7 @@ public class ModelClassConstructor<ModelType> {
             Type genericType = ReflectionUtil.mapPrimitiveClasses(parameterTypes[i]);
             boolean isPrimitive = (parameterTypes[i] != genericType);
             this.constructorParametersArray[i] = new ConstructorParameter(
-                    constructor.getParameterAnnotations()[i], constructor.getParameterTypes()[i], genericType, isPrimitive, i,
+                    constructor.getParameterAnnotations()[i], this.parameterTypes[i], genericType, isPrimitive, i,
                     processorFactories, defaultInjectionStrategy);
         }
     }
@@ -53,6 +55,13 @@ public class ModelClassConstructor<ModelType> {
         return constructor;
     }
     
+    /**
+     * @return Parameter types of the constructor. The returned array is shared and must not be modified.
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
     public boolean hasInjectAnnotation() {
         return hasInjectAnnotation;
     }
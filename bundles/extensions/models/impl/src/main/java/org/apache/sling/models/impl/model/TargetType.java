@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.models.impl.model;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.sling.models.impl.ReflectionUtil;
+
+/**
+ * The type an injected value has to be converted to. It is analyzed once per
+ * injectable element, so that injecting a value does not need to inspect the
+ * generic type information again.
+ */
+public final class TargetType {
+
+    private final Class<?> type;
+    private final Class<?> instanceType;
+    private final boolean parameterized;
+    private final Class<?> componentType;
+
+    /**
+     * @param type Declared type of the element, may be primitive
+     * @param genericType Generic type of the element
+     */
+    TargetType(Type type, Type genericType) {
+        this.type = type instanceof Class<?> ? (Class<?>) type : null;
+        this.instanceType = this.type == null ? null : (Class<?>) ReflectionUtil.mapPrimitiveClasses(this.type);
+        this.parameterized = genericType instanceof ParameterizedType;
+        Class<?> componentType = null;
+        if (this.parameterized && (this.type == Collection.class || this.type == List.class)) {
+            Type[] typeArguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (typeArguments.length == 1 && typeArguments[0] instanceof Class<?>) {
+                componentType = (Class<?>) typeArguments[0];
+            }
+        }
+        this.componentType = componentType;
+    }
+
+    /**
+     * @return Declared class of the element (may be primitive) or null if it is not a class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the generic type of the element is parameterized
+     */
+    public boolean isParameterized() {
+        return parameterized;
+    }
+
+    /**
+     * @return Component class if the element is a parameterized Collection or List, otherwise null
+     */
+    public Class<?> getComponentType() {
+        return componentType;
+    }
+
+    /**
+     * @param value Value to inject
+     * @return true if the value can be injected without conversion
+     */
+    public boolean isAcceptable(Object value) {
+        if (instanceType == null || !instanceType.isInstance(value)) {
+            return false;
+        }
+        if (componentType != null && value instanceof Collection) {
+            Iterator<?> it = ((Collection<?>) value).iterator();
+            // an empty collection can always be injected, otherwise check the first element as the
+            // actual component type is erased
+            return !it.hasNext() || componentType.isAssignableFrom(it.next().getClass());
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.models.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import javax.inject.Inject;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.Optional;
+import org.apache.sling.models.annotations.injectorspecific.Self;
+import org.apache.sling.models.impl.injectors.SelfInjector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingTest {
+
+    @Mock
+    private ComponentContext componentCtx;
+
+    @Mock
+    private BundleContext bundleContext;
+
+    @Mock
+    private SlingHttpServletRequest request;
+
+    @Mock
+    private Resource resource;
+
+    private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+    private ModelAdapterFactory factory;
+
+    @Before
+    public void setup() {
+        when(componentCtx.getBundleContext()).thenReturn(bundleContext);
+        when(componentCtx.getProperties()).thenReturn(new Hashtable<String, Object>());
+        // the metadata of the resources returned by a resource resolver is locked
+        ResourceMetadata metadata = new ResourceMetadata();
+        metadata.lock();
+        when(resource.getResourceMetadata()).thenReturn(metadata);
+
+        when(request.getAttribute(anyString())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return attributes.get(invocation.getArguments()[0]);
+            }
+        });
+        when(request.getAttributeNames()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return Collections.enumeration(attributes.keySet());
+            }
+        });
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(request).setAttribute(anyString(), any());
+
+        factory = new ModelAdapterFactory();
+        factory.activate(componentCtx);
+        factory.bindInjector(new SelfInjector(), new ServicePropertiesMap(1, 1));
+
+        factory.adapterImplementations.addClassesAsAdapterAndImplementation(CachedModel.class, UncachedModel.class, CachedSelfModel.class);
+    }
+
+    @Test
+    public void testCachedResourceModel() {
+        CachedModel model1 = factory.getAdapter(resource, CachedModel.class);
+        CachedModel model2 = factory.getAdapter(resource, CachedModel.class);
+        assertSame(model1, model2);
+
+        CachedModel model3 = factory.getAdapter(mock(Resource.class), CachedModel.class);
+        assertNotSame(model1, model3);
+    }
+
+    @Test
+    public void testCachedResourceModelWithLockedMetadata() {
+        assertTrue(resource.getResourceMetadata().isEmpty());
+        CachedModel model = factory.getAdapter(resource, CachedModel.class);
+        assertSame(model, factory.getAdapter(resource, CachedModel.class));
+
+        // the model is not stored in the metadata visible to the users of the resource
+        assertTrue(resource.getResourceMetadata().isEmpty());
+    }
+
+    @Test
+    public void testUncachedModel() {
+        UncachedModel model1 = factory.getAdapter(resource, UncachedModel.class);
+        UncachedModel model2 = factory.getAdapter(resource, UncachedModel.class);
+        assertNotSame(model1, model2);
+    }
+
+    @Test
+    public void testCachedModelDoesNotKeepResource() {
+        Resource resource = new SyntheticResource(null, "/content/a", "type");
+        CachedSelfModel model = factory.getAdapter(resource, CachedSelfModel.class);
+        assertSame(resource, model.resource);
+        assertSame(model, factory.getAdapter(resource, CachedSelfModel.class));
+
+        // the model references the resource, the cache must not keep both of them reachable
+        WeakReference<Resource> resourceRef = new WeakReference<Resource>(resource);
+        WeakReference<CachedSelfModel> modelRef = new WeakReference<CachedSelfModel>(model);
+        resource = null;
+        model = null;
+        for (int i = 0; i < 10 && (resourceRef.get() != null || modelRef.get() != null); i++) {
+            System.gc();
+        }
+        assertNull(resourceRef.get());
+        assertNull(modelRef.get());
+    }
+
+    @Test
+    public void testCachedRequestModel() {
+        attributes.put("attr", "value");
+        CachedModel model1 = factory.getAdapter(request, CachedModel.class);
+        CachedModel model2 = factory.getAdapter(request, CachedModel.class);
+        assertSame(model1, model2);
+
+        // a changed attribute invalidates the cached model
+        attributes.put("attr", "other");
+        CachedModel model3 = factory.getAdapter(request, CachedModel.class);
+        assertNotSame(model1, model3);
+        assertSame(model3, factory.getAdapter(request, CachedModel.class));
+
+        // a removed attribute invalidates the cached model
+        attributes.remove("attr");
+        assertNotSame(model3, factory.getAdapter(request, CachedModel.class));
+    }
+
+    @Test
+    public void testCachedRequestModelWithChangedUnrelatedAttribute() {
+        CachedModel model1 = factory.getAdapter(request, CachedModel.class);
+
+        // the model is not injected from this attribute
+        attributes.put("unrelated", "value");
+        assertSame(model1, factory.getAdapter(request, CachedModel.class));
+    }
+
+    @Test
+    public void testCachedRequestModelWithChangedResource() {
+        when(request.getResource()).thenReturn(resource);
+        CachedModel model1 = factory.getAdapter(request, CachedModel.class);
+        assertSame(model1, factory.getAdapter(request, CachedModel.class));
+
+        when(request.getResource()).thenReturn(mock(Resource.class));
+        assertNotSame(model1, factory.getAdapter(request, CachedModel.class));
+    }
+
+    @Model(adaptables = { Resource.class, SlingHttpServletRequest.class }, cache = true)
+    public static class CachedModel {
+        @Inject
+        @Optional
+        private String attr;
+    }
+
+    @Model(adaptables = Resource.class, cache = true)
+    public static class CachedSelfModel {
+        @Self
+        private Resource resource;
+    }
+
+    @Model(adaptables = Resource.class)
+    public static class UncachedModel {
+    }
+}
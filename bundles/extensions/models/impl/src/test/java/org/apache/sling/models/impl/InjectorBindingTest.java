@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.models.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.Source;
+import org.apache.sling.models.impl.model.InjectableField;
+import org.apache.sling.models.impl.model.ModelClass;
+import org.apache.sling.models.spi.DisposalCallbackRegistry;
+import org.apache.sling.models.spi.Injector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InjectorBindingTest {
+
+    @Mock
+    private ComponentContext componentCtx;
+
+    @Mock
+    private BundleContext bundleContext;
+
+    private ModelAdapterFactory factory;
+
+    private CountingInjector injector;
+
+    @Before
+    public void setup() {
+        when(componentCtx.getBundleContext()).thenReturn(bundleContext);
+        when(componentCtx.getProperties()).thenReturn(new Hashtable<String, Object>());
+
+        factory = new ModelAdapterFactory();
+        factory.activate(componentCtx);
+        injector = new CountingInjector("counting");
+        factory.bindInjector(injector, new ServicePropertiesMap(1, 1));
+        factory.adapterImplementations.addClassesAsAdapterAndImplementation(SourceModel.class);
+    }
+
+    @Test
+    public void testInjectorsAreBoundOncePerInjectionPoint() {
+        SourceModel model = factory.getAdapter(new Object(), SourceModel.class);
+        assertEquals("counting", model.value);
+        assertEquals(Arrays.asList("counting"), model.values);
+        int nameLookups = injector.nameLookups;
+        InjectableField field = getInjectableField("value");
+        Injector[] boundInjectors = field.getInjectors(factory.getInjectors());
+
+        // further adaptations reuse the binding
+        for (int i = 0; i < 3; i++) {
+            model = factory.getAdapter(new Object(), SourceModel.class);
+            assertEquals("counting", model.value);
+        }
+        assertEquals(nameLookups, injector.nameLookups);
+        assertSame(boundInjectors, field.getInjectors(factory.getInjectors()));
+        assertSame(getInjectableField("value").getTargetType(), field.getTargetType());
+
+        // a changed set of injectors is bound again, the other injector does not match the source
+        CountingInjector other = new CountingInjector("other");
+        factory.bindInjector(other, new ServicePropertiesMap(2, 2));
+        model = factory.getAdapter(new Object(), SourceModel.class);
+        assertEquals("counting", model.value);
+        assertTrue(injector.nameLookups > nameLookups);
+        assertEquals(0, other.valueLookups);
+        assertNotSame(boundInjectors, field.getInjectors(factory.getInjectors()));
+    }
+
+    private InjectableField getInjectableField(String name) {
+        ModelClass<SourceModel> modelClass = factory.adapterImplementations.lookup(SourceModel.class, new Object());
+        for (InjectableField field : modelClass.getInjectableFields()) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        throw new AssertionError("No injectable field " + name);
+    }
+
+    @Model(adaptables = Object.class)
+    public static class SourceModel {
+
+        @Inject
+        @Source("counting")
+        private String value;
+
+        @Inject
+        @Source("counting")
+        private List<String> values;
+
+    }
+
+    private static class CountingInjector implements Injector {
+
+        private final String name;
+
+        private int nameLookups;
+
+        private int valueLookups;
+
+        CountingInjector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            nameLookups++;
+            return name;
+        }
+
+        @Override
+        public Object getValue(Object adaptable, String name, Type declaredType, AnnotatedElement element,
+                DisposalCallbackRegistry callbackRegistry) {
+            valueLookups++;
+            if (declaredType == String.class) {
+                return this.name;
+            }
+            return Arrays.asList(this.name);
+        }
+    }
+
+}
@@ -36,9 +36,11 @@ import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.commons.metrics.MetricsService;
 import org.apache.sling.resourceresolver.impl.console.ResourceResolverWebConsolePlugin;
 import org.apache.sling.resourceresolver.impl.helper.ResourceDecoratorTracker;
 import org.apache.sling.resourceresolver.impl.helper.ResourceResolverControl;
+import org.apache.sling.resourceresolver.impl.helper.ResourceTypeCache;
 import org.apache.sling.resourceresolver.impl.mapping.MapConfigurationProvider;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntries;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntriesHandler;
@@ -63,6 +65,9 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
     /** Helper for the resource resolver. */
     private MapEntriesHandler mapEntries = MapEntriesHandler.EMPTY;
 
+    /** Cache of the resource type hierarchies, shared by all resolvers. */
+    private volatile ResourceTypeCache resourceTypeCache;
+
     /** The web console plugin. */
     private ResourceResolverWebConsolePlugin plugin;
 
@@ -291,6 +296,9 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
         } catch (final Exception e) {
             logger.error("activate: Cannot access repository, failed setting up Mapping Support", e);
         }
+        final ResourceTypeCache typeCache = new ResourceTypeCache(getSearchPath());
+        typeCache.register(bundleContext);
+        this.resourceTypeCache = typeCache;
     }
 
     /**
@@ -311,6 +319,10 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
             ((MapEntries)mapEntries).dispose();
             mapEntries = MapEntries.EMPTY;
         }
+        if (resourceTypeCache != null) {
+            resourceTypeCache.dispose();
+            resourceTypeCache = null;
+        }
         resolverStackHolder = null;
 
         // copy and clear map before closing the remaining references
@@ -329,6 +341,14 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
         return this.activator.getSearchPath();
     }
 
+    /**
+     * The cache of the resource type hierarchies
+     * @return The cache or {@code null} if this factory is not active
+     */
+    public ResourceTypeCache getResourceTypeCache() {
+        return this.resourceTypeCache;
+    }
+
     public boolean isMangleNamespacePrefixes() {
         return this.activator.isMangleNamespacePrefixes();
     }
@@ -392,6 +412,25 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
         return this.activator.getVanityBloomFilterMaxBytes();
     }
 
+    @Override
+    public boolean isVanityPathSnapshotEnabled() {
+        return this.activator.isVanityPathSnapshotEnabled();
+    }
+
+    @Override
+    public int getMapCacheSize() {
+        return this.activator.getMapCacheSize();
+    }
+
+    public int getResourceCacheSize() {
+        return this.activator.getResourceCacheSize();
+    }
+
+    @Override
+    public MetricsService getMetricsService() {
+        return this.activator.getMetricsService();
+    }
+
     @Override
     public boolean isOptimizeAliasResolutionEnabled() {
         return this.activator.isOptimizeAliasResolutionEnabled();
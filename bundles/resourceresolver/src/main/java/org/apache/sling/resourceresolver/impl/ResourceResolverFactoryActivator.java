@@ -34,6 +34,7 @@ import org.apache.sling.api.resource.ResourceDecorator;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.path.Path;
 import org.apache.sling.api.resource.runtime.RuntimeService;
+import org.apache.sling.commons.metrics.MetricsService;
 import org.apache.sling.resourceresolver.impl.helper.ResourceDecoratorTracker;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntries;
 import org.apache.sling.resourceresolver.impl.mapping.Mapping;
@@ -113,6 +114,10 @@ public class ResourceResolverFactoryActivator {
     @Reference
     ResourceAccessSecurityTracker resourceAccessSecurityTracker;
 
+    /** Metrics service */
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    volatile MetricsService metricsService;
+
     volatile ResourceProviderTracker resourceProviderTracker;
 
     volatile ResourceChangeListenerWhiteboard changeListenerWhiteboard;
@@ -151,6 +156,11 @@ public class ResourceResolverFactoryActivator {
         return this.eventAdmin;
     }
 
+    public MetricsService getMetricsService() {
+        final MetricsService local = this.metricsService;
+        return local != null ? local : MetricsService.NOOP;
+    }
+
     /**
      * This method is called from {@link MapEntries}
      */
@@ -219,6 +229,18 @@ public class ResourceResolverFactoryActivator {
         return this.config.resource_resolver_vanitypath_bloomfilter_maxBytes();
     }
 
+    public boolean isVanityPathSnapshotEnabled() {
+        return this.config.resource_resolver_vanitypath_snapshot();
+    }
+
+    public int getMapCacheSize() {
+        return this.config.resource_resolver_map_cache_size();
+    }
+
+    public int getResourceCacheSize() {
+        return this.config.resource_resolver_resource_cache_size();
+    }
+
     public boolean shouldLogResourceResolverClosing() {
         return this.config.resource_resolver_log_closing();
     }
@@ -347,7 +369,7 @@ public class ResourceResolverFactoryActivator {
             this.changeListenerWhiteboard = new ResourceChangeListenerWhiteboard();
             this.preconds.activate(this.bundleContext, requiredResourceProvidersLegacy, requiredResourceProviderNames, resourceProviderTracker);
             this.changeListenerWhiteboard.activate(this.bundleContext,
-                this.resourceProviderTracker, searchPath);
+                this.resourceProviderTracker, searchPath, this.getMetricsService());
             this.resourceProviderTracker.activate(this.bundleContext,
                     this.eventAdmin,
                     new ChangeListener() {
@@ -140,6 +140,30 @@ public @interface ResourceResolverFactoryConfig {
                       "Changing this value is subject to vanity bloom filter rebuild")
     int resource_resolver_vanitypath_bloomfilter_maxBytes() default 1024000;
 
+    @AttributeDefinition(name = "Persist vanity path snapshot",
+        description = "If enabled, the cached vanity paths are stored in a snapshot file next to the " +
+                      "vanity bloom filter. On startup the snapshot is loaded and the vanity paths are " +
+                      "refreshed from the repository in the background. The snapshot is only used if the " +
+                      "number of cached vanity path entries is not limited. Default is false")
+    boolean resource_resolver_vanitypath_snapshot() default false;
+
+    @AttributeDefinition(name = "Mapping Cache Size",
+        description = "The maximum number of results of ResourceResolver.map() which are cached. The cache is " +
+                      "shared by all resource resolvers and entries are invalidated on resource changes " +
+                      "within the observed paths. A value of 0 disables the cache. Default is 0")
+    int resource_resolver_map_cache_size() default 0;
+
+    @AttributeDefinition(name = "Resource Cache Size",
+        description = "The maximum number of resources, including not existing ones, which a resource " +
+                      "resolver caches by path for ResourceResolver.getResource(). The cache is only used by " +
+                      "resource resolvers which enable it with the authentication info " +
+                      "sling.resourceresolver.resourceCache=true, like the resolvers of requests. " +
+                      "Long lived resolvers should not enable it as the cached resources become stale. The cache of a resource " +
+                      "resolver is cleared by create, delete, copy, move, commit, revert and refresh through " +
+                      "this resource resolver. Changes done in another way, for example through the JCR session " +
+                      "of the resource resolver, are not seen. A value of 0 disables the cache. Default is 0")
+    int resource_resolver_resource_cache_size() default 0;
+
     @AttributeDefinition(name = "Optimize alias resolution",
         description ="This flag controls whether to optimize" +
                      " the alias resolution by creating an internal cache of aliases. This might have an impact on the startup time"+
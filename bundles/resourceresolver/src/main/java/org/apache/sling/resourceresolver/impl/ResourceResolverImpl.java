@@ -23,11 +23,9 @@ import static org.apache.commons.lang.StringUtils.defaultString;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
-import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,14 +50,17 @@ import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.api.resource.ResourceWrapper;
 import org.apache.sling.resourceresolver.impl.helper.RedirectResource;
+import org.apache.sling.resourceresolver.impl.helper.ResourceCache;
 import org.apache.sling.resourceresolver.impl.helper.ResourceIteratorDecorator;
 import org.apache.sling.resourceresolver.impl.helper.ResourcePathIterator;
 import org.apache.sling.resourceresolver.impl.helper.ResourceResolverContext;
 import org.apache.sling.resourceresolver.impl.helper.ResourceResolverControl;
+import org.apache.sling.resourceresolver.impl.helper.ResourceTypeCache;
 import org.apache.sling.resourceresolver.impl.helper.StarResource;
 import org.apache.sling.resourceresolver.impl.helper.URI;
 import org.apache.sling.resourceresolver.impl.helper.URIException;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntry;
+import org.apache.sling.resourceresolver.impl.mapping.MappingCache;
 import org.apache.sling.resourceresolver.impl.params.ParsedParameters;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderStorageProvider;
 import org.slf4j.Logger;
@@ -104,6 +105,9 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
     /** Resource resolver context. */
     private final ResourceResolverContext context;
 
+    /** Cache of the resources read by path, {@code null} if disabled. */
+    private final ResourceCache resourceCache;
+
     private volatile Exception closedResolverException;
 
     public ResourceResolverImpl(final CommonResourceResolverFactoryImpl factory, final boolean isAdmin, final Map<String, Object> authenticationInfo) throws LoginException {
@@ -113,7 +117,15 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
     ResourceResolverImpl(final CommonResourceResolverFactoryImpl factory, final boolean isAdmin, final Map<String, Object> authenticationInfo, final ResourceProviderStorageProvider resourceProviderTracker) throws LoginException {
         this.factory = factory;
         this.context = new ResourceResolverContext(this, factory.getResourceAccessSecurityTracker());
-        this.control = createControl(resourceProviderTracker, authenticationInfo, isAdmin);
+        final boolean cacheResources = isResourceCacheEnabled(authenticationInfo);
+        Map<String, Object> authInfo = authenticationInfo;
+        if (authInfo != null && authInfo.containsKey(ResourceResolverFactory.RESOURCE_CACHE)) {
+            // not passed on to the resource providers
+            authInfo = new HashMap<String, Object>(authInfo);
+            authInfo.remove(ResourceResolverFactory.RESOURCE_CACHE);
+        }
+        this.control = createControl(resourceProviderTracker, authInfo, isAdmin);
+        this.resourceCache = createResourceCache(factory, cacheResources);
         this.factory.register(this, control);
     }
 
@@ -129,14 +141,44 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
         if (resolver.control.getAuthenticationInfo() != null) {
             authInfo.putAll(resolver.control.getAuthenticationInfo());
         }
+        if (resolver.resourceCache != null) {
+            authInfo.put(ResourceResolverFactory.RESOURCE_CACHE, Boolean.TRUE);
+        }
         if (authenticationInfo != null) {
             authInfo.putAll(authenticationInfo);
         }
+        final boolean cacheResources = isResourceCacheEnabled(authInfo);
+        authInfo.remove(ResourceResolverFactory.RESOURCE_CACHE);
         this.context = new ResourceResolverContext(this, factory.getResourceAccessSecurityTracker());
         this.control = createControl(factory.getResourceProviderTracker(), authInfo, resolver.control.isAdmin());
+        this.resourceCache = createResourceCache(factory, cacheResources);
         this.factory.register(this, control);
     }
 
+    /**
+     * Whether the authentication info enables the resource cache
+     * @see ResourceResolverFactory#RESOURCE_CACHE
+     */
+    private static boolean isResourceCacheEnabled(final Map<String, Object> authenticationInfo) {
+        final Object enabled = authenticationInfo != null ? authenticationInfo.get(ResourceResolverFactory.RESOURCE_CACHE) : null;
+        return Boolean.TRUE.equals(enabled) || "true".equals(enabled);
+    }
+
+    private static ResourceCache createResourceCache(final CommonResourceResolverFactoryImpl factory,
+            final boolean enabled) {
+        final int size = factory.getResourceCacheSize();
+        return enabled && size > 0 ? new ResourceCache(size) : null;
+    }
+
+    /**
+     * Clear the resource cache, to be called for every change through this resolver.
+     */
+    private void clearResourceCache() {
+        if (this.resourceCache != null) {
+            this.resourceCache.clear();
+        }
+    }
+
     /**
      * Create the resource resolver control
      * @param storage The provider storage
@@ -429,6 +471,19 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
     public String map(final HttpServletRequest request, final String resourcePath) {
         checkClosed();
 
+        final MappingCache mappingCache = this.factory.getMapEntries().getMappingCache();
+        final MappingCache.Key cacheKey;
+        if (mappingCache != null) {
+            cacheKey = mappingCache.createKey(request, resourcePath, getUserID());
+            final String cached = mappingCache.get(cacheKey);
+            if (cached != null) {
+                logger.debug("map: Returning cached URL {} as mapping for path {}", cached, resourcePath);
+                return cached;
+            }
+        } else {
+            cacheKey = null;
+        }
+
         // find a fragment or query
         int fragmentQueryMark = resourcePath.indexOf('#');
         if (fragmentQueryMark < 0) {
@@ -617,6 +672,10 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
             mappedPath = mappedPath.concat(fragmentQuery);
         }
 
+        if (cacheKey != null) {
+            mappingCache.put(cacheKey, mappedPath);
+        }
+
         return mappedPath;
     }
 
@@ -685,10 +744,21 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
             if (path.startsWith("/")) {
                 ParsedParameters parsedPath = new ParsedParameters(path);
                 path = ResourceUtil.normalize(parsedPath.getRawPath());
+                // resources read with parameters are not cached, the parameters are part of their metadata
+                final boolean cacheable = this.resourceCache != null && path != null && parsedPath.getParameters().isEmpty();
+                if (cacheable) {
+                    final Resource cached = this.resourceCache.get(path);
+                    if (cached != null) {
+                        return cached == ResourceCache.NOT_FOUND ? null : cached;
+                    }
+                }
                 result = (path != null) ? getAbsoluteResourceInternal(parent, path, parsedPath.getParameters(), false) : null;
                 if (result != null) {
                     result = this.factory.getResourceDecoratorTracker().decorate(result);
                 }
+                if (cacheable) {
+                    this.resourceCache.put(path, result);
+                }
             } else {
 
                 // otherwise we have to apply the search path
@@ -1209,6 +1279,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
             return;
         }
         // if resource is null, we get an NPE as stated in the API
+        this.clearResourceCache();
         this.control.delete(this.context, resource);
     }
 
@@ -1241,6 +1312,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
                 throw new IllegalArgumentException("Can't create child on a synthetic root");
             }
         }
+        this.clearResourceCache();
         final Resource rsrc = this.control.create(this.context, path, properties);
         rsrc.getResourceMetadata().setResolutionPath(rsrc.getPath());
         return this.factory.getResourceDecoratorTracker().decorate(rsrc);
@@ -1251,6 +1323,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
      */
     @Override
     public void revert() {
+        this.clearResourceCache();
         this.control.revert(this.context);
     }
 
@@ -1259,6 +1332,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
      */
     @Override
     public void commit() throws PersistenceException {
+        this.clearResourceCache();
         this.control.commit(this.context);
     }
 
@@ -1298,7 +1372,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
      */
     @Override
     public String getParentResourceType(final String resourceType) {
-        return this.control.getParentResourceType(this.factory, this, resourceType);
+        return this.control.getParentResourceType(this.factory, this, this.factory.getResourceTypeCache(), resourceType);
     }
 
     /**
@@ -1311,18 +1385,21 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
              // Check if the resource is of the given type. This method first checks the
              // resource type of the resource, then its super resource type and continues
              //  to go up the resource super type hierarchy.
-             if (ResourceTypeUtil.areResourceTypesEqual(resourceType, resource.getResourceType(), getSearchPath())) {
+             final String[] searchPath = getSearchPath();
+             if (ResourceTypeUtil.areResourceTypesEqual(resourceType, resource.getResourceType(), searchPath)) {
                  result = true;
              } else {
-                 Set<String> superTypesChecked = new HashSet<String>();
-                 String superType = this.getParentResourceType(resource);
-                 while (!result && superType != null) {
-                     if (ResourceTypeUtil.areResourceTypesEqual(resourceType, superType, getSearchPath())) {
+                 final String superType = this.getParentResourceType(resource);
+                 if (superType != null) {
+                     if (ResourceTypeUtil.areResourceTypesEqual(resourceType, superType, searchPath)) {
                          result = true;
                      } else {
-                         superTypesChecked.add(superType);
-                         superType = this.getParentResourceType(superType);
-                         if (superType != null && superTypesChecked.contains(superType)) {
+                         final ResourceTypeCache.Hierarchy hierarchy = this.control.getResourceTypeHierarchy(this.factory, this,
+                                 this.factory.getResourceTypeCache(), superType);
+                         for (int i = 0; !result && i < hierarchy.size(); i++) {
+                             result = ResourceTypeUtil.areResourceTypesEqual(resourceType, hierarchy.get(i), searchPath);
+                         }
+                         if (!result && hierarchy.isCyclic()) {
                              throw new SlingException("Cyclic dependency for resourceSuperType hierarchy detected on resource " + resource.getPath(), null);
                          }
                      }
@@ -1338,6 +1415,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
      */
     @Override
     public void refresh() {
+        this.clearResourceCache();
         this.control.refresh(this.context);
     }
 
@@ -1350,11 +1428,18 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
             if ( !parentPath.startsWith("/") ) {
                 rsrc = context.getResourceResolver().getResource(parentPath);
             } else {
+                final Resource cached = this.resourceCache != null ? this.resourceCache.get(parentPath) : null;
+                if ( cached != null ) {
+                    return cached == ResourceCache.NOT_FOUND ? null : cached;
+                }
                 rsrc = this.control.getParent(this.context, parentPath, child);
                 if (rsrc != null ) {
                     rsrc.getResourceMetadata().setResolutionPath(rsrc.getPath());
                     rsrc = this.factory.getResourceDecoratorTracker().decorate(rsrc);
                 }
+                if ( this.resourceCache != null ) {
+                    this.resourceCache.put(parentPath, rsrc);
+                }
             }
         }
         return rsrc;
@@ -1362,6 +1447,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
 
     @Override
     public Resource copy(final String srcAbsPath, final String destAbsPath) throws PersistenceException {
+        this.clearResourceCache();
         Resource rsrc = this.control.copy(this.context, srcAbsPath, destAbsPath);
         if (rsrc != null ) {
             rsrc.getResourceMetadata().setResolutionPath(rsrc.getPath());
@@ -1372,6 +1458,7 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
 
     @Override
     public Resource move(final String srcAbsPath, final String destAbsPath) throws PersistenceException {
+        this.clearResourceCache();
         Resource rsrc = this.control.move(this.context, srcAbsPath, destAbsPath);
         if (rsrc != null ) {
             rsrc.getResourceMetadata().setResolutionPath(rsrc.getPath());
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.sling.api.resource.NonExistingResource;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Cache of the resources read by a single resource resolver, keyed by
+ * their absolute path. Resources which do not exist are cached as well.
+ * <p>
+ * The cache is a LRU map with a maximum size. It is owned by the resource
+ * resolver which clears it whenever content is changed through the resolver.
+ */
+public class ResourceCache {
+
+    /** Marker for a path without a resource, only compared by identity. */
+    public static final Resource NOT_FOUND = new NonExistingResource(null, "/");
+
+    private final Map<String, Resource> entries;
+
+    public ResourceCache(final int maxSize) {
+        this.entries = new LinkedHashMap<String, Resource>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Resource> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the cached resource
+     * @param path The absolute path
+     * @return The resource, {@link #NOT_FOUND} if it is cached that there is no resource
+     *         or {@code null} if nothing is cached for the path
+     */
+    @CheckForNull
+    public synchronized Resource get(@Nonnull final String path) {
+        return this.entries.get(path);
+    }
+
+    /**
+     * Cache the resource read for a path
+     * @param path The absolute path
+     * @param resource The resource or {@code null} if there is no resource
+     */
+    public synchronized void put(@Nonnull final String path, @CheckForNull final Resource resource) {
+        this.entries.put(path, resource == null ? NOT_FOUND : resource);
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+}
@@ -712,12 +712,17 @@ public class ResourceResolverControl {
     /**
      * Get the parent resource type
      *
+     * @param cache The resource type cache, might be {@code null}
      * @see org.apache.sling.api.resource.ResourceResolver#getParentResourceType(java.lang.String)
      */
     public String getParentResourceType(
             final ResourceResolverFactory factory,
             final ResourceResolver resolver,
+            final ResourceTypeCache cache,
             final String resourceType) {
+        if ( cache != null && resourceType != null ) {
+            return this.getResourceTypeHierarchy(factory, resolver, cache, resourceType).getSuperType();
+        }
         // normalize resource type to a path string
         final String rtPath = (resourceType == null ? null : ResourceUtil.resourceTypeToPath(resourceType));
         // get the resource type resource and check its super type
@@ -735,6 +740,59 @@ public class ResourceResolverControl {
         return resourceSuperType;
     }
 
+    /**
+     * Get the super type hierarchy of a resource type, either from the cache
+     * or by following the super types. A hierarchy read without a cache or
+     * involving resource types outside of the search paths is not cached.
+     *
+     * @param cache The resource type cache, might be {@code null}
+     * @param resourceType The resource type
+     * @return The hierarchy
+     */
+    public @Nonnull ResourceTypeCache.Hierarchy getResourceTypeHierarchy(
+            final ResourceResolverFactory factory,
+            final ResourceResolver resolver,
+            final ResourceTypeCache cache,
+            final @Nonnull String resourceType) {
+        final String rtPath = ResourceUtil.resourceTypeToPath(resourceType);
+        if ( cache != null ) {
+            final ResourceTypeCache.Hierarchy cached = cache.get(rtPath);
+            if ( cached != null ) {
+                return cached;
+            }
+        }
+        final long generation = (cache == null ? 0 : cache.getGeneration());
+        final List<String> superTypes = new ArrayList<String>();
+        final Set<String> superTypesChecked = new HashSet<String>();
+        superTypesChecked.add(resourceType);
+        boolean cacheable = cache != null;
+        boolean cyclic = false;
+
+        final ResourceResolver adminResolver = this.getResourceTypeResourceResolver(factory, resolver);
+        String currentPath = rtPath;
+        while ( adminResolver != null ) {
+            final Resource rtResource = adminResolver.getResource(currentPath);
+            if ( cacheable && !cache.isCacheable(currentPath, rtResource) ) {
+                cacheable = false;
+            }
+            final String superType = (rtResource == null ? null : rtResource.getResourceSuperType());
+            if ( superType == null ) {
+                break;
+            }
+            if ( !superTypesChecked.add(superType) ) {
+                cyclic = true;
+                break;
+            }
+            superTypes.add(superType);
+            currentPath = ResourceUtil.resourceTypeToPath(superType);
+        }
+        final ResourceTypeCache.Hierarchy hierarchy = new ResourceTypeCache.Hierarchy(generation, superTypes, cyclic);
+        if ( cacheable ) {
+            cache.put(rtPath, hierarchy);
+        }
+        return hierarchy;
+    }
+
     /**
      * Returns {@link #getProperty(Resource, String, Class) getProperty(res,
      * propName, String.class)}
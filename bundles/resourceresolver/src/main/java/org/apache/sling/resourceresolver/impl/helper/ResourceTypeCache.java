@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.helper;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Factory wide cache of the resource super type hierarchy of resource types.
+ * <p>
+ * The super types are always read through an administrative resource resolver,
+ * therefore the hierarchy of a resource type does not depend on the resolver asking
+ * for it and can be shared by all resolvers. Only resource types whose resources are
+ * located in the search paths (or which do not exist at all) are cached, and all
+ * entries are invalidated as soon as anything in the search paths changes.
+ */
+public class ResourceTypeCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    /** Maximum number of cached resource types, the cache is cleared once it is reached. */
+    static final int MAX_ENTRIES = 10000;
+
+    private static final String[] NO_SUPER_TYPES = new String[0];
+
+    private final String[] searchPath;
+
+    private final ConcurrentMap<String, Hierarchy> entries = new ConcurrentHashMap<String, Hierarchy>();
+
+    /** Incremented on every change, entries of an older generation are stale. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile ServiceRegistration<ResourceChangeListener> registration;
+
+    public ResourceTypeCache(@Nonnull final String[] searchPath) {
+        this.searchPath = searchPath;
+    }
+
+    /**
+     * Register the cache for changes in the search paths.
+     * @param bundleContext The bundle context
+     */
+    public void register(@Nonnull final BundleContext bundleContext) {
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(ResourceChangeListener.PATHS, ".");
+        props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling Resource Type Cache Observation");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        this.registration = bundleContext.registerService(ResourceChangeListener.class, this, props);
+    }
+
+    /**
+     * Unregister and clear the cache.
+     */
+    public void dispose() {
+        if (this.registration != null) {
+            this.registration.unregister();
+            this.registration = null;
+        }
+        this.generation.incrementAndGet();
+        this.entries.clear();
+    }
+
+    /**
+     * The current generation of the cache. It has to be obtained before
+     * reading the resources for a new entry.
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Get the cached hierarchy
+     * @param resourceTypePath The resource type converted to a path
+     * @return The hierarchy or {@code null} if it is not cached
+     */
+    @CheckForNull
+    public Hierarchy get(@Nonnull final String resourceTypePath) {
+        final Hierarchy hierarchy = this.entries.get(resourceTypePath);
+        if (hierarchy != null && hierarchy.generation == this.generation.get()) {
+            return hierarchy;
+        }
+        return null;
+    }
+
+    /**
+     * Cache a hierarchy.
+     * @param resourceTypePath The resource type converted to a path
+     * @param hierarchy The hierarchy, created with the generation obtained before
+     *                  reading the resources
+     */
+    public void put(@Nonnull final String resourceTypePath, @Nonnull final Hierarchy hierarchy) {
+        if (hierarchy.generation != this.generation.get()) {
+            return;
+        }
+        if (this.entries.size() >= MAX_ENTRIES) {
+            this.entries.clear();
+        }
+        this.entries.put(resourceTypePath, hierarchy);
+    }
+
+    /**
+     * Whether the super type read for a resource type may be cached.
+     * @param resourceTypePath The resource type converted to a path
+     * @param resourceTypeResource The resource read for this path, might be {@code null}
+     * @return {@code true} if changes of the resource type are observed by this cache
+     */
+    public boolean isCacheable(@Nonnull final String resourceTypePath, @CheckForNull final Resource resourceTypeResource) {
+        if (resourceTypeResource != null) {
+            return isInSearchPath(resourceTypeResource.getPath());
+        }
+        return !resourceTypePath.startsWith("/") || isInSearchPath(resourceTypePath);
+    }
+
+    private boolean isInSearchPath(final String path) {
+        if (this.searchPath != null) {
+            for (final String prefix : this.searchPath) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onChange(@Nonnull final List<ResourceChange> changes) {
+        // any change might add, remove or shadow a resource type
+        this.generation.incrementAndGet();
+        this.entries.clear();
+    }
+
+    /**
+     * The immutable super type hierarchy of a resource type.
+     */
+    public static final class Hierarchy {
+
+        private final long generation;
+
+        private final String[] superTypes;
+
+        private final boolean cyclic;
+
+        /**
+         * @param generation The generation of the cache obtained before reading the resources
+         * @param superTypes The super types, starting with the direct super type
+         * @param cyclic Whether the super types contain a cycle. The super types
+         *               then end before the first super type seen twice
+         */
+        public Hierarchy(final long generation, final List<String> superTypes, final boolean cyclic) {
+            this.generation = generation;
+            this.superTypes = superTypes.isEmpty() ? NO_SUPER_TYPES : superTypes.toArray(new String[superTypes.size()]);
+            this.cyclic = cyclic;
+        }
+
+        /**
+         * @return The direct super type or {@code null}
+         */
+        @CheckForNull
+        public String getSuperType() {
+            return this.superTypes.length == 0 ? null : this.superTypes[0];
+        }
+
+        /**
+         * The number of super types.
+         */
+        public int size() {
+            return this.superTypes.length;
+        }
+
+        /**
+         * The super type at the given level, {@code 0} is the direct super type.
+         */
+        @Nonnull
+        public String get(final int index) {
+            return this.superTypes[index];
+        }
+
+        /**
+         * @return {@code true} if the hierarchy contains a cycle
+         */
+        public boolean isCyclic() {
+            return this.cyclic;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.commons.metrics.MetricsService;
 
 /**
  * Internal interface representing the additional methods
@@ -51,6 +52,12 @@ public interface MapConfigurationProvider extends ResourceResolverFactory {
 
     int getVanityBloomFilterMaxBytes();
 
+    boolean isVanityPathSnapshotEnabled();
+
+    int getMapCacheSize();
+
+    MetricsService getMetricsService();
+
     boolean isOptimizeAliasResolutionEnabled();
 
     boolean hasVanityPathPrecedence();
@@ -18,7 +18,10 @@
  */
 package org.apache.sling.resourceresolver.impl.mapping;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -31,6 +34,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -38,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -61,6 +66,7 @@ import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
 import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.commons.metrics.MetricsService;
 import org.apache.sling.resourceresolver.impl.ResourceResolverFactoryImpl;
 import org.apache.sling.resourceresolver.impl.ResourceResolverImpl;
 import org.apache.sling.resourceresolver.impl.mapping.MapConfigurationProvider.VanityPathConfig;
@@ -100,6 +106,10 @@ public class MapEntries implements
 
     private static final int VANITY_BLOOM_FILTER_MAX_ENTRIES = 10000000;
 
+    private static final String VANITY_SNAPSHOT_NAME = "vanitySnapshot.bin";
+
+    private static final int VANITY_SNAPSHOT_VERSION = 1;
+
     /** Key for the global list. */
     private static final String GLOBAL_LIST_KEY = "*";
 
@@ -124,6 +134,10 @@ public class MapEntries implements
 
     private Map<String, List<MapEntry>> resolveMapsMap;
 
+    private volatile MapEntryIndex globalResolveIndex = MapEntryIndex.EMPTY;
+
+    private final MappingCache mappingCache;
+
     private Collection<MapEntry> mapMaps;
 
     private Map <String,List <String>> vanityTargets;
@@ -136,12 +150,20 @@ public class MapEntries implements
 
     private final File vanityBloomFilterFile;
 
+    private final File vanitySnapshotFile;
+
     private byte[] vanityBloomFilter;
 
     private Timer timer;
 
     private boolean updateBloomFilterFile = false;
 
+    /**
+     * Content paths whose vanity paths changed while a refresh is running,
+     * {@code null} if no refresh is running. Guarded by the initializing lock.
+     */
+    private Set<String> vanityPathsChangedDuringRefresh;
+
     @SuppressWarnings({ "unchecked", "deprecation" })
     public MapEntries(final MapConfigurationProvider factory, final BundleContext bundleContext, final EventAdmin eventAdmin)
         throws LoginException, IOException {
@@ -157,6 +179,14 @@ public class MapEntries implements
         this.vanityTargets = Collections.<String,List <String>>emptyMap();
         this.aliasMap = Collections.<String, Map<String, String>>emptyMap();
 
+        if (factory.getMapCacheSize() > 0) {
+            final MetricsService metricsService = factory.getMetricsService();
+            this.mappingCache = new MappingCache(factory.getMapCacheSize(),
+                    metricsService != null ? metricsService : MetricsService.NOOP);
+        } else {
+            this.mappingCache = null;
+        }
+
         doInit();
 
         final Dictionary<String, Object> props = new Hashtable<String, Object>();
@@ -172,6 +202,7 @@ public class MapEntries implements
 
         this.vanityCounter = new AtomicLong(0);
         this.vanityBloomFilterFile = bundleContext.getDataFile(VANITY_BLOOM_FILTER_NAME);
+        this.vanitySnapshotFile = factory.isVanityPathSnapshotEnabled() ? bundleContext.getDataFile(VANITY_SNAPSHOT_NAME) : null;
         initializeVanityPaths();
     }
 
@@ -255,9 +286,19 @@ public class MapEntries implements
                 timer = new Timer();
                 timer.schedule(new BloomFilterTask(), 60 * 1000);
 
-                final Map<String, List<String>> vanityTargets = this
-                        .loadVanityPaths(createVanityBloomFilter);
-                this.vanityTargets = vanityTargets;
+                if (!createVanityBloomFilter && isVanitySnapshotUsable() && vanitySnapshotFile.exists()
+                        && loadVanitySnapshot()) {
+                    // serve the snapshot and refresh it from the repository in the background
+                    this.vanityPathsChangedDuringRefresh = new HashSet<String>();
+                    timer.schedule(new VanityPathRefreshTask(), 0);
+                } else {
+                    final Map<String, List<String>> vanityTargets = this
+                            .loadVanityPaths(createVanityBloomFilter);
+                    this.vanityTargets = vanityTargets;
+                    if (isVanitySnapshotUsable()) {
+                        persistVanitySnapshot();
+                    }
+                }
             }
         } finally {
             this.initializing.unlock();
@@ -415,11 +456,18 @@ public class MapEntries implements
         // sort global list and add to map
         Collections.sort(globalResolveMap);
         resolveMapsMap.put(GLOBAL_LIST_KEY, globalResolveMap);
+        this.globalResolveIndex = new MapEntryIndex(globalResolveMap);
         this.mapMaps = Collections.unmodifiableSet(new TreeSet<MapEntry>(newMapMaps.values()));
+        if (this.mappingCache != null) {
+            this.mappingCache.clear();
+        }
     }
 
     private boolean doAddVanity(final Resource resource, final ValueMap props) {
         log.debug("doAddVanity getting {}", resource.getPath());
+        if (this.vanityPathsChangedDuringRefresh != null) {
+            this.vanityPathsChangedDuringRefresh.add(getActualContentPath(resource.getPath()));
+        }
 
         boolean needsUpdate = false;
         if (isAllVanityPathEntriesCached() || vanityCounter.longValue() < this.factory.getMaxCachedVanityPathEntries()) {
@@ -438,6 +486,9 @@ public class MapEntries implements
 
     private boolean doRemoveVanity(final String path) {
         final String actualContentPath = getActualContentPath(path);
+        if (this.vanityPathsChangedDuringRefresh != null) {
+            this.vanityPathsChangedDuringRefresh.add(actualContentPath);
+        }
         final List <String> l = vanityTargets.remove(actualContentPath);
         if (l != null){
             for (final String s : l){
@@ -548,6 +599,8 @@ public class MapEntries implements
         try {
             if (!initLocked) {
                 log.warn("dispose: Could not acquire initialization lock within 10 seconds; ongoing intialization may fail");
+            } else if (isVanitySnapshotUsable() && this.resolver != null) {
+                persistVanitySnapshot();
             }
 
             // immediately set the resolver field to null to indicate
@@ -598,7 +651,8 @@ public class MapEntries implements
             key = requestPath.substring(secondIndex);
         }
 
-        return new MapEntryIterator(key, resolveMapsMap, this.factory.hasVanityPathPrecedence());
+        return new MapEntryIterator(key, resolveMapsMap,
+                this.globalResolveIndex.getCandidates(requestPath), this.factory.hasVanityPathPrecedence());
     }
 
     @Override
@@ -611,6 +665,11 @@ public class MapEntries implements
         return aliasMap.get(parentPath);
     }
 
+    @Override
+    public MappingCache getMappingCache() {
+        return this.mappingCache;
+    }
+
     /**
      * get the MapEnty containing all the nodes having a specific vanityPath
      */
@@ -687,6 +746,7 @@ public class MapEntries implements
 
         // the config needs to be reloaded only once
         final AtomicBoolean hasReloadedConfig = new AtomicBoolean(false);
+        boolean clearMappingCache = false;
         for(final ResourceChange rc : changes) {
 
             final String path = rc.getPath();
@@ -697,6 +757,10 @@ public class MapEntries implements
                 continue;
             }
 
+            // any change might affect the mapping of the resource or its descendants,
+            // the mapping cache is cleared once for the whole batch
+            clearMappingCache = true;
+
             boolean changed = false;
             // removal of a resource is handled differently
             if (rc.getType() == ResourceChange.ChangeType.REMOVED ) {
@@ -739,6 +803,9 @@ public class MapEntries implements
                 this.sendChangeEvent();
             }
         }
+        if ( clearMappingCache && this.mappingCache != null ) {
+            this.mappingCache.clear();
+        }
     }
 
     // ---------- internal
@@ -762,6 +829,221 @@ public class MapEntries implements
         }
     }
 
+    /**
+     * The snapshot can only be used if it is enabled and all
+     * vanity paths are cached.
+     */
+    private boolean isVanitySnapshotUsable() {
+        return this.vanitySnapshotFile != null && isAllVanityPathEntriesCached();
+    }
+
+    /**
+     * Load the vanity paths from the snapshot file
+     * @return {@code true} if the snapshot has been loaded
+     */
+    private boolean loadVanitySnapshot() {
+        final Map<String, List<MapEntry>> entryMap = new HashMap<String, List<MapEntry>>();
+        final Map<String, List<String>> targetPaths = new ConcurrentHashMap<String, List<String>>();
+        try {
+            final DataInputStream dis = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(vanitySnapshotFile)));
+            try {
+                if (dis.readInt() != VANITY_SNAPSHOT_VERSION) {
+                    log.info("Ignoring vanity path snapshot {} with unknown version", vanitySnapshotFile);
+                    return false;
+                }
+                final int keyCount = dis.readInt();
+                for (int i = 0; i < keyCount; i++) {
+                    final String key = dis.readUTF();
+                    final int entryCount = dis.readInt();
+                    final List<MapEntry> entries = new ArrayList<MapEntry>(entryCount);
+                    for (int j = 0; j < entryCount; j++) {
+                        final String pattern = dis.readUTF();
+                        final int status = dis.readInt();
+                        final long order = dis.readLong();
+                        final String[] redirect = new String[dis.readInt()];
+                        for (int k = 0; k < redirect.length; k++) {
+                            redirect[k] = dis.readUTF();
+                        }
+                        entries.add(new MapEntry(pattern, status, false, order, redirect));
+                    }
+                    entryMap.put(key, entries);
+                }
+                final int targetCount = dis.readInt();
+                for (int i = 0; i < targetCount; i++) {
+                    final String target = dis.readUTF();
+                    final int pathCount = dis.readInt();
+                    final List<String> paths = new ArrayList<String>(pathCount);
+                    for (int j = 0; j < pathCount; j++) {
+                        paths.add(dis.readUTF());
+                    }
+                    targetPaths.put(target, paths);
+                }
+            } finally {
+                dis.close();
+            }
+        } catch (final IOException ioe) {
+            log.warn("Unable to read vanity path snapshot " + vanitySnapshotFile, ioe);
+            return false;
+        } catch (final IllegalArgumentException iae) {
+            log.warn("Unable to read vanity path snapshot " + vanitySnapshotFile, iae);
+            return false;
+        }
+        this.resolveMapsMap.putAll(entryMap);
+        this.vanityTargets = targetPaths;
+        this.vanityCounter.set(countVanityEntries(targetPaths));
+        log.info("Loaded the vanity paths of {} resources from snapshot {}", targetPaths.size(), vanitySnapshotFile);
+        return true;
+    }
+
+    /**
+     * Store all cached vanity paths in the snapshot file.
+     */
+    private void persistVanitySnapshot() {
+        final Map<String, List<String>> targetPaths = this.vanityTargets;
+        final Map<String, List<MapEntry>> entryMap = new HashMap<String, List<MapEntry>>();
+        for (final List<String> paths : targetPaths.values()) {
+            for (final String path : paths) {
+                final List<MapEntry> entries = this.resolveMapsMap.get(path);
+                if (entries != null) {
+                    entryMap.put(path, entries);
+                }
+            }
+        }
+        final File tmpFile = new File(vanitySnapshotFile.getPath() + ".tmp");
+        try {
+            final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tmpFile)));
+            try {
+                dos.writeInt(VANITY_SNAPSHOT_VERSION);
+                dos.writeInt(entryMap.size());
+                for (final Map.Entry<String, List<MapEntry>> entry : entryMap.entrySet()) {
+                    dos.writeUTF(entry.getKey());
+                    final List<MapEntry> entries = new ArrayList<MapEntry>(entry.getValue());
+                    dos.writeInt(entries.size());
+                    for (final MapEntry mapEntry : entries) {
+                        dos.writeUTF(mapEntry.getPattern());
+                        dos.writeInt(mapEntry.getStatus());
+                        dos.writeLong(mapEntry.getOrder());
+                        dos.writeInt(mapEntry.getRedirect().length);
+                        for (final String redirect : mapEntry.getRedirect()) {
+                            dos.writeUTF(redirect);
+                        }
+                    }
+                }
+                dos.writeInt(targetPaths.size());
+                for (final Map.Entry<String, List<String>> entry : targetPaths.entrySet()) {
+                    dos.writeUTF(entry.getKey());
+                    final List<String> paths = new ArrayList<String>(entry.getValue());
+                    dos.writeInt(paths.size());
+                    for (final String path : paths) {
+                        dos.writeUTF(path);
+                    }
+                }
+            } finally {
+                dos.close();
+            }
+            if (!tmpFile.renameTo(vanitySnapshotFile)) {
+                vanitySnapshotFile.delete();
+                if (!tmpFile.renameTo(vanitySnapshotFile)) {
+                    log.warn("Unable to replace vanity path snapshot {}", vanitySnapshotFile);
+                }
+            }
+        } catch (final IOException ioe) {
+            log.error("Error while saving vanity path snapshot to disk", ioe);
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Reload all vanity paths from the repository after the snapshot has been
+     * loaded. Entries from the snapshot are served until they are replaced.
+     * The query runs with a clone of the resource resolver and without the
+     * initializing lock, the result is swapped in under the lock.
+     */
+    void refreshVanityPaths() {
+        final Map<String, List<MapEntry>> entryMap = new HashMap<String, List<MapEntry>>();
+        final Map<String, List<String>> targetPaths;
+        ResourceResolver refreshResolver = null;
+        try {
+            final ResourceResolver resolver = this.resolver;
+            if (resolver == null) {
+                return;
+            }
+            refreshResolver = resolver.clone(null);
+            targetPaths = loadVanityPaths(refreshResolver, entryMap, false);
+        } catch (final Exception e) {
+            log.warn("Unexpected problem while refreshing vanity paths", e);
+            this.initializing.lock();
+            try {
+                this.vanityPathsChangedDuringRefresh = null;
+            } finally {
+                this.initializing.unlock();
+            }
+            return;
+        } finally {
+            if (refreshResolver != null) {
+                refreshResolver.close();
+            }
+        }
+
+        this.initializing.lock();
+        try {
+            final ResourceResolver resolver = this.resolver;
+            if (resolver == null) {
+                return;
+            }
+            final Set<String> changed = this.vanityPathsChangedDuringRefresh;
+            this.vanityPathsChangedDuringRefresh = null;
+
+            // remove entries which are gone and replace all others
+            for (final List<String> paths : this.vanityTargets.values()) {
+                for (final String path : paths) {
+                    if (!entryMap.containsKey(path)) {
+                        this.resolveMapsMap.remove(path);
+                    }
+                }
+            }
+            this.resolveMapsMap.putAll(entryMap);
+            this.vanityTargets = targetPaths;
+            this.vanityCounter.set(countVanityEntries(targetPaths));
+            for (final String path : entryMap.keySet()) {
+                BloomFilterUtils.add(vanityBloomFilter, path);
+            }
+            this.updateBloomFilterFile = true;
+
+            // the query result might be older than the changes applied meanwhile
+            if (changed != null && !changed.isEmpty()) {
+                resolver.refresh();
+                for (final String path : changed) {
+                    doRemoveVanity(path);
+                    for (final String resourcePath : new String[] {path, path + JCR_CONTENT_SUFFIX}) {
+                        final Resource resource = resolver.getResource(resourcePath);
+                        if (resource != null && resource.getValueMap().containsKey(PROP_VANITY_PATH)) {
+                            doAddVanity(resource, resource.getValueMap());
+                        }
+                    }
+                }
+            }
+
+            persistVanitySnapshot();
+            log.info("Refreshed the vanity paths of {} resources from the repository", this.vanityTargets.size());
+        } catch (final Exception e) {
+            log.warn("Unexpected problem while refreshing vanity paths", e);
+        } finally {
+            this.initializing.unlock();
+        }
+        sendChangeEvent();
+    }
+
+    private long countVanityEntries(final Map<String, List<String>> targetPaths) {
+        long count = 0;
+        for (final List<String> paths : targetPaths.values()) {
+            count += 2 * paths.size();
+        }
+        return count;
+    }
+
     private boolean isAllVanityPathEntriesCached() {
         return this.factory.getMaxCachedVanityPathEntries() == -1;
     }
@@ -1097,9 +1379,18 @@ public class MapEntries implements
 
     /**
      * Load vanity paths Search for all nodes inheriting the sling:VanityPath
-     * mixin
+     * mixin into the cache
      */
     private Map <String, List<String>> loadVanityPaths(boolean createVanityBloomFilter) {
+        return loadVanityPaths(this.resolver, this.resolveMapsMap, createVanityBloomFilter);
+    }
+
+    /**
+     * Load vanity paths Search for all nodes inheriting the sling:VanityPath
+     * mixin
+     */
+    private Map <String, List<String>> loadVanityPaths(final ResourceResolver resolver, final Map<String, List<MapEntry>> entryMap,
+            boolean createVanityBloomFilter) {
         // sling:vanityPath (lowercase) is the property name
         final Map <String, List<String>> targetPaths = new ConcurrentHashMap <String, List<String>>();
         final String queryString = "SELECT sling:vanityPath, sling:redirect, sling:redirectStatus FROM nt:base WHERE sling:vanityPath IS NOT NULL";
@@ -1117,11 +1408,11 @@ public class MapEntries implements
             if ( isValid ) {
                 if (isAllVanityPathEntriesCached() || vanityCounter.longValue() < this.factory.getMaxCachedVanityPathEntries()) {
                     // fill up the cache and the bloom filter
-                    loadVanityPath(resource, resolveMapsMap, targetPaths, true,
+                    loadVanityPath(resource, entryMap, targetPaths, true,
                             createVanityBloomFilter);
                 } else {
                     // fill up the bloom filter
-                    loadVanityPath(resource, resolveMapsMap, targetPaths, false,
+                    loadVanityPath(resource, entryMap, targetPaths, false,
                             createVanityBloomFilter);
                 }
             }
@@ -1387,10 +1678,11 @@ public class MapEntries implements
 
         private boolean vanityPathPrecedence;
 
-        public MapEntryIterator(final String startKey, final Map<String, List<MapEntry>> resolveMapsMap, final boolean vanityPathPrecedence) {
+        public MapEntryIterator(final String startKey, final Map<String, List<MapEntry>> resolveMapsMap,
+                final List<MapEntry> globalList, final boolean vanityPathPrecedence) {
             this.key = startKey;
             this.resolveMapsMap = resolveMapsMap;
-            this.globalListIterator = this.resolveMapsMap.get(GLOBAL_LIST_KEY).iterator();
+            this.globalListIterator = globalList.iterator();
             this.vanityPathPrecedence = vanityPathPrecedence;
             this.seek();
         }
@@ -1513,6 +1805,13 @@ public class MapEntries implements
         return mapEntry;
     }
 
+    final class VanityPathRefreshTask extends TimerTask {
+        @Override
+        public void run() {
+            refreshVanityPaths();
+        }
+    }
+
     final class BloomFilterTask extends TimerTask {
         @Override
         public void run() {
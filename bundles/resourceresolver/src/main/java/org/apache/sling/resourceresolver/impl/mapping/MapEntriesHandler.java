@@ -51,6 +51,11 @@ public interface MapEntriesHandler {
         public Map<String, String> getAliasMap(String parentPath) {
             return Collections.emptyMap();
         }
+
+        @Override
+        public MappingCache getMappingCache() {
+            return null;
+        }
     };
 
     Map<String, String> getAliasMap(String parentPath);
@@ -67,4 +72,10 @@ public interface MapEntriesHandler {
      * This is for the web console plugin
      */
     List<MapEntry> getResolveMaps();
+
+    /**
+     * The cache for mapped paths
+     * @return The cache or {@code null} if caching is disabled
+     */
+    MappingCache getMappingCache();
 }
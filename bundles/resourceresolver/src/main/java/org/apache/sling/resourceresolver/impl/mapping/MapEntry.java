@@ -401,4 +401,8 @@ public class MapEntry implements Comparable<MapEntry> {
     void setOrder(long order) {
         this.order = order;
     }
+
+    long getOrder() {
+        return this.order;
+    }
 }
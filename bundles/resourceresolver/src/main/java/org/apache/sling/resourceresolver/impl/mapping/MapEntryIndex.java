@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <code>MapEntryIndex</code> is an immutable segment trie over the
+ * global list of resolve {@link MapEntry} instances (the <code>/etc/map</code>
+ * entries and the configured mappings).
+ * <p>
+ * Each entry is put into the bucket of the longest literal prefix of its
+ * regular expression. Entries anchored to a specific scheme and host are
+ * indexed by the full request path, entries starting with
+ * {@link MapEntries#ANY_SCHEME_HOST} are indexed by the path part of the
+ * request path. Entries without a usable literal prefix end up in the root
+ * bucket and are always returned.
+ * <p>
+ * Looking up the candidates for a request path therefore only walks the
+ * segments of the request path instead of matching every regular expression.
+ * The candidates are returned in the same order as in the sorted list the
+ * index has been created from. Instances are never modified after creation,
+ * a new index is created whenever the configuration changes.
+ */
+final class MapEntryIndex {
+
+    static final MapEntryIndex EMPTY = new MapEntryIndex(Collections.<MapEntry> emptyList());
+
+    /** Characters which end the literal prefix of a pattern. */
+    private static final String SPECIAL_CHARS = "[](){}.*+?^$|";
+
+    /** Characters which make the preceding character optional or repeated. */
+    private static final String QUANTIFIER_CHARS = "?*+{";
+
+    /** The entries in sorted order. */
+    private final List<MapEntry> entries;
+
+    /** The literal prefix for each entry, indexed like {@link #entries}. */
+    private final String[] prefixes;
+
+    /** Whether the prefix of the entry applies to the path part only. */
+    private final boolean[] pathOnly;
+
+    /** Trie for entries anchored at the start of the request path. */
+    private final Node hostRoot = new Node();
+
+    /** Trie for entries starting with {@link MapEntries#ANY_SCHEME_HOST}. */
+    private final Node pathRoot = new Node();
+
+    /**
+     * Create a new index
+     * @param sortedEntries The entries, already sorted
+     */
+    MapEntryIndex(final List<MapEntry> sortedEntries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<MapEntry>(sortedEntries));
+        this.prefixes = new String[this.entries.size()];
+        this.pathOnly = new boolean[this.entries.size()];
+
+        final String anyHostPattern = "^".concat(MapEntries.ANY_SCHEME_HOST);
+        for (int i = 0; i < this.prefixes.length; i++) {
+            final String pattern = this.entries.get(i).getPattern();
+            if (pattern.indexOf('|') != -1) {
+                // alternatives can't be indexed
+                this.prefixes[i] = "";
+                this.hostRoot.add(i);
+                continue;
+            }
+            if (pattern.startsWith(anyHostPattern)) {
+                final String prefix = getLiteralPrefix(pattern, anyHostPattern.length());
+                if (prefix.startsWith("/")) {
+                    this.prefixes[i] = prefix;
+                    this.pathOnly[i] = true;
+                    this.pathRoot.add(prefix, 1, i);
+                    continue;
+                }
+                this.prefixes[i] = "";
+                this.hostRoot.add(i);
+                continue;
+            }
+            final int start = pattern.startsWith("^") ? 1 : 0;
+            final String prefix = getLiteralPrefix(pattern, start);
+            this.prefixes[i] = prefix;
+            this.hostRoot.add(prefix, 0, i);
+        }
+    }
+
+    /**
+     * All entries of this index in sorted order
+     */
+    List<MapEntry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Get all entries which might match the request path. The request path
+     * has the form {scheme}/{host}.{port}/{path}.
+     * @param requestPath The request path
+     * @return The candidate entries in sorted order
+     */
+    List<MapEntry> getCandidates(final String requestPath) {
+        if (this.entries.isEmpty()) {
+            return this.entries;
+        }
+        final Collector collector = new Collector(this.entries.size());
+        this.hostRoot.collect(requestPath, 0, collector);
+
+        final int firstIndex = requestPath.indexOf('/');
+        final int secondIndex = requestPath.indexOf('/', firstIndex + 1);
+        if (firstIndex > 0 && secondIndex > firstIndex + 1) {
+            this.pathRoot.collect(requestPath, secondIndex + 1, collector);
+        }
+
+        final int[] positions = collector.toSortedArray();
+        final List<MapEntry> result = new ArrayList<MapEntry>(positions.length);
+        for (final int pos : positions) {
+            final int offset = this.pathOnly[pos] ? secondIndex : 0;
+            if (requestPath.startsWith(this.prefixes[pos], offset)) {
+                result.add(this.entries.get(pos));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the longest literal prefix of the regular expression
+     * starting at the given position. Escaped characters are taken
+     * literally, any other special character or a character followed
+     * by a quantifier ends the prefix.
+     */
+    static String getLiteralPrefix(final String pattern, final int start) {
+        final StringBuilder sb = new StringBuilder();
+        int i = start;
+        while (i < pattern.length()) {
+            final char c = pattern.charAt(i);
+            final char literal;
+            final int next;
+            if (c == '\\') {
+                if (i + 1 >= pattern.length()) {
+                    break;
+                }
+                final char escaped = pattern.charAt(i + 1);
+                // character classes like \d, quotes and back references
+                if (Character.isLetterOrDigit(escaped)) {
+                    break;
+                }
+                literal = escaped;
+                next = i + 2;
+            } else if (SPECIAL_CHARS.indexOf(c) != -1) {
+                break;
+            } else {
+                literal = c;
+                next = i + 1;
+            }
+            if (next < pattern.length() && QUANTIFIER_CHARS.indexOf(pattern.charAt(next)) != -1) {
+                break;
+            }
+            sb.append(literal);
+            i = next;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A node of the trie, holding the positions of all entries whose
+     * literal prefix ends within the segment leading to this node.
+     */
+    private static final class Node {
+
+        private Map<String, Node> children;
+
+        private int[] positions = new int[0];
+
+        void add(final int position) {
+            final int[] newPositions = Arrays.copyOf(this.positions, this.positions.length + 1);
+            newPositions[this.positions.length] = position;
+            this.positions = newPositions;
+        }
+
+        void add(final String prefix, final int start, final int position) {
+            Node node = this;
+            int index = start;
+            int slash;
+            while ((slash = prefix.indexOf('/', index)) != -1) {
+                final String segment = prefix.substring(index, slash);
+                if (node.children == null) {
+                    node.children = new HashMap<String, Node>();
+                }
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment, child);
+                }
+                node = child;
+                index = slash + 1;
+            }
+            node.add(position);
+        }
+
+        void collect(final String path, final int start, final Collector collector) {
+            Node node = this;
+            int index = start;
+            while (node != null) {
+                collector.add(node.positions);
+                final int slash = path.indexOf('/', index);
+                if (slash == -1 || node.children == null) {
+                    break;
+                }
+                node = node.children.get(path.substring(index, slash));
+                index = slash + 1;
+            }
+        }
+    }
+
+    /**
+     * Collects positions, the positions of a single node are unique
+     * and each entry is stored in a single node only.
+     */
+    private static final class Collector {
+
+        private final int max;
+
+        private int[] positions = new int[8];
+
+        private int size;
+
+        Collector(final int max) {
+            this.max = max;
+        }
+
+        void add(final int[] nodePositions) {
+            if (nodePositions.length == 0) {
+                return;
+            }
+            if (this.size + nodePositions.length > this.positions.length) {
+                this.positions = Arrays.copyOf(this.positions,
+                        Math.min(this.max, Math.max(this.positions.length * 2, this.size + nodePositions.length)));
+            }
+            System.arraycopy(nodePositions, 0, this.positions, this.size, nodePositions.length);
+            this.size += nodePositions.length;
+        }
+
+        int[] toSortedArray() {
+            final int[] result = Arrays.copyOf(this.positions, this.size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
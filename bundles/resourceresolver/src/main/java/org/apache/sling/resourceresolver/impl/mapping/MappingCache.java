@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.MetricsService;
+
+/**
+ * The <code>MappingCache</code> caches the results of
+ * {@link org.apache.sling.api.resource.ResourceResolver#map(HttpServletRequest, String)}.
+ * <p>
+ * The cache is a fixed number of LRU maps (shards), each guarded by its own
+ * lock. Entries are keyed by the resource path, the user id of the resolver
+ * and the scheme, host, port and context path of the request. The cache is
+ * owned by {@link MapEntries} which clears it once for each batch of resource
+ * changes and whenever the mapping configuration changes.
+ * <p>
+ * A mapping computed before the cache has been cleared is not cached anymore,
+ * the key records the generation of the cache when the computation started.
+ */
+public class MappingCache {
+
+    private static final int SHARD_COUNT = 16;
+
+    private static final String METRICS_PREFIX = "sling.resourceresolver.mapping.cache.";
+
+    private final Shard[] shards;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    /** Incremented whenever the cache is cleared, keys of an older generation are stale. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public MappingCache(final int maxSize, final MetricsService metricsService) {
+        final int shardSize = Math.max(1, maxSize / SHARD_COUNT);
+        this.shards = new Shard[SHARD_COUNT];
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            this.shards[i] = new Shard(shardSize);
+        }
+        this.hits = metricsService.counter(METRICS_PREFIX + "hits");
+        this.misses = metricsService.counter(METRICS_PREFIX + "misses");
+        this.evictions = metricsService.counter(METRICS_PREFIX + "evictions");
+    }
+
+    /**
+     * Get the cached mapping
+     * @param key The key
+     * @return The mapped path or {@code null}
+     */
+    public String get(final Key key) {
+        final Shard shard = getShard(key);
+        final String result;
+        synchronized (shard) {
+            result = shard.get(key);
+        }
+        if (result == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Cache a mapping. The mapping is not cached if the cache has been
+     * cleared since the key has been created.
+     * @param key The key, created before the mapping has been computed
+     * @param mappedPath The mapped path
+     */
+    public void put(final Key key, final String mappedPath) {
+        final Shard shard = getShard(key);
+        synchronized (shard) {
+            // checked while holding the lock, clear() removes the entry otherwise
+            if (key.generation == this.generation.get()) {
+                shard.put(key, mappedPath);
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    void clear() {
+        this.generation.incrementAndGet();
+        for (final Shard shard : this.shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+
+    private Shard getShard(final Key key) {
+        return this.shards[(key.hashCode() & 0x7fffffff) % SHARD_COUNT];
+    }
+
+    /**
+     * Create a cache key, to be called before the mapping is computed
+     * @param request The optional request
+     * @param resourcePath The resource path to map
+     * @param userId The user id of the resource resolver
+     * @return The key
+     */
+    public Key createKey(final HttpServletRequest request, final String resourcePath, final String userId) {
+        final long generation = this.generation.get();
+        if (request == null) {
+            return new Key(generation, resourcePath, userId, null, null, -1, null);
+        }
+        return new Key(generation, resourcePath, userId, request.getScheme(), request.getServerName(),
+                request.getServerPort(), request.getContextPath());
+    }
+
+    public static final class Key {
+
+        /** The generation of the cache when the key has been created, not part of the identity. */
+        private final long generation;
+
+        private final String path;
+
+        private final String userId;
+
+        private final String scheme;
+
+        private final String host;
+
+        private final int port;
+
+        private final String contextPath;
+
+        private final int hashCode;
+
+        Key(final long generation, final String path, final String userId, final String scheme, final String host,
+                final int port, final String contextPath) {
+            this.generation = generation;
+            this.path = path;
+            this.userId = userId;
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.contextPath = contextPath;
+
+            int result = path.hashCode();
+            result = 31 * result + hash(userId);
+            result = 31 * result + hash(scheme);
+            result = 31 * result + hash(host);
+            result = 31 * result + port;
+            result = 31 * result + hash(contextPath);
+            this.hashCode = result;
+        }
+
+        private static int hash(final String value) {
+            return value == null ? 0 : value.hashCode();
+        }
+
+        private static boolean equal(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.hashCode == other.hashCode
+                    && this.port == other.port
+                    && this.path.equals(other.path)
+                    && equal(this.userId, other.userId)
+                    && equal(this.scheme, other.scheme)
+                    && equal(this.host, other.host)
+                    && equal(this.contextPath, other.contextPath);
+        }
+    }
+
+    private final class Shard extends LinkedHashMap<Key, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        Shard(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, String> eldest) {
+            if (size() > this.maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.sling.resourceresolver.impl.observation;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -29,6 +30,7 @@ import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.resource.path.Path;
 import org.apache.sling.api.resource.path.PathSet;
+import org.apache.sling.commons.metrics.Timer;
 import org.apache.sling.spi.resource.provider.ObservationReporter;
 import org.apache.sling.spi.resource.provider.ObserverConfiguration;
 import org.slf4j.Logger;
@@ -45,6 +47,9 @@ public class BasicObservationReporter implements ObservationReporter {
     /** List of observer configurations for the provider. */
     private final List<ObserverConfiguration> configs;
 
+    /** Index of the observer configurations by path. */
+    private final ObserverConfigurationIndex index;
+
     /** The search path. */
     private final String[] searchPath;
 
@@ -73,6 +78,7 @@ public class BasicObservationReporter implements ObservationReporter {
             cfg.addListener(i);
         }
         this.configs = Collections.singletonList((ObserverConfiguration)cfg);
+        this.index = new ObserverConfigurationIndex(this.configs);
     }
 
     /**
@@ -173,6 +179,7 @@ public class BasicObservationReporter implements ObservationReporter {
             }
         }
         this.configs = Collections.unmodifiableList(observerConfigs);
+        this.index = new ObserverConfigurationIndex(this.configs);
     }
 
     @Override
@@ -182,10 +189,25 @@ public class BasicObservationReporter implements ObservationReporter {
 
     @Override
     public void reportChanges(final Iterable<ResourceChange> changes, final boolean distribute) {
-        for(final ObserverConfiguration cfg : this.configs) {
-            final List<ResourceChange> filteredChanges = filterChanges(changes, cfg);
-            if (!filteredChanges.isEmpty() ) {
-                this.reportChanges(cfg, filteredChanges, distribute);
+        // route each change to the configurations indexed for its path or an ancestor
+        final ResourceChangeListImpl[] filteredChanges = new ResourceChangeListImpl[this.configs.size()];
+        final BitSet candidates = new BitSet(this.configs.size());
+        for(final ResourceChange c : changes) {
+            candidates.clear();
+            this.index.addCandidates(c.getPath(), candidates);
+            for(int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if ( matches(c, this.configs.get(i)) ) {
+                    if ( filteredChanges[i] == null ) {
+                        filteredChanges[i] = new ResourceChangeListImpl(this.searchPath);
+                    }
+                    filteredChanges[i].add(c);
+                }
+            }
+        }
+        for(int i = 0; i < filteredChanges.length; i++) {
+            if ( filteredChanges[i] != null ) {
+                filteredChanges[i].lock();
+                this.reportChanges(this.configs.get(i), filteredChanges[i], distribute);
             }
         }
     }
@@ -207,7 +229,12 @@ public class BasicObservationReporter implements ObservationReporter {
                 if ( !filteredChanges.isEmpty() ) {
                     final ResourceChangeListener listener = info.getListener();
                     if ( listener != null ) {
-                        listener.onChange(filteredChanges);
+                        final Timer.Context context = info.getDispatchTimer().time();
+                        try {
+                            listener.onChange(filteredChanges);
+                        } finally {
+                            context.stop();
+                        }
                     }
                 }
             }
@@ -234,23 +261,6 @@ public class BasicObservationReporter implements ObservationReporter {
         return infoA.getResourceChangeTypes().equals(infoB.getResourceChangeTypes());
     }
 
-    /**
-     * Filter the change list based on the configuration
-     * @param changes The list of changes
-     * @param config The configuration
-     * @return The filtered list.
-     */
-    private List<ResourceChange> filterChanges(final Iterable<ResourceChange> changes, final ObserverConfiguration config) {
-        final ResourceChangeListImpl filtered = new ResourceChangeListImpl(this.searchPath);
-        for (final ResourceChange c : changes) {
-            if (matches(c, config)) {
-                filtered.add(c);
-            }
-        }
-        filtered.lock();
-        return filtered;
-    }
-
     /**
      * Filter the change list based on the resource change listener, only type and external needs to be checkd.
      * @param changes The list of changes
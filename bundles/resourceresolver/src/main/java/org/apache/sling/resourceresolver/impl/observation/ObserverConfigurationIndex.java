@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.observation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.spi.resource.provider.ObserverConfiguration;
+
+/**
+ * Index of observer configurations by the paths they observe.
+ * <p>
+ * Each path of a configuration is indexed by its longest prefix without
+ * wildcards, for a path this is the path itself. The candidates for a changed
+ * path are the configurations indexed for the path or one of its ancestors,
+ * they still have to be matched against the change.
+ */
+class ObserverConfigurationIndex {
+
+    private static final String ROOT = "/";
+
+    /** Indexes of the configurations, in ascending order, by prefix. */
+    private final Map<String, int[]> index = new HashMap<>();
+
+    /**
+     * Create the index
+     * @param configs The observer configurations, the indexes refer to this list
+     */
+    ObserverConfigurationIndex(final List<ObserverConfiguration> configs) {
+        final Map<String, List<Integer>> prefixes = new HashMap<>();
+        for(int i = 0; i < configs.size(); i++) {
+            for(final Path p : configs.get(i).getPaths()) {
+                final String prefix = getPrefix(p);
+                List<Integer> indexes = prefixes.get(prefix);
+                if ( indexes == null ) {
+                    indexes = new ArrayList<>();
+                    prefixes.put(prefix, indexes);
+                }
+                if ( indexes.isEmpty() || indexes.get(indexes.size() - 1) != i ) {
+                    indexes.add(i);
+                }
+            }
+        }
+        for(final Map.Entry<String, List<Integer>> entry : prefixes.entrySet()) {
+            final int[] indexes = new int[entry.getValue().size()];
+            for(int i = 0; i < indexes.length; i++) {
+                indexes[i] = entry.getValue().get(i);
+            }
+            this.index.put(entry.getKey(), indexes);
+        }
+    }
+
+    /**
+     * Add the indexes of the configurations which might match a change
+     * @param path The changed path
+     * @param candidates The indexes of the configurations are set in this bit set
+     */
+    void addCandidates(final String path, final BitSet candidates) {
+        String current = path;
+        while ( current != null ) {
+            final int[] indexes = this.index.get(current);
+            if ( indexes != null ) {
+                for(final int i : indexes) {
+                    candidates.set(i);
+                }
+            }
+            current = getParent(current);
+        }
+    }
+
+    /**
+     * The longest path which all paths matched by the given path start with
+     */
+    static String getPrefix(final Path path) {
+        if ( !path.isPattern() ) {
+            return path.getPath();
+        }
+        final String pattern = path.getPath().substring(Path.GLOB_PREFIX.length());
+        int end = pattern.length();
+        for(int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if ( c == '*' || c == '?' || c == '[' || c == '{' ) {
+                end = i;
+                break;
+            }
+        }
+        final int lastSlash = pattern.lastIndexOf('/', end - 1);
+        return lastSlash <= 0 ? ROOT : pattern.substring(0, lastSlash);
+    }
+
+    private static String getParent(final String path) {
+        if ( ROOT.equals(path) ) {
+            return null;
+        }
+        final int lastSlash = path.lastIndexOf('/');
+        if ( lastSlash < 0 ) {
+            return null;
+        }
+        return lastSlash == 0 ? ROOT : path.substring(0, lastSlash);
+    }
+}
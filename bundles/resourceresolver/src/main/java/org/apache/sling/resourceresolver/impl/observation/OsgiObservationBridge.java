@@ -18,13 +18,19 @@
  */
 package org.apache.sling.resourceresolver.impl.observation;
 
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.sling.api.SlingConstants;
 import org.apache.sling.api.resource.LoginException;
@@ -35,20 +41,25 @@ import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
 import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.MetricsService;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventHandler;
+import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+@Designate(ocd = OsgiObservationBridgeConfig.class)
 @Component(service = ResourceChangeListener.class,
-           configurationPolicy = ConfigurationPolicy.IGNORE,
+           configurationPolicy = ConfigurationPolicy.OPTIONAL,
            property = {
                   Constants.SERVICE_VENDOR + "=The Apache Software Foundation",
                   ResourceChangeListener.PATHS + "=/",
@@ -58,6 +69,16 @@ import org.slf4j.LoggerFactory;
            })
 public class OsgiObservationBridge implements ResourceChangeListener, ExternalResourceChangeListener {
 
+    private static final String METRICS_PREFIX = "sling.resourceresolver.observation.osgi.";
+
+    /** What happens to a resource change if the queue is full. */
+    enum OverflowPolicy {
+        /** Wait for space, this back-pressures the delivery of changes to all listeners. */
+        BLOCK,
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+
     private final Logger logger = LoggerFactory.getLogger(OsgiObservationBridge.class);
 
     @Reference
@@ -66,20 +87,56 @@ public class OsgiObservationBridge implements ResourceChangeListener, ExternalRe
     @Reference
     private ResourceResolverFactory resolverFactory;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY)
+    private MetricsService metricsService;
+
     private ResourceResolver resolver;
 
     private BlockingQueue<ResourceChange> changesQueue;
 
+    private OverflowPolicy overflowPolicy;
+
+    /** The number of queued changes. */
+    private Counter queueSize;
+
+    /** The number of changes dropped because the queue was full. */
+    private Counter dropped;
+
+    /** Whether a change has been dropped since the activation. */
+    private final AtomicBoolean hasDropped = new AtomicBoolean();
+
+    /** The number of changes merged into a previous change. */
+    private Counter coalesced;
+
     private EventSendingJob job;
 
     @SuppressWarnings("deprecation")
-    protected void activate() throws LoginException {
+    protected void activate(final OsgiObservationBridgeConfig config) throws LoginException {
         resolver = resolverFactory.getAdministrativeResourceResolver(null);
-        changesQueue = new LinkedBlockingQueue<ResourceChange>();
-        job = new EventSendingJob(changesQueue);
+        final MetricsService metrics = metricsService != null ? metricsService : MetricsService.NOOP;
+        queueSize = metrics.counter(METRICS_PREFIX + "queue.size");
+        dropped = metrics.counter(METRICS_PREFIX + "dropped");
+        coalesced = metrics.counter(METRICS_PREFIX + "coalesced");
+        overflowPolicy = getOverflowPolicy(config.queue_overflow_policy());
+        hasDropped.set(false);
+        if (config.queue_size() > 0) {
+            changesQueue = new LinkedBlockingQueue<ResourceChange>(config.queue_size());
+        } else {
+            changesQueue = new LinkedBlockingQueue<ResourceChange>();
+        }
+        job = new EventSendingJob(changesQueue, Math.max(1, config.batch_size()), Math.max(0, config.coalescing_window()));
         Executors.newSingleThreadExecutor().submit(job);
     }
 
+    private OverflowPolicy getOverflowPolicy(final String name) {
+        try {
+            return OverflowPolicy.valueOf(name);
+        } catch (final IllegalArgumentException | NullPointerException e) {
+            logger.warn("Unknown overflow policy {}, using {}", name, OverflowPolicy.DROP_OLDEST);
+            return OverflowPolicy.DROP_OLDEST;
+        }
+    }
+
     @Reference(name = "handlers",
             cardinality=ReferenceCardinality.AT_LEAST_ONE,
             policy=ReferencePolicy.DYNAMIC,
@@ -95,18 +152,71 @@ public class OsgiObservationBridge implements ResourceChangeListener, ExternalRe
     }
 
     protected void deactivate() {
-        changesQueue.clear();
         job.stop();
+        queueSize.decrement(changesQueue.size());
+        changesQueue.clear();
         resolver.close();
     }
 
     @Override
     public void onChange(List<ResourceChange> changes) {
-        changesQueue.addAll(changes);
+        for (final ResourceChange change : changes) {
+            queueSize.increment();
+            if (!enqueue(change)) {
+                queueSize.decrement();
+                changeDropped(change);
+            }
+        }
     }
 
+    /**
+     * Add a change to the queue, applying the overflow policy if the queue is full
+     * @param change The change
+     * @return {@code true} if the change has been queued
+     */
+    private boolean enqueue(final ResourceChange change) {
+        switch (overflowPolicy) {
+        case DROP_NEWEST:
+            return changesQueue.offer(change);
+
+        case DROP_OLDEST:
+            while (!changesQueue.offer(change)) {
+                final ResourceChange oldest = changesQueue.poll();
+                if (oldest != null) {
+                    queueSize.decrement();
+                    changeDropped(oldest);
+                }
+            }
+            return true;
+
+        default:
+            try {
+                changesQueue.put(change);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting to queue resource change {}", change);
+                return false;
+            }
+        }
+    }
+
+    private void changeDropped(final ResourceChange change) {
+        dropped.increment();
+        if (hasDropped.compareAndSet(false, true)) {
+            logger.warn("The queue of resource changes is full, dropping changes starting with {}. "
+                    + "No OSGi events are sent for dropped changes.", change);
+        }
+    }
+
+    /**
+     * Send the OSGi event for a change
+     * @param change The change
+     * @param mayRefresh Whether the resolver may be refreshed if the resource is not found
+     * @return {@code true} if the resolver has been refreshed
+     */
     @SuppressWarnings("deprecation")
-    private void sendOsgiEvent(ResourceChange change) {
+    private boolean sendOsgiEvent(final PendingChange change, final boolean mayRefresh) {
         Dictionary<String, Object> props = new Hashtable<String, Object>();
         String topic;
         switch (change.getType()) {
@@ -123,26 +233,28 @@ public class OsgiObservationBridge implements ResourceChangeListener, ExternalRe
             break;
 
         default:
-            return;
+            return false;
         }
 
+        boolean refreshed = false;
         props.put(SlingConstants.PROPERTY_PATH, change.getPath());
         if (change.getUserId() != null) {
             props.put(SlingConstants.PROPERTY_USERID, change.getUserId());
         }
-        if (change.getAddedPropertyNames() != null ) {
-            props.put(SlingConstants.PROPERTY_ADDED_ATTRIBUTES, change.getAddedPropertyNames().toArray(new String[change.getAddedPropertyNames().size()]));
+        if (change.addedPropertyNames != null ) {
+            props.put(SlingConstants.PROPERTY_ADDED_ATTRIBUTES, change.addedPropertyNames.toArray(new String[change.addedPropertyNames.size()]));
         }
-        if (change.getChangedPropertyNames() != null) {
-            props.put(SlingConstants.PROPERTY_CHANGED_ATTRIBUTES, change.getChangedPropertyNames().toArray(new String[change.getChangedPropertyNames().size()]));
+        if (change.changedPropertyNames != null) {
+            props.put(SlingConstants.PROPERTY_CHANGED_ATTRIBUTES, change.changedPropertyNames.toArray(new String[change.changedPropertyNames.size()]));
         }
-        if ( change.getRemovedPropertyNames() != null ) {
-            props.put(SlingConstants.PROPERTY_REMOVED_ATTRIBUTES, change.getRemovedPropertyNames().toArray(new String[change.getRemovedPropertyNames().size()]));
+        if ( change.removedPropertyNames != null ) {
+            props.put(SlingConstants.PROPERTY_REMOVED_ATTRIBUTES, change.removedPropertyNames.toArray(new String[change.removedPropertyNames.size()]));
         }
         if (change.getType() != ChangeType.REMOVED) {
             Resource resource = resolver.getResource(change.getPath());
-            if (resource == null) {
+            if (resource == null && mayRefresh) {
                 resolver.refresh();
+                refreshed = true;
                 resource = resolver.getResource(change.getPath());
             }
             if (resource != null) {
@@ -160,36 +272,170 @@ public class OsgiObservationBridge implements ResourceChangeListener, ExternalRe
 
         final Event event = new Event(topic, props);
         eventAdmin.sendEvent(event);
+        return refreshed;
+    }
+
+    /**
+     * A change waiting to be sent, with the property names of all changes merged into it.
+     */
+    private static final class PendingChange {
+
+        private final ResourceChange change;
+
+        private Set<String> addedPropertyNames;
+
+        private Set<String> changedPropertyNames;
+
+        private Set<String> removedPropertyNames;
+
+        @SuppressWarnings("deprecation")
+        PendingChange(final ResourceChange change) {
+            this.change = change;
+            this.addedPropertyNames = change.getAddedPropertyNames();
+            this.changedPropertyNames = change.getChangedPropertyNames();
+            this.removedPropertyNames = change.getRemovedPropertyNames();
+        }
+
+        ChangeType getType() {
+            return change.getType();
+        }
+
+        String getPath() {
+            return change.getPath();
+        }
+
+        String getUserId() {
+            return change.getUserId();
+        }
+
+        boolean isExternal() {
+            return change.isExternal();
+        }
+
+        /**
+         * Merge a later modification of the same resource into this change.
+         * A modification of an added resource is covered by the added event,
+         * as the resource is only read when the event is sent.
+         * @param other The later change of the same path
+         * @return {@code true} if the change has been merged
+         */
+        @SuppressWarnings("deprecation")
+        boolean merge(final ResourceChange other) {
+            if (other.getType() != ChangeType.CHANGED
+                    || getType() == ChangeType.REMOVED
+                    || other.isExternal() != isExternal()
+                    || !equals(other.getUserId(), getUserId())) {
+                return false;
+            }
+            if (getType() == ChangeType.CHANGED) {
+                this.addedPropertyNames = union(this.addedPropertyNames, other.getAddedPropertyNames());
+                this.changedPropertyNames = union(this.changedPropertyNames, other.getChangedPropertyNames());
+                this.removedPropertyNames = union(this.removedPropertyNames, other.getRemovedPropertyNames());
+            }
+            return true;
+        }
+
+        private static boolean equals(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        private static Set<String> union(final Set<String> a, final Set<String> b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            final Set<String> result = new HashSet<String>(a);
+            result.addAll(b);
+            return result;
+        }
     }
 
     private class EventSendingJob implements Runnable {
 
         private final BlockingQueue<ResourceChange> changes;
 
+        private final int batchSize;
+
+        private final long coalescingWindow;
+
         private volatile boolean stop;
 
-        public EventSendingJob(BlockingQueue<ResourceChange> changes) {
+        public EventSendingJob(BlockingQueue<ResourceChange> changes, int batchSize, long coalescingWindow) {
             this.changes = changes;
+            this.batchSize = batchSize;
+            this.coalescingWindow = coalescingWindow;
         }
 
         @Override
         public void run() {
+            final List<ResourceChange> batch = new ArrayList<ResourceChange>();
             while (!stop) {
-                ResourceChange change = null;
+                batch.clear();
                 try {
-                    change = changes.poll(100, TimeUnit.MILLISECONDS);
+                    final ResourceChange change = changes.poll(100, TimeUnit.MILLISECONDS);
+                    if (change != null) {
+                        batch.add(change);
+                        collect(batch);
+                    }
                 } catch (InterruptedException e) {
                     logger.warn("Interrupted the OSGi runnable", e);
                 }
-                if (change == null) {
+                if (batch.isEmpty()) {
                     continue;
                 }
-                try {
-                    sendOsgiEvent(change);
-                } catch (Exception e) {
-                    logger.error("processOsgiEventQueue: Unexpected problem processing resource change {}", change, e);
+                queueSize.decrement(batch.size());
+                boolean refreshed = false;
+                for (final PendingChange pending : toPendingChanges(batch)) {
+                    try {
+                        refreshed |= sendOsgiEvent(pending, !refreshed);
+                    } catch (Exception e) {
+                        logger.error("processOsgiEventQueue: Unexpected problem processing resource change {}", pending.change, e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Take the queued changes up to the batch size, waiting for further
+         * changes until the coalescing window is over.
+         */
+        private void collect(final List<ResourceChange> batch) throws InterruptedException {
+            changes.drainTo(batch, batchSize - batch.size());
+            if (coalescingWindow > 0) {
+                final long end = System.currentTimeMillis() + coalescingWindow;
+                long remaining = coalescingWindow;
+                while (batch.size() < batchSize && remaining > 0 && !stop) {
+                    final ResourceChange change = changes.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        break;
+                    }
+                    batch.add(change);
+                    changes.drainTo(batch, batchSize - batch.size());
+                    remaining = end - System.currentTimeMillis();
+                }
+            }
+        }
+
+        private List<PendingChange> toPendingChanges(final List<ResourceChange> batch) {
+            final List<PendingChange> result = new ArrayList<PendingChange>(batch.size());
+            final Map<String, PendingChange> latest = coalescingWindow > 0 ? new HashMap<String, PendingChange>() : null;
+            for (final ResourceChange change : batch) {
+                if (latest != null) {
+                    final PendingChange previous = latest.get(change.getPath());
+                    if (previous != null && previous.merge(change)) {
+                        coalesced.increment();
+                        continue;
+                    }
+                }
+                final PendingChange pending = new PendingChange(change);
+                result.add(pending);
+                if (latest != null) {
+                    latest.put(change.getPath(), pending);
                 }
             }
+            return result;
         }
 
         public void stop() {
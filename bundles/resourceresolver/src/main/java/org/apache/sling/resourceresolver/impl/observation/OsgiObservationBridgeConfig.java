@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.observation;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.osgi.service.metatype.annotations.Option;
+
+@ObjectClassDefinition(name = "Apache Sling Resource Change OSGi Event Bridge",
+            description = "Configures the propagation of resource changes as OSGi events.")
+public @interface OsgiObservationBridgeConfig {
+
+    @AttributeDefinition(name = "Queue Size",
+        description = "The maximum number of resource changes waiting to be sent as OSGi events. " +
+                      "A value of 0 or less means the queue is not bounded and no change is ever dropped. " +
+                      "If the queue is bounded, changes are handled according to the overflow policy " +
+                      "once it is full.")
+    int queue_size() default 0;
+
+    @AttributeDefinition(name = "Overflow Policy",
+        description = "What happens to a resource change if the bounded queue is full: the oldest queued change " +
+                      "is dropped, the new change is dropped or the reporting thread waits until the " +
+                      "change can be queued. Waiting blocks the delivery of resource changes to all " +
+                      "other resource change listeners until the OSGi events have been sent.",
+        options = {
+            @Option(label = "Drop oldest changes", value = "DROP_OLDEST"),
+            @Option(label = "Drop new changes", value = "DROP_NEWEST"),
+            @Option(label = "Wait", value = "BLOCK")
+        })
+    String queue_overflow_policy() default "DROP_OLDEST";
+
+    @AttributeDefinition(name = "Coalescing Window",
+        description = "The time in milliseconds resource changes are collected before the OSGi events " +
+                      "are sent. Modifications of a resource within this window are merged into the event " +
+                      "for the addition or previous modification of that resource. A value of 0 disables merging.")
+    long coalescing_window() default 0;
+
+    @AttributeDefinition(name = "Batch Size",
+        description = "The maximum number of resource changes taken from the queue at once.")
+    int batch_size() default 1000;
+}
@@ -35,6 +35,8 @@ import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.resource.path.Path;
 import org.apache.sling.api.resource.path.PathSet;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.commons.metrics.Timer;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.osgi.framework.ServiceReference;
 
@@ -61,6 +63,8 @@ public class ResourceChangeListenerInfo implements Comparable<ResourceChangeList
 
     private volatile ResourceChangeListener listener;
 
+    private volatile Timer dispatchTimer = MetricsService.NOOP.timer("dispatch");
+
     public ResourceChangeListenerInfo(final ServiceReference<ResourceChangeListener> ref, final String[] searchPaths) {
         boolean configValid = true;
         final Set<String> pathsSet = new HashSet<String>();
@@ -198,6 +202,17 @@ public class ResourceChangeListenerInfo implements Comparable<ResourceChangeList
         this.external = listener instanceof ExternalResourceChangeListener;
     }
 
+    /**
+     * The timer measuring the time the listener takes to process changes.
+     */
+    public Timer getDispatchTimer() {
+        return this.dispatchTimer;
+    }
+
+    public void setDispatchTimer(final Timer dispatchTimer) {
+        this.dispatchTimer = dispatchTimer;
+    }
+
     private int compareSet(final Set<String> t, final Set<String> o) {
         if ( t == null && o == null ) {
             return 0;
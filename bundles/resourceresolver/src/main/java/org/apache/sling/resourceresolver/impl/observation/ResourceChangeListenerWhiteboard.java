@@ -27,11 +27,13 @@ import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.resource.path.Path;
 import org.apache.sling.api.resource.path.PathSet;
+import org.apache.sling.commons.metrics.MetricsService;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderTracker;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderTracker.ObservationReporterGenerator;
 import org.apache.sling.spi.resource.provider.ObservationReporter;
 import org.apache.sling.spi.resource.provider.ObserverConfiguration;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
 import org.osgi.util.tracker.ServiceTracker;
 import org.osgi.util.tracker.ServiceTrackerCustomizer;
@@ -43,6 +45,8 @@ import org.slf4j.LoggerFactory;
  */
 public class ResourceChangeListenerWhiteboard implements ResourceProviderTracker.ObservationReporterGenerator {
 
+    private static final String METRICS_PREFIX = "sling.resourceresolver.observation.dispatch.";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final Map<ServiceReference<ResourceChangeListener>, ResourceChangeListenerInfo> listeners = new ConcurrentHashMap<>();
@@ -53,10 +57,14 @@ public class ResourceChangeListenerWhiteboard implements ResourceProviderTracker
 
     private volatile String[] searchPath;
 
+    private volatile MetricsService metricsService;
+
     public void activate(final BundleContext bundleContext,
             final ResourceProviderTracker resourceProviderTracker,
-            final String[] searchPath) {
+            final String[] searchPath,
+            final MetricsService metricsService) {
         this.searchPath = searchPath;
+        this.metricsService = metricsService;
         this.resourceProviderTracker = resourceProviderTracker;
         this.resourceProviderTracker.setObservationReporterGenerator(this);
         this.tracker = new ServiceTracker<>(bundleContext,
@@ -84,6 +92,9 @@ public class ResourceChangeListenerWhiteboard implements ResourceProviderTracker
                     final ResourceChangeListener listener = bundleContext.getService(reference);
                     if ( listener != null ) {
                         info.setListener(listener);
+                        // several services may be registered with the same class
+                        info.setDispatchTimer(metricsService.timer(METRICS_PREFIX + listener.getClass().getName()
+                                + "." + reference.getProperty(Constants.SERVICE_ID)));
                         listeners.put(reference, info);
                         updateProviderTracker();
                     }
@@ -198,6 +198,21 @@ public class MockedResourceResolverImplTest {
                 return 1024000;
             }
 
+            @Override
+            public boolean resource_resolver_vanitypath_snapshot() {
+                return false;
+            }
+
+            @Override
+            public int resource_resolver_map_cache_size() {
+                return 0;
+            }
+
+            @Override
+            public int resource_resolver_resource_cache_size() {
+                return 0;
+            }
+
             @Override
             public String[] resource_resolver_vanitypath_blacklist() {
                 return null;
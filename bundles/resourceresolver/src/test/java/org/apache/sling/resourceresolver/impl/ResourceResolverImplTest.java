@@ -23,7 +23,9 @@ import static org.apache.sling.resourceresolver.impl.MockedResourceResolverImplT
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -31,6 +33,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -48,6 +51,9 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.resourceresolver.impl.helper.ResourceTypeCache;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderHandler;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderStorage;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderTracker;
@@ -628,15 +634,105 @@ public class ResourceResolverImplTest {
         resolver.isResourceType(resource, "/types/unknown");
     }
 
+    @Test public void testResourceTypeHierarchyIsCached() {
+        final ResourceTypeCache cache = new ResourceTypeCache(new String[] {"/apps/"});
+        final PathBasedResourceResolverImpl resolver = getPathBasedResourceResolver(new String[] {"/apps/"}, cache);
+
+        resolver.add(new SyntheticResourceWithSupertype(resolver, "/apps/types/1", "/apps/types/component", "/apps/types/2"));
+        resolver.add(new SyntheticResourceWithSupertype(resolver, "/other/types/1", "/apps/types/component", "/apps/types/2"));
+        final Resource resource = resolver.add(new SyntheticResource(resolver, "/resourceT1", "/apps/types/1"));
+
+        assertEquals("/apps/types/2", resolver.getParentResourceType("/apps/types/1"));
+        assertEquals("/apps/types/2", resolver.getParentResourceType("/other/types/1"));
+        assertTrue(resolver.isResourceType(resource, "/apps/types/2"));
+
+        // the cached hierarchy is used until a change is reported
+        resolver.add(new SyntheticResourceWithSupertype(resolver, "/apps/types/1", "/apps/types/component", "/apps/types/3"));
+        resolver.add(new SyntheticResourceWithSupertype(resolver, "/other/types/1", "/apps/types/component", "/apps/types/3"));
+        assertEquals("/apps/types/2", resolver.getParentResourceType("/apps/types/1"));
+        assertTrue(resolver.isResourceType(resource, "/apps/types/2"));
+        // resource types outside of the search paths are not cached
+        assertEquals("/apps/types/3", resolver.getParentResourceType("/other/types/1"));
+
+        cache.onChange(Collections.singletonList(new ResourceChange(ChangeType.CHANGED, "/apps/types/1", false, null, null, null)));
+        assertEquals("/apps/types/3", resolver.getParentResourceType("/apps/types/1"));
+        assertFalse(resolver.isResourceType(resource, "/apps/types/2"));
+        assertTrue(resolver.isResourceType(resource, "/apps/types/3"));
+    }
+
+    @Test public void testResourceCache() throws Exception {
+        final List<String> reads = new ArrayList<String>();
+        final ResourceProvider<Object> rp = new ResourceProvider<Object>() {
+
+            @Override
+            public Resource getResource(ResolveContext<Object> ctx, String path, ResourceContext rCtx, Resource parent) {
+                reads.add(path);
+                return "/a".equals(path) ? new SyntheticResource(ctx.getResourceResolver(), path, "type") : null;
+            }
+
+            @Override
+            public Iterator<Resource> listChildren(ResolveContext<Object> ctx, Resource parent) {
+                return null;
+            }
+        };
+        final ResourceProviderStorage storage = new ResourceProviderStorage(asList(createRPHandler(rp, "rp2", 0, "/")));
+        final ResourceProviderTracker tracker = mock(ResourceProviderTracker.class);
+        when(tracker.getResourceProviderStorage()).thenReturn(storage);
+        final ResourceResolverFactoryConfig config = mock(ResourceResolverFactoryConfig.class);
+        when(config.resource_resolver_resource_cache_size()).thenReturn(10);
+        final ResourceResolverFactoryActivator activator = new ResourceResolverFactoryActivator();
+        Whitebox.setInternalState(activator, "config", config);
+        activator.resourceProviderTracker = tracker;
+        activator.resourceAccessSecurityTracker = new ResourceAccessSecurityTracker();
+        final CommonResourceResolverFactoryImpl factory = new CommonResourceResolverFactoryImpl(activator);
+
+        // the cache is disabled unless the resolver enables it
+        final ResourceResolver uncached = new ResourceResolverImpl(factory, false, null, tracker);
+        assertNotSame(uncached.getResource("/a"), uncached.getResource("/a"));
+        uncached.close();
+        reads.clear();
+
+        final ResourceResolver rr = new ResourceResolverImpl(factory, false,
+                Collections.<String, Object> singletonMap(ResourceResolverFactory.RESOURCE_CACHE, true), tracker);
+        // the property is not passed on to the resource providers
+        assertNull(rr.getAttribute(ResourceResolverFactory.RESOURCE_CACHE));
+
+        final Resource a = rr.getResource("/a");
+        assertNotNull(a);
+        assertSame(a, rr.getResource("/a"));
+        assertNull(rr.getResource("/b"));
+        assertNull(rr.getResource("/b"));
+        assertEquals(asList("/a", "/b"), reads);
+
+        // the cache is cleared by a refresh
+        rr.refresh();
+        assertNotNull(rr.getResource("/a"));
+        assertEquals(asList("/a", "/b", "/a"), reads);
+
+        // a clone has its own cache
+        final ResourceResolver clone = rr.clone(null);
+        final Resource clonedA = clone.getResource("/a");
+        assertNotSame(a, clonedA);
+        assertSame(clonedA, clone.getResource("/a"));
+        assertNull(clone.getAttribute(ResourceResolverFactory.RESOURCE_CACHE));
+        clone.close();
+        rr.close();
+    }
+
     private PathBasedResourceResolverImpl getPathBasedResourceResolver() {
         return getPathBasedResourceResolver(new String[] {""});
     }
     
     
     private PathBasedResourceResolverImpl getPathBasedResourceResolver(String[] searchPaths) {
+        return getPathBasedResourceResolver(searchPaths, null);
+    }
+
+    private PathBasedResourceResolverImpl getPathBasedResourceResolver(String[] searchPaths, ResourceTypeCache resourceTypeCache) {
         try {
             final List<ResourceResolver> resolvers = new ArrayList<ResourceResolver>();
-            final PathBasedResourceResolverImpl resolver = new PathBasedResourceResolverImpl(resolvers, resourceProviderTracker, searchPaths);
+            final PathBasedResourceResolverImpl resolver = new PathBasedResourceResolverImpl(resolvers, resourceProviderTracker, searchPaths,
+                    resourceTypeCache);
             resolvers.add(resolver);
             return resolver;
         }
@@ -650,13 +746,19 @@ public class ResourceResolverImplTest {
         private final Map<String, Resource> resources = new HashMap<String, Resource>();
         private final String[] searchPaths;
 
-        public PathBasedResourceResolverImpl(final List<ResourceResolver> resolvers, final ResourceProviderTracker resourceProviderTracker, String[] searchPaths) throws LoginException {
+        public PathBasedResourceResolverImpl(final List<ResourceResolver> resolvers, final ResourceProviderTracker resourceProviderTracker, String[] searchPaths,
+                final ResourceTypeCache resourceTypeCache) throws LoginException {
             this(new CommonResourceResolverFactoryImpl(new ResourceResolverFactoryActivator()) {
                 @Override
                 public ResourceResolver getAdministrativeResourceResolver(
                         Map<String, Object> authenticationInfo) throws LoginException {
                     return resolvers.get(0);
                 }
+
+                @Override
+                public ResourceTypeCache getResourceTypeCache() {
+                    return resourceTypeCache;
+                }
             }, resourceProviderTracker, searchPaths);
         }
 
@@ -25,9 +25,15 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -41,9 +47,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -290,6 +298,132 @@ public class MapEntriesTest {
 
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test_vanity_path_snapshot_round_trip() throws Exception {
+        final File snapshot = enableVanitySnapshot();
+        setVanityPathResources(resourceResolver, getVanityPathResource("/justVanityPath"));
+        MapEntries first = new MapEntries(resourceResolverFactory, bundleContext, eventAdmin);
+        assertTrue(snapshot.exists());
+        first.dispose();
+
+        // the snapshot is served, the repository is only queried by the background refresh
+        setVanityPathResources(resourceResolver);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ResourceResolver refreshResolver = mock(ResourceResolver.class);
+        when(refreshResolver.findResources(anyString(), eq("sql"))).thenAnswer(new Answer<Iterator<Resource>>() {
+
+            @Override
+            public Iterator<Resource> answer(InvocationOnMock invocation) throws Throwable {
+                release.await(5, TimeUnit.SECONDS);
+                return Collections.singleton(getVanityPathResource("/justVanityPath")).iterator();
+            }
+        });
+        when(resourceResolver.clone(any(Map.class))).thenReturn(refreshResolver);
+        MapEntries second = new MapEntries(resourceResolverFactory, bundleContext, eventAdmin);
+        try {
+            assertTrue(hasVanityPath(second, "/vanity/justVanityPath"));
+        } finally {
+            release.countDown();
+            second.dispose();
+            snapshot.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test_vanity_path_snapshot_with_other_version_is_ignored() throws Exception {
+        final File snapshot = enableVanitySnapshot();
+        final DataOutputStream dos = new DataOutputStream(new FileOutputStream(snapshot));
+        try {
+            dos.writeInt(-1);
+        } finally {
+            dos.close();
+        }
+        setVanityPathResources(resourceResolver, getVanityPathResource("/justVanityPath"));
+        MapEntries entries = new MapEntries(resourceResolverFactory, bundleContext, eventAdmin);
+        try {
+            assertTrue(hasVanityPath(entries, "/vanity/justVanityPath"));
+            verify(resourceResolver, never()).clone(any(Map.class));
+
+            // the snapshot is replaced with the current version
+            final DataInputStream dis = new DataInputStream(new FileInputStream(snapshot));
+            try {
+                assertEquals(1, dis.readInt());
+            } finally {
+                dis.close();
+            }
+        } finally {
+            entries.dispose();
+            snapshot.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void test_vanity_path_snapshot_is_replaced_by_refresh() throws Exception {
+        final File snapshot = enableVanitySnapshot();
+        setVanityPathResources(resourceResolver, getVanityPathResource("/justVanityPath"));
+        new MapEntries(resourceResolverFactory, bundleContext, eventAdmin).dispose();
+
+        setVanityPathResources(resourceResolver);
+        final ResourceResolver refreshResolver = mock(ResourceResolver.class);
+        setVanityPathResources(refreshResolver, getVanityPathResource("/justVanityPath2"));
+        when(resourceResolver.clone(any(Map.class))).thenReturn(refreshResolver);
+        MapEntries entries = new MapEntries(resourceResolverFactory, bundleContext, eventAdmin);
+        try {
+            final long end = System.currentTimeMillis() + 5000;
+            while (!hasVanityPath(entries, "/vanity/justVanityPath2") && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            assertTrue(hasVanityPath(entries, "/vanity/justVanityPath2"));
+            assertFalse(hasVanityPath(entries, "/vanity/justVanityPath$"));
+            verify(refreshResolver).close();
+        } finally {
+            entries.dispose();
+        }
+
+        // the refreshed vanity paths are stored in the snapshot
+        setVanityPathResources(refreshResolver);
+        entries = new MapEntries(resourceResolverFactory, bundleContext, eventAdmin);
+        try {
+            assertTrue(hasVanityPath(entries, "/vanity/justVanityPath2"));
+        } finally {
+            entries.dispose();
+            snapshot.delete();
+        }
+    }
+
+    private File enableVanitySnapshot() {
+        final File snapshot = new File("target/vanitySnapshot.bin");
+        snapshot.delete();
+        when(bundleContext.getDataFile("vanitySnapshot.bin")).thenReturn(snapshot);
+        when(resourceResolverFactory.isVanityPathSnapshotEnabled()).thenReturn(true);
+        return snapshot;
+    }
+
+    private void setVanityPathResources(final ResourceResolver resolver, final Resource... resources) {
+        when(resolver.findResources(anyString(), eq("sql"))).thenAnswer(new Answer<Iterator<Resource>>() {
+
+            @Override
+            public Iterator<Resource> answer(InvocationOnMock invocation) throws Throwable {
+                if (invocation.getArguments()[0].toString().contains("sling:vanityPath")) {
+                    return Arrays.asList(resources).iterator();
+                }
+                return Collections.<Resource> emptySet().iterator();
+            }
+        });
+    }
+
+    private boolean hasVanityPath(final MapEntries entries, final String vanityPath) {
+        for (final MapEntry entry : entries.getResolveMaps()) {
+            if (entry.getPattern().contains(vanityPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private ValueMap buildValueMap(Object... string) {
         final Map<String, Object> data = new HashMap<String, Object>();
         for (int i = 0; i < string.length; i = i + 2) {
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MapEntryIndexTest {
+
+    @Test public void test_literal_prefix() {
+        assertEquals("http/localhost", MapEntryIndex.getLiteralPrefix("^http/localhost.80/", 1));
+        assertEquals("http/localhost.80/", MapEntryIndex.getLiteralPrefix("^http/localhost\\.80/", 1));
+        assertEquals("/content/tes", MapEntryIndex.getLiteralPrefix("^/content/test?", 1));
+        assertEquals("/content/", MapEntryIndex.getLiteralPrefix("^/content/\\d+", 1));
+        assertEquals("", MapEntryIndex.getLiteralPrefix("^(http|https)/", 1));
+    }
+
+    @Test public void test_candidates_keep_order() {
+        final List<MapEntry> entries = new ArrayList<MapEntry>();
+        entries.add(new MapEntry("^http/localhost\\.80/content/", -1, false, 0, "/content/"));
+        entries.add(new MapEntry("^http/example\\.com\\.80/", -1, false, 0, "/content/example/"));
+        entries.add(new MapEntry("^" + MapEntries.ANY_SCHEME_HOST + "/virtual$", -1, false, 0, "/content/virtual"));
+        entries.add(new MapEntry("^" + MapEntries.ANY_SCHEME_HOST + "/other$", -1, false, 0, "/content/other"));
+        entries.add(new MapEntry("^(http|https)/", -1, false, 0, "/"));
+        Collections.sort(entries);
+
+        final MapEntryIndex index = new MapEntryIndex(entries);
+        assertEquals(entries, index.getEntries());
+
+        assertCandidates(entries, index, "http/localhost.80/content/page.html");
+        assertCandidates(entries, index, "http/example.com.80/page.html");
+        assertCandidates(entries, index, "https/localhost.443/virtual");
+        assertCandidates(entries, index, "http/localhost.80/other");
+        assertCandidates(entries, index, "http/localhost.80/");
+
+        assertEquals(1, index.getCandidates("ftp/localhost.21/nothing").size());
+    }
+
+    @Test public void test_empty() {
+        assertTrue(MapEntryIndex.EMPTY.getCandidates("http/localhost.80/").isEmpty());
+    }
+
+    /**
+     * The candidates must contain every matching entry in the order of the
+     * complete list.
+     */
+    private void assertCandidates(final List<MapEntry> entries, final MapEntryIndex index, final String requestPath) {
+        final List<MapEntry> expected = new ArrayList<MapEntry>();
+        for (final MapEntry entry : entries) {
+            if (entry.replace(requestPath) != null) {
+                expected.add(entry);
+            }
+        }
+        final List<MapEntry> matching = new ArrayList<MapEntry>();
+        for (final MapEntry entry : index.getCandidates(requestPath)) {
+            if (entry.replace(requestPath) != null) {
+                matching.add(entry);
+            }
+        }
+        assertTrue(!expected.isEmpty());
+        assertEquals(expected, matching);
+    }
+}
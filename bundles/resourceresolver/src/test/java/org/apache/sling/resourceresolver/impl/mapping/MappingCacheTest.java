@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.sling.commons.metrics.MetricsService;
+import org.junit.Test;
+
+public class MappingCacheTest {
+
+    @Test public void test_key_contains_request_data() {
+        final MappingCache cache = new MappingCache(100, MetricsService.NOOP);
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getScheme()).thenReturn("http");
+        when(request.getServerName()).thenReturn("localhost");
+        when(request.getServerPort()).thenReturn(80);
+        when(request.getContextPath()).thenReturn("");
+
+        cache.put(cache.createKey(request, "/content/a", "admin"), "/a");
+        assertEquals("/a", cache.get(cache.createKey(request, "/content/a", "admin")));
+        assertNull(cache.get(cache.createKey(request, "/content/a", "anonymous")));
+        assertNull(cache.get(cache.createKey(null, "/content/a", "admin")));
+    }
+
+    @Test public void test_clear() {
+        final MappingCache cache = new MappingCache(100, MetricsService.NOOP);
+        cache.put(cache.createKey(null, "/content/a", null), "/a");
+        cache.put(cache.createKey(null, "/content/c", null), "/c");
+
+        cache.clear();
+        assertNull(cache.get(cache.createKey(null, "/content/a", null)));
+        assertNull(cache.get(cache.createKey(null, "/content/c", null)));
+    }
+
+    @Test public void test_mapping_computed_before_clear_is_not_cached() {
+        final MappingCache cache = new MappingCache(100, MetricsService.NOOP);
+        // the key is created before the mapping is computed, the cache is cleared meanwhile
+        final MappingCache.Key key = cache.createKey(null, "/content/a", null);
+        cache.clear();
+        cache.put(key, "/stale");
+        assertNull(cache.get(cache.createKey(null, "/content/a", null)));
+
+        final MappingCache.Key newKey = cache.createKey(null, "/content/a", null);
+        cache.put(newKey, "/a");
+        assertEquals("/a", cache.get(cache.createKey(null, "/content/a", null)));
+    }
+
+    @Test public void test_bounded() {
+        final MappingCache cache = new MappingCache(16, MetricsService.NOOP);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(cache.createKey(null, "/content/" + i, null), "/" + i);
+        }
+        int cached = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get(cache.createKey(null, "/content/" + i, null)) != null) {
+                cached++;
+            }
+        }
+        assertEquals(true, cached <= 16);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.observation;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.api.resource.path.PathSet;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+public class BasicObservationReporterTest {
+
+    private static final String[] SEARCH_PATH = new String[] {"/apps/", "/libs/"};
+
+    @Test
+    public void testChangesAreRoutedByPath() {
+        final RecordingListener apps = new RecordingListener();
+        final RecordingListener content = new RecordingListener();
+        final RecordingListener html = new RecordingListener();
+        final RecordingListener root = new RecordingListener();
+        final List<ResourceChangeListenerInfo> infos = Arrays.asList(
+                createInfo(apps, "/apps"),
+                createInfo(content, "/content/site"),
+                createInfo(html, "glob:/libs/**/*.html"),
+                createInfo(root, "/"));
+
+        final BasicObservationReporter reporter = new BasicObservationReporter(SEARCH_PATH, infos,
+                new Path("/"), PathSet.EMPTY_SET);
+        reporter.reportChanges(Arrays.asList(
+                change("/apps/a"),
+                change("/content/site"),
+                change("/content/sites"),
+                change("/libs/a/b/page.html"),
+                change("/libs/a/b/page.jsp"),
+                change("/content/site/page")), false);
+
+        assertEquals(Arrays.asList("/apps/a"), apps.paths);
+        assertEquals(Arrays.asList("/content/site", "/content/site/page"), content.paths);
+        assertEquals(Arrays.asList("/libs/a/b/page.html"), html.paths);
+        assertEquals(Arrays.asList("/apps/a", "/content/site", "/content/sites", "/libs/a/b/page.html",
+                "/libs/a/b/page.jsp", "/content/site/page"), root.paths);
+    }
+
+    @Test
+    public void testExcludedPathsAreNotReported() {
+        final RecordingListener content = new RecordingListener();
+        final BasicObservationReporter reporter = new BasicObservationReporter(SEARCH_PATH,
+                Arrays.asList(createInfo(content, "/content")),
+                new Path("/"), PathSet.fromStrings("/content/other"));
+        reporter.reportChanges(Arrays.asList(
+                change("/content/site"),
+                change("/content/other/page")), false);
+
+        assertEquals(Arrays.asList("/content/site"), content.paths);
+    }
+
+    @Test
+    public void testGetPrefix() {
+        assertEquals("/apps", ObserverConfigurationIndex.getPrefix(new Path("/apps")));
+        assertEquals("/", ObserverConfigurationIndex.getPrefix(new Path("/")));
+        assertEquals("/libs", ObserverConfigurationIndex.getPrefix(new Path("glob:/libs/**/*.html")));
+        assertEquals("/libs/a", ObserverConfigurationIndex.getPrefix(new Path("glob:/libs/a/b*")));
+        assertEquals("/", ObserverConfigurationIndex.getPrefix(new Path("glob:/**")));
+    }
+
+    private static ResourceChange change(final String path) {
+        return new ResourceChange(ChangeType.CHANGED, path, false, null, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResourceChangeListenerInfo createInfo(final ResourceChangeListener listener, final String path) {
+        final ServiceReference<ResourceChangeListener> reference = mock(ServiceReference.class);
+        when(reference.getProperty(ResourceChangeListener.PATHS)).thenReturn(new String[] {path});
+        final ResourceChangeListenerInfo info = new ResourceChangeListenerInfo(reference, SEARCH_PATH);
+        info.setListener(listener);
+        return info;
+    }
+
+    private static final class RecordingListener implements ResourceChangeListener {
+
+        private final List<String> paths = new ArrayList<>();
+
+        @Override
+        public void onChange(final List<ResourceChange> changes) {
+            for (final ResourceChange change : changes) {
+                paths.add(change.getPath());
+            }
+        }
+    }
+}
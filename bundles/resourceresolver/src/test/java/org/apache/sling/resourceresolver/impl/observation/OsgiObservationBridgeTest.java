@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.observation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.SlingConstants;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+public class OsgiObservationBridgeTest {
+
+    private OsgiObservationBridge bridge;
+
+    private EventAdmin eventAdmin;
+
+    private ResourceResolver resolver;
+
+    private Counter dropped;
+
+    @SuppressWarnings("deprecation")
+    @Before
+    public void setUp() throws Exception {
+        eventAdmin = mock(EventAdmin.class);
+        resolver = mock(ResourceResolver.class);
+        final ResourceResolverFactory factory = mock(ResourceResolverFactory.class);
+        when(factory.getAdministrativeResourceResolver(null)).thenReturn(resolver);
+        dropped = mock(Counter.class);
+        final MetricsService metricsService = mock(MetricsService.class);
+        when(metricsService.counter(anyString())).thenReturn(mock(Counter.class));
+        when(metricsService.counter("sling.resourceresolver.observation.osgi.dropped")).thenReturn(dropped);
+
+        bridge = new OsgiObservationBridge();
+        setField("eventAdmin", eventAdmin);
+        setField("resolverFactory", factory);
+        setField("metricsService", metricsService);
+    }
+
+    @After
+    public void tearDown() {
+        bridge.deactivate();
+    }
+
+    @Test
+    public void testModificationsAreCoalesced() throws Exception {
+        bridge.activate(createConfig(0, "BLOCK", 500, 1000));
+        bridge.onChange(Arrays.asList(
+                change(ChangeType.ADDED, "/a", false, null),
+                change(ChangeType.CHANGED, "/a", false, "x"),
+                change(ChangeType.CHANGED, "/b", false, "x"),
+                change(ChangeType.CHANGED, "/b", false, "y"),
+                change(ChangeType.REMOVED, "/a", false, null),
+                change(ChangeType.CHANGED, "/b", true, "z")));
+
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventAdmin, timeout(5000).times(4)).sendEvent(events.capture());
+        final List<Event> sent = events.getAllValues();
+        assertEvent(sent.get(0), SlingConstants.TOPIC_RESOURCE_ADDED, "/a");
+        assertEvent(sent.get(1), SlingConstants.TOPIC_RESOURCE_CHANGED, "/b");
+        final String[] changed = (String[]) sent.get(1).getProperty(SlingConstants.PROPERTY_CHANGED_ATTRIBUTES);
+        Arrays.sort(changed);
+        assertArrayEquals(new String[] {"x", "y"}, changed);
+        assertEvent(sent.get(2), SlingConstants.TOPIC_RESOURCE_REMOVED, "/a");
+        assertEvent(sent.get(3), SlingConstants.TOPIC_RESOURCE_CHANGED, "/b");
+        assertEquals("unknown", sent.get(3).getProperty("event.application"));
+
+        // the resources are not found, the resolver is only refreshed once for the batch
+        verify(resolver, times(1)).refresh();
+    }
+
+    @Test
+    public void testNewChangesAreDroppedIfQueueIsFull() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                sending.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(eventAdmin).sendEvent(any(Event.class));
+
+        bridge.activate(createConfig(1, "DROP_NEWEST", 0, 1));
+        bridge.onChange(Collections.singletonList(change(ChangeType.REMOVED, "/a", false, null)));
+        sending.await(5, TimeUnit.SECONDS);
+        bridge.onChange(Arrays.asList(
+                change(ChangeType.REMOVED, "/b", false, null),
+                change(ChangeType.REMOVED, "/c", false, null),
+                change(ChangeType.REMOVED, "/d", false, null)));
+        verify(dropped, times(2)).increment();
+        release.countDown();
+
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventAdmin, timeout(5000).times(2)).sendEvent(events.capture());
+        assertEvent(events.getAllValues().get(0), SlingConstants.TOPIC_RESOURCE_REMOVED, "/a");
+        assertEvent(events.getAllValues().get(1), SlingConstants.TOPIC_RESOURCE_REMOVED, "/b");
+    }
+
+    @Test
+    public void testOldestChangesAreDroppedIfQueueIsFull() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                sending.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(eventAdmin).sendEvent(any(Event.class));
+
+        bridge.activate(createConfig(1, "DROP_OLDEST", 0, 1));
+        bridge.onChange(Collections.singletonList(change(ChangeType.REMOVED, "/a", false, null)));
+        sending.await(5, TimeUnit.SECONDS);
+        bridge.onChange(Arrays.asList(
+                change(ChangeType.REMOVED, "/b", false, null),
+                change(ChangeType.REMOVED, "/c", false, null),
+                change(ChangeType.REMOVED, "/d", false, null)));
+        verify(dropped, times(2)).increment();
+        release.countDown();
+
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventAdmin, timeout(5000).times(2)).sendEvent(events.capture());
+        assertEvent(events.getAllValues().get(0), SlingConstants.TOPIC_RESOURCE_REMOVED, "/a");
+        assertEvent(events.getAllValues().get(1), SlingConstants.TOPIC_RESOURCE_REMOVED, "/d");
+    }
+
+    @Test
+    public void testChangesAreNotDroppedIfQueueIsNotBounded() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                sending.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(eventAdmin).sendEvent(any(Event.class));
+
+        bridge.activate(createConfig(0, "DROP_OLDEST", 0, 1));
+        bridge.onChange(Collections.singletonList(change(ChangeType.REMOVED, "/a", false, null)));
+        sending.await(5, TimeUnit.SECONDS);
+        bridge.onChange(Arrays.asList(
+                change(ChangeType.REMOVED, "/b", false, null),
+                change(ChangeType.REMOVED, "/c", false, null),
+                change(ChangeType.REMOVED, "/d", false, null)));
+        release.countDown();
+
+        final ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventAdmin, timeout(5000).times(4)).sendEvent(events.capture());
+        assertEvent(events.getAllValues().get(3), SlingConstants.TOPIC_RESOURCE_REMOVED, "/d");
+        verify(dropped, never()).increment();
+    }
+
+    private static void assertEvent(final Event event, final String topic, final String path) {
+        assertEquals(topic, event.getTopic());
+        assertEquals(path, event.getProperty(SlingConstants.PROPERTY_PATH));
+    }
+
+    private static ResourceChange change(final ChangeType type, final String path, final boolean external,
+            final String changedProperty) {
+        final Set<String> changed = changedProperty == null ? null : new HashSet<String>(Arrays.asList(changedProperty));
+        return new ResourceChange(type, path, external, null, changed, null);
+    }
+
+    private static OsgiObservationBridgeConfig createConfig(final int queueSize, final String overflowPolicy,
+            final long coalescingWindow, final int batchSize) {
+        final OsgiObservationBridgeConfig config = mock(OsgiObservationBridgeConfig.class);
+        when(config.queue_size()).thenReturn(queueSize);
+        when(config.queue_overflow_policy()).thenReturn(overflowPolicy);
+        when(config.coalescing_window()).thenReturn(coalescingWindow);
+        when(config.batch_size()).thenReturn(batchSize);
+        return config;
+    }
+
+    private void setField(final String name, final Object value) throws Exception {
+        final Field field = OsgiObservationBridge.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(bridge, value);
+    }
+}
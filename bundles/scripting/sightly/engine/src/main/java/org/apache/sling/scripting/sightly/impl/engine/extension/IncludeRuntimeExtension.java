@@ -19,7 +19,6 @@
 package org.apache.sling.scripting.sightly.impl.engine.extension;
 
 import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.Map;
 import javax.script.Bindings;
 import javax.servlet.Servlet;
@@ -36,6 +35,7 @@ import org.apache.sling.scripting.sightly.impl.utils.BindingsUtils;
 import org.apache.sling.scripting.sightly.render.RenderContext;
 import org.apache.sling.scripting.sightly.render.RuntimeObjectModel;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +56,8 @@ public class IncludeRuntimeExtension implements RuntimeExtension {
     private static final String OPTION_APPEND_PATH = "appendPath";
     private static final String OPTION_REQUEST_ATTRIBUTES = "requestAttributes";
 
+    @Reference
+    private OutputBufferPool outputBufferPool;
 
     @Override
     public Object call(final RenderContext renderContext, Object... arguments) {
@@ -64,13 +66,17 @@ public class IncludeRuntimeExtension implements RuntimeExtension {
         String originalPath = runtimeObjectModel.toString(arguments[0]);
         Map options = (Map) arguments[1];
         String path = buildPath(originalPath, options);
-        StringWriter output = new StringWriter();
-        final Bindings bindings = renderContext.getBindings();
-        SlingHttpServletRequest request = BindingsUtils.getRequest(bindings);
-        Map originalAttributes = ExtensionUtils.setRequestAttributes(request, (Map)options.remove(OPTION_REQUEST_ATTRIBUTES));
-        includeScript(bindings, path, new PrintWriter(output));
-        ExtensionUtils.setRequestAttributes(request, originalAttributes);
-        return output.toString();
+        OutputBuffer output = outputBufferPool.newBuffer();
+        try {
+            final Bindings bindings = renderContext.getBindings();
+            SlingHttpServletRequest request = BindingsUtils.getRequest(bindings);
+            Map originalAttributes = ExtensionUtils.setRequestAttributes(request, (Map)options.remove(OPTION_REQUEST_ATTRIBUTES));
+            includeScript(bindings, path, new PrintWriter(output));
+            ExtensionUtils.setRequestAttributes(request, originalAttributes);
+            return output.toString();
+        } finally {
+            output.release();
+        }
 
     }
 
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine.extension;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer which captures the output of an include into chunks taken from an {@link OutputBufferPool}. Unlike a
+ * {@link java.io.StringWriter} the buffer never copies its content while growing and its chunks are reused by later
+ * includes once the buffer has been {@link #release() released}. This writer is not thread-safe.
+ */
+public class OutputBuffer extends Writer {
+
+    private final OutputBufferPool pool;
+    private final List<char[]> chunks = new ArrayList<>();
+    private char[] current;
+    private int position;
+    private int length;
+
+    OutputBuffer(OutputBufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(int c) {
+        ensureCapacity();
+        current[position++] = (char) c;
+        length++;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        while (len > 0) {
+            ensureCapacity();
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(cbuf, off, current, position, count);
+            position += count;
+            length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        while (len > 0) {
+            ensureCapacity();
+            int count = Math.min(len, current.length - position);
+            str.getChars(off, off + count, current, position);
+            position += count;
+            length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return the number of characters written to this buffer
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the chunks of this buffer to the pool. The buffer is empty afterwards and can be reused.
+     */
+    public void release() {
+        for (char[] chunk : chunks) {
+            pool.release(chunk);
+        }
+        chunks.clear();
+        current = null;
+        position = 0;
+        length = 0;
+    }
+
+    @Override
+    public String toString() {
+        if (chunks.isEmpty()) {
+            return "";
+        }
+        if (chunks.size() == 1) {
+            return new String(current, 0, position);
+        }
+        // join the chunks into an exactly sized array, the string is created from it without trimming
+        char[] content = new char[length];
+        int offset = 0;
+        for (char[] chunk : chunks) {
+            int count = chunk == current ? position : chunk.length;
+            System.arraycopy(chunk, 0, content, offset, count);
+            offset += count;
+        }
+        return new String(content);
+    }
+
+    private void ensureCapacity() {
+        if (current == null || position == current.length) {
+            current = pool.acquire();
+            chunks.add(current);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine.extension;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Pool of the character chunks used by the {@link OutputBuffer}s which capture the output of {@code data-sly-include} and
+ * {@code data-sly-resource}. Reusing the chunks avoids allocating and growing a new buffer for every include.
+ */
+@Component(
+        service = {OutputBufferPool.class, OutputBufferPoolMBean.class},
+        property = {
+                "jmx.objectname=org.apache.sling:type=scripting-htl,name=OutputBufferPool"
+        }
+)
+public class OutputBufferPool implements OutputBufferPoolMBean {
+
+    static final int CHUNK_SIZE = 4096;
+    static final int MAX_POOLED_CHUNKS = 512;
+
+    private final Queue<char[]> chunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledChunks = new AtomicInteger();
+    private final AtomicLong allocatedChunks = new AtomicLong();
+    private final AtomicLong reusedChunks = new AtomicLong();
+    private final AtomicLong discardedChunks = new AtomicLong();
+
+    /**
+     * Creates a new buffer using chunks of this pool. The buffer has to be {@link OutputBuffer#release() released} once its
+     * content is not needed any more.
+     *
+     * @return the buffer
+     */
+    public OutputBuffer newBuffer() {
+        return new OutputBuffer(this);
+    }
+
+    char[] acquire() {
+        char[] chunk = chunks.poll();
+        if (chunk == null) {
+            allocatedChunks.incrementAndGet();
+            return new char[CHUNK_SIZE];
+        }
+        pooledChunks.decrementAndGet();
+        reusedChunks.incrementAndGet();
+        return chunk;
+    }
+
+    void release(char[] chunk) {
+        if (pooledChunks.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+            chunks.offer(chunk);
+        } else {
+            pooledChunks.decrementAndGet();
+            discardedChunks.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int getChunkSize() {
+        return CHUNK_SIZE;
+    }
+
+    @Override
+    public int getMaxPooledChunks() {
+        return MAX_POOLED_CHUNKS;
+    }
+
+    @Override
+    public int getPooledChunks() {
+        return pooledChunks.get();
+    }
+
+    @Override
+    public long getAllocatedChunks() {
+        return allocatedChunks.get();
+    }
+
+    @Override
+    public long getReusedChunks() {
+        return reusedChunks.get();
+    }
+
+    @Override
+    public long getDiscardedChunks() {
+        return discardedChunks.get();
+    }
+}
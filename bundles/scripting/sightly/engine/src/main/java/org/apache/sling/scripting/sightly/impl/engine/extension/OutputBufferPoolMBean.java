@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine.extension;
+
+/**
+ * Management interface of the {@link OutputBufferPool}.
+ */
+public interface OutputBufferPoolMBean {
+
+    /**
+     * @return the size of a chunk in characters
+     */
+    int getChunkSize();
+
+    /**
+     * @return the maximum number of chunks kept in the pool
+     */
+    int getMaxPooledChunks();
+
+    /**
+     * @return the number of chunks currently kept in the pool
+     */
+    int getPooledChunks();
+
+    /**
+     * @return the number of chunks which have been allocated because the pool was empty
+     */
+    long getAllocatedChunks();
+
+    /**
+     * @return the number of chunks which have been taken from the pool
+     */
+    long getReusedChunks();
+
+    /**
+     * @return the number of released chunks which have been dropped because the pool was full
+     */
+    long getDiscardedChunks();
+}
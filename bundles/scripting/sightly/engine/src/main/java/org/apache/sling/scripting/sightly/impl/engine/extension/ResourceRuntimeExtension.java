@@ -19,7 +19,6 @@
 package org.apache.sling.scripting.sightly.impl.engine.extension;
 
 import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -41,6 +40,7 @@ import org.apache.sling.scripting.sightly.extension.RuntimeExtension;
 import org.apache.sling.scripting.sightly.impl.utils.BindingsUtils;
 import org.apache.sling.scripting.sightly.render.RenderContext;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * Runtime support for including resources in a HTL script through {@code data-sly-resource}.
@@ -63,6 +63,9 @@ public class ResourceRuntimeExtension implements RuntimeExtension {
     private static final String OPTION_REPLACE_SELECTORS = "replaceSelectors";
     private static final String OPTION_REQUEST_ATTRIBUTES = "requestAttributes";
 
+    @Reference
+    private OutputBufferPool outputBufferPool;
+
     @Override
     public Object call(final RenderContext renderContext, Object... arguments) {
         ExtensionUtils.checkArgumentCount(RuntimeFunction.RESOURCE, arguments, 2);
@@ -75,22 +78,26 @@ public class ResourceRuntimeExtension implements RuntimeExtension {
         SlingHttpServletRequest request = BindingsUtils.getRequest(bindings);
         Map originalAttributes = ExtensionUtils.setRequestAttributes(request, (Map)options.remove(OPTION_REQUEST_ATTRIBUTES));
         String resourceType = coerceString(getAndRemoveOption(opts, OPTION_RESOURCE_TYPE));
-        StringWriter writer = new StringWriter();
-        PrintWriter printWriter = new PrintWriter(writer);
-        if (pathObj instanceof Resource) {
-            Resource includeRes = (Resource) pathObj;
-            Map<String, String> dispatcherOptionsMap = handleSelectors(bindings, new LinkedHashSet<String>(), opts);
-            String dispatcherOptions = createDispatcherOptions(dispatcherOptionsMap);
-            includeResource(bindings, printWriter, includeRes, dispatcherOptions, resourceType);
-        } else {
-            PathInfo pathInfo = new PathInfo(coerceString(pathObj));
-            String finalPath = buildPath(pathInfo.path, opts, BindingsUtils.getResource(bindings));
-            Map<String, String> dispatcherOptionsMap = handleSelectors(bindings, pathInfo.selectors, opts);
-            String dispatcherOptions = createDispatcherOptions(dispatcherOptionsMap);
-            includeResource(bindings, printWriter, finalPath, dispatcherOptions, resourceType);
+        OutputBuffer writer = outputBufferPool.newBuffer();
+        try {
+            PrintWriter printWriter = new PrintWriter(writer);
+            if (pathObj instanceof Resource) {
+                Resource includeRes = (Resource) pathObj;
+                Map<String, String> dispatcherOptionsMap = handleSelectors(bindings, new LinkedHashSet<String>(), opts);
+                String dispatcherOptions = createDispatcherOptions(dispatcherOptionsMap);
+                includeResource(bindings, printWriter, includeRes, dispatcherOptions, resourceType);
+            } else {
+                PathInfo pathInfo = new PathInfo(coerceString(pathObj));
+                String finalPath = buildPath(pathInfo.path, opts, BindingsUtils.getResource(bindings));
+                Map<String, String> dispatcherOptionsMap = handleSelectors(bindings, pathInfo.selectors, opts);
+                String dispatcherOptions = createDispatcherOptions(dispatcherOptionsMap);
+                includeResource(bindings, printWriter, finalPath, dispatcherOptions, resourceType);
+            }
+            ExtensionUtils.setRequestAttributes(request, originalAttributes);
+            return writer.toString();
+        } finally {
+            writer.release();
         }
-        ExtensionUtils.setRequestAttributes(request, originalAttributes);
-        return writer.toString();
     }
 
     private Map<String, String> handleSelectors(Bindings bindings, Set<String> selectors, Map<String, Object> options) {
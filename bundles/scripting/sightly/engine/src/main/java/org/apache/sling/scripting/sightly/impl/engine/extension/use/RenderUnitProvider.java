@@ -21,6 +21,11 @@ package org.apache.sling.scripting.sightly.impl.engine.extension.use;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
 import javax.script.Bindings;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngineManager;
@@ -28,6 +33,10 @@ import javax.script.ScriptEngineManager;
 import org.apache.commons.lang.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.CachedScript;
 import org.apache.sling.scripting.api.ScriptCache;
@@ -51,19 +60,30 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
 /**
- * Interprets identifiers as paths to other HTL templates
+ * Interprets identifiers as paths to other HTL templates.
+ * <p>
+ * The search path resolution of an identifier only depends on the resource type of the request's resource, the calling script and
+ * the content of the search paths, so the resolved script paths are cached independently of the request and cleared whenever
+ * anything under the search paths changes.
  */
 @Component(
-        service = UseProvider.class,
+        service = {UseProvider.class, ResourceChangeListener.class},
         configurationPid = "org.apache.sling.scripting.sightly.impl.engine.extension.use.RenderUnitProvider",
         property = {
-                Constants.SERVICE_RANKING + ":Integer=100"
+                Constants.SERVICE_RANKING + ":Integer=100",
+                ResourceChangeListener.PATHS + "=.",
+                ResourceChangeListener.CHANGES + "=ADDED",
+                ResourceChangeListener.CHANGES + "=CHANGED",
+                ResourceChangeListener.CHANGES + "=REMOVED"
         }
 )
 @Designate(
         ocd = RenderUnitProvider.Configuration.class
 )
-public class RenderUnitProvider implements UseProvider {
+public class RenderUnitProvider implements UseProvider, ResourceChangeListener, ExternalResourceChangeListener {
+
+    /** maximum number of cached script resolutions, the cache is cleared once it is reached */
+    static final int MAX_RESOLUTIONS = 1000;
 
     @ObjectClassDefinition(
             name = "Apache Sling Scripting HTL Render Unit Use Provider Configuration",
@@ -88,14 +108,16 @@ public class RenderUnitProvider implements UseProvider {
     @Reference
     private ScriptingResourceResolverProvider scriptingResourceResolverProvider;
 
+    private final ConcurrentMap<List<String>, String> resolvedScripts = new ConcurrentHashMap<>();
+
     @Override
     public ProviderOutcome provide(String identifier, RenderContext renderContext, Bindings arguments) {
         if (identifier.endsWith("." + SightlyScriptEngineFactory.EXTENSION)) {
             Bindings globalBindings = renderContext.getBindings();
             SlingScriptHelper sling = BindingsUtils.getHelper(globalBindings);
             SlingHttpServletRequest request = BindingsUtils.getRequest(globalBindings);
-            final Resource renderUnitResource = ScriptUtils.resolveScript(scriptingResourceResolverProvider
-                    .getRequestScopedResourceResolver(), renderContext, identifier);
+            final Resource renderUnitResource = resolveScript(scriptingResourceResolverProvider.getRequestScopedResourceResolver(),
+                    renderContext, request, sling, identifier);
             if (renderUnitResource == null) {
                 Resource caller = ResourceResolution.getResourceForRequest(request.getResourceResolver(), request);
                 if (caller != null) {
@@ -151,4 +173,32 @@ public class RenderUnitProvider implements UseProvider {
         }
         return ProviderOutcome.failure();
     }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        // the super type chain of any component might have changed
+        resolvedScripts.clear();
+    }
+
+    private Resource resolveScript(ResourceResolver resolver, RenderContext renderContext, SlingHttpServletRequest request,
+                                   SlingScriptHelper sling, String identifier) {
+        List<String> key = Arrays.asList(request.getResource().getResourceType(), sling.getScript().getScriptResource().getPath(),
+                identifier);
+        String path = resolvedScripts.get(key);
+        if (path != null) {
+            Resource resource = resolver.getResource(path);
+            if (resource != null) {
+                return resource;
+            }
+            resolvedScripts.remove(key);
+        }
+        Resource resource = ScriptUtils.resolveScript(resolver, renderContext, identifier);
+        if (resource != null) {
+            if (resolvedScripts.size() >= MAX_RESOLUTIONS) {
+                resolvedScripts.clear();
+            }
+            resolvedScripts.put(key, resource.getPath());
+        }
+        return resource;
+    }
 }
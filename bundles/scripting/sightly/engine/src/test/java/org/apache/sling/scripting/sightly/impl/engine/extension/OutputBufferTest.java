@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine.extension;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OutputBufferTest {
+
+    @Test
+    public void testWriteAcrossChunks() {
+        OutputBufferPool pool = new OutputBufferPool();
+        OutputBuffer buffer = pool.newBuffer();
+        assertEquals("", buffer.toString());
+
+        StringBuilder expected = new StringBuilder();
+        PrintWriter writer = new PrintWriter(buffer);
+        for (int i = 0; i < 2000; i++) {
+            writer.print("line " + i);
+            writer.print('\n');
+            expected.append("line ").append(i).append('\n');
+        }
+        char[] chars = new char[OutputBufferPool.CHUNK_SIZE + 10];
+        Arrays.fill(chars, 'x');
+        writer.write(chars);
+        expected.append(chars);
+        writer.flush();
+
+        assertEquals(expected.length(), buffer.length());
+        assertEquals(expected.toString(), buffer.toString());
+    }
+
+    @Test
+    public void testChunksAreReused() throws Exception {
+        OutputBufferPool pool = new OutputBufferPool();
+        OutputBuffer buffer = pool.newBuffer();
+        buffer.write(new char[OutputBufferPool.CHUNK_SIZE * 2 + 1], 0, OutputBufferPool.CHUNK_SIZE * 2 + 1);
+        assertEquals(3, pool.getAllocatedChunks());
+        buffer.release();
+        assertEquals(0, buffer.length());
+        assertEquals(3, pool.getPooledChunks());
+
+        OutputBuffer other = pool.newBuffer();
+        other.write("test");
+        assertEquals("test", other.toString());
+        assertEquals(3, pool.getAllocatedChunks());
+        assertEquals(1, pool.getReusedChunks());
+        assertEquals(2, pool.getPooledChunks());
+        other.release();
+        assertEquals(3, pool.getPooledChunks());
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        OutputBufferPool pool = new OutputBufferPool();
+        for (int i = 0; i < OutputBufferPool.MAX_POOLED_CHUNKS + 5; i++) {
+            pool.release(new char[OutputBufferPool.CHUNK_SIZE]);
+        }
+        assertEquals(OutputBufferPool.MAX_POOLED_CHUNKS, pool.getPooledChunks());
+        assertEquals(5, pool.getDiscardedChunks());
+    }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine.extension.use;
+
+import java.util.Collections;
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.api.scripting.SlingScriptHelper;
+import org.apache.sling.scripting.api.CachedScript;
+import org.apache.sling.scripting.api.ScriptCache;
+import org.apache.sling.scripting.api.resource.ScriptingResourceResolverProvider;
+import org.apache.sling.scripting.sightly.impl.engine.SightlyCompiledScript;
+import org.apache.sling.scripting.sightly.java.compiler.RenderUnit;
+import org.apache.sling.scripting.sightly.render.RenderContext;
+import org.apache.sling.scripting.sightly.use.ProviderOutcome;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RenderUnitProviderTest {
+
+    private static final String TEMPLATE_PATH = "/apps/my/base/template.html";
+
+    private RenderUnitProvider provider;
+
+    private RenderContext renderContext;
+
+    private ResourceResolver resolver;
+
+    private Resource component;
+
+    private RenderUnit renderUnit;
+
+    @Before
+    public void setUp() {
+        resolver = mock(ResourceResolver.class);
+        when(resolver.getSearchPath()).thenReturn(new String[] {"/apps/"});
+
+        component = mockResource("/apps/my/component");
+        Resource base = mockResource("/apps/my/base");
+        Resource template = mockResource(TEMPLATE_PATH);
+        when(resolver.getResource("/apps/my/component")).thenReturn(component);
+        when(resolver.getParentResourceType(component)).thenReturn("my/base");
+        when(resolver.getResource("my/base")).thenReturn(base);
+        when(resolver.getResource(base, "template.html")).thenReturn(template);
+        when(resolver.getResource(TEMPLATE_PATH)).thenReturn(template);
+
+        SlingHttpServletRequest request = mock(SlingHttpServletRequest.class, RETURNS_DEEP_STUBS);
+        when(request.getResource().getResourceType()).thenReturn("my/component");
+        SlingScriptHelper sling = mock(SlingScriptHelper.class, RETURNS_DEEP_STUBS);
+        when(sling.getScript().getScriptResource().getPath()).thenReturn("/apps/my/component/component.html");
+        Bindings bindings = new SimpleBindings();
+        bindings.put(SlingBindings.REQUEST, request);
+        bindings.put(SlingBindings.SLING, sling);
+        renderContext = mock(RenderContext.class);
+        when(renderContext.getBindings()).thenReturn(bindings);
+
+        renderUnit = mock(RenderUnit.class);
+        SightlyCompiledScript compiledScript = mock(SightlyCompiledScript.class);
+        when(compiledScript.getRenderUnit()).thenReturn(renderUnit);
+        CachedScript cachedScript = mock(CachedScript.class);
+        when(cachedScript.getCompiledScript()).thenReturn(compiledScript);
+        ScriptCache scriptCache = mock(ScriptCache.class);
+        when(scriptCache.getScript(TEMPLATE_PATH)).thenReturn(cachedScript);
+        ScriptingResourceResolverProvider resolverProvider = mock(ScriptingResourceResolverProvider.class);
+        when(resolverProvider.getRequestScopedResourceResolver()).thenReturn(resolver);
+
+        provider = new RenderUnitProvider();
+        Whitebox.setInternalState(provider, "scriptCache", scriptCache);
+        Whitebox.setInternalState(provider, "scriptingResourceResolverProvider", resolverProvider);
+    }
+
+    @Test
+    public void testResolutionIsCached() {
+        assertProvided();
+        assertProvided();
+        verify(resolver, times(1)).getParentResourceType(component);
+    }
+
+    @Test
+    public void testResolutionIsClearedOnChange() {
+        assertProvided();
+        provider.onChange(Collections.singletonList(new ResourceChange(ResourceChange.ChangeType.CHANGED, "/apps/my/component", false,
+                null, null, null)));
+        assertProvided();
+        verify(resolver, times(2)).getParentResourceType(component);
+    }
+
+    private void assertProvided() {
+        ProviderOutcome outcome = provider.provide("template.html", renderContext, new SimpleBindings());
+        assertTrue(outcome.isSuccess());
+        assertSame(renderUnit, outcome.getResult());
+    }
+
+    private Resource mockResource(String path) {
+        Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.getResourceResolver()).thenReturn(resolver);
+        return resource;
+    }
+}
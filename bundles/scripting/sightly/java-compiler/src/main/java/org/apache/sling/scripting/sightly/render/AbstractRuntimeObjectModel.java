@@ -30,6 +30,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.sling.scripting.sightly.Record;
@@ -61,6 +63,22 @@ public abstract class AbstractRuntimeObjectModel implements RuntimeObjectModel {
 
     public static final String TO_STRING_METHOD = "toString";
 
+    /**
+     * Marker for properties without a method or field accessor.
+     */
+    private static final Object NO_ACCESSOR = new Object();
+
+    /**
+     * The method and field accessors per class and property name, including the properties
+     * without an accessor. This avoids scanning the methods of a class on each evaluation.
+     */
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<Accessors>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return new Accessors();
+        }
+    };
+
     @Override
     public boolean isPrimitive(Object obj) {
         return PRIMITIVE_CLASSES.contains(obj.getClass());
@@ -291,21 +309,41 @@ public abstract class AbstractRuntimeObjectModel implements RuntimeObjectModel {
             return ((Object[]) obj).length;
         }
         Class<?> cls = obj.getClass();
+        ConcurrentMap<String, Object> fields = ACCESSORS.get(cls).fields;
+        Object field = fields.get(property);
+        if (field == null) {
+            field = findField(cls, property);
+            fields.put(property, field);
+        }
+        if (field == NO_ACCESSOR) {
+            return null;
+        }
         try {
-            Field field = cls.getDeclaredField(property);
-            return field.get(obj);
+            return ((Field) field).get(obj);
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static Object findField(Class<?> cls, String property) {
+        try {
+            return cls.getDeclaredField(property);
+        } catch (NoSuchFieldException | SecurityException e) {
+            return NO_ACCESSOR;
+        }
+    }
+
     protected Object getObjectNoArgMethod(Object obj, String property) {
         Class<?> cls = obj.getClass();
-        Method method = findMethod(cls, property);
-        if (method != null) {
-            method = extractMethodInheritanceChain(cls, method);
+        ConcurrentMap<String, Object> methods = ACCESSORS.get(cls).methods;
+        Object method = methods.get(property);
+        if (method == null) {
+            method = findAccessorMethod(cls, property);
+            methods.put(property, method);
+        }
+        if (method != NO_ACCESSOR) {
             try {
-                return method.invoke(obj);
+                return ((Method) method).invoke(obj);
             } catch (Exception e) {
                 LOGGER.error("Cannot access method " + property + " on object " + obj.toString(), e);
             }
@@ -313,6 +351,17 @@ public abstract class AbstractRuntimeObjectModel implements RuntimeObjectModel {
         return null;
     }
 
+    private Object findAccessorMethod(Class<?> cls, String property) {
+        Method method = findMethod(cls, property);
+        if (method != null) {
+            method = extractMethodInheritanceChain(cls, method);
+            if (method != null) {
+                return method;
+            }
+        }
+        return NO_ACCESSOR;
+    }
+
     protected static Method findMethod(Class<?> cls, String baseName) {
         Method[] publicMethods = cls.getMethods();
         String capitalized = StringUtils.capitalize(baseName);
@@ -367,5 +416,10 @@ public abstract class AbstractRuntimeObjectModel implements RuntimeObjectModel {
         return null;
     }
 
+    private static final class Accessors {
+        /** The accessor {@link Method} or {@link #NO_ACCESSOR} per property name. */
+        private final ConcurrentMap<String, Object> methods = new ConcurrentHashMap<>();
+        /** The accessor {@link Field} or {@link #NO_ACCESSOR} per property name. */
+        private final ConcurrentMap<String, Object> fields = new ConcurrentHashMap<>();
+    }
 }
-
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.render;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AbstractRuntimeObjectModelTest {
+
+    private final AbstractRuntimeObjectModel model = new AbstractRuntimeObjectModel() {};
+
+    @Test
+    public void testMethodProperties() {
+        Bean bean = new Bean();
+        assertEquals("text", model.resolveProperty(bean, "text"));
+        assertEquals(true, model.resolveProperty(bean, "valid"));
+        assertEquals("direct", model.resolveProperty(bean, "direct"));
+        // resolved again from the cache
+        assertEquals("text", model.resolveProperty(bean, "text"));
+        assertEquals(true, model.resolveProperty(bean, "valid"));
+    }
+
+    @Test
+    public void testFieldProperties() {
+        Bean bean = new Bean();
+        assertEquals("field", model.resolveProperty(bean, "field"));
+        assertEquals("constant", model.resolveProperty(bean, "CONSTANT"));
+        assertEquals(3, model.resolveProperty(new String[] {"a", "b", "c"}, "length"));
+    }
+
+    @Test
+    public void testMissingProperties() {
+        Bean bean = new Bean();
+        assertNull(model.resolveProperty(bean, "missing"));
+        assertNull(model.resolveProperty(bean, "missing"));
+        assertNull(model.resolveProperty(bean, "hidden"));
+        // methods of Object are not allowed, except toString
+        assertNull(model.resolveProperty(bean, "class"));
+        assertEquals("bean", model.resolveProperty(bean, "toString"));
+    }
+
+    @Test
+    public void testNonPublicImplementation() {
+        assertEquals("implementation", model.resolveProperty(HiddenImplementation.create(), "name"));
+    }
+
+    @Test
+    public void testFailingMethod() {
+        assertNull(model.resolveProperty(new Bean(), "failing"));
+    }
+
+    public interface Named {
+        String getName();
+    }
+
+    private static class HiddenImplementation implements Named {
+
+        static Named create() {
+            return new HiddenImplementation();
+        }
+
+        @Override
+        public String getName() {
+            return "implementation";
+        }
+    }
+
+    public static class Bean {
+
+        public static final String CONSTANT = "constant";
+
+        public String field = "field";
+
+        private String hidden = "hidden";
+
+        public String getText() {
+            return "text";
+        }
+
+        public boolean isValid() {
+            return true;
+        }
+
+        public String direct() {
+            return "direct";
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public String toString() {
+            return "bean";
+        }
+    }
+}
@@ -23,14 +23,18 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import javax.script.Bindings;
 import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 import javax.script.SimpleScriptContext;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.scripting.api.CachedScript;
+import org.apache.sling.scripting.api.ScriptCache;
 import org.apache.sling.scripting.core.ScriptNameAwareReader;
 import org.apache.sling.scripting.sightly.SightlyException;
 import org.apache.sling.scripting.sightly.js.impl.async.AsyncContainer;
@@ -51,11 +55,23 @@ import org.slf4j.LoggerFactory;
 public class JsEnvironment {
 
     private final ScriptEngine jsEngine;
+    private final ScriptCache scriptCache;
     private final Bindings engineBindings;
     private EventLoop eventLoop;
 
     public JsEnvironment(ScriptEngine jsEngine) {
+        this(jsEngine, null);
+    }
+
+    /**
+     * Creates an environment which reuses the compiled scripts of the given cache.
+     *
+     * @param jsEngine    the JavaScript engine
+     * @param scriptCache the cache of compiled scripts, can be {@code null}
+     */
+    public JsEnvironment(ScriptEngine jsEngine, ScriptCache scriptCache) {
         this.jsEngine = jsEngine;
+        this.scriptCache = scriptCache;
         engineBindings = new SimpleBindings();
         TimingBindingsValuesProvider.INSTANCE.addBindings(engineBindings);
     }
@@ -115,9 +131,7 @@ public class JsEnvironment {
                 try {
                     Object result;
                     if (jsEngine instanceof Compilable) {
-                        reader = new ScriptNameAwareReader(new InputStreamReader(scriptResource.adaptTo(InputStream.class)),
-                                scriptResource.getPath());
-                        result = ((Compilable) jsEngine).compile(reader).eval(scriptContext);
+                        result = getCompiledScript(scriptResource).eval(scriptContext);
                     } else {
                         reader = new InputStreamReader(scriptResource.adaptTo(InputStream.class));
                         result = jsEngine.eval(reader, scriptContext);
@@ -139,5 +153,63 @@ public class JsEnvironment {
         });
     }
 
+    /**
+     * Returns the compiled script for the given resource. Scripts are cached by their path and are only reused as long as the
+     * modification time of the script resource and the script engine factory are unchanged, as the script cache is not notified
+     * about changed use-scripts.
+     * Scripts whose resources do not provide a modification time are not cached.
+     *
+     * @param scriptResource the script resource
+     * @return the compiled script
+     * @throws ScriptException if the script cannot be compiled
+     */
+    CompiledScript getCompiledScript(Resource scriptResource) throws ScriptException {
+        final String scriptPath = scriptResource.getPath();
+        final long lastModified = scriptResource.getResourceMetadata().getModificationTime();
+        if (scriptCache != null && lastModified > 0) {
+            CachedScript cachedScript = scriptCache.getScript(scriptPath);
+            if (cachedScript instanceof CachedUseScript) {
+                CachedUseScript useScript = (CachedUseScript) cachedScript;
+                if (useScript.lastModified == lastModified && useScript.engineFactory == jsEngine.getFactory()) {
+                    return useScript.getCompiledScript();
+                }
+            }
+        }
+        Reader reader = new ScriptNameAwareReader(new InputStreamReader(scriptResource.adaptTo(InputStream.class)), scriptPath);
+        try {
+            CompiledScript compiledScript = ((Compilable) jsEngine).compile(reader);
+            if (scriptCache != null && lastModified > 0) {
+                scriptCache.putScript(new CachedUseScript(scriptPath, lastModified, jsEngine.getFactory(), compiledScript));
+            }
+            return compiledScript;
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private static final class CachedUseScript implements CachedScript {
+
+        private final String scriptPath;
+        private final long lastModified;
+        private final ScriptEngineFactory engineFactory;
+        private final CompiledScript compiledScript;
+
+        CachedUseScript(String scriptPath, long lastModified, ScriptEngineFactory engineFactory, CompiledScript compiledScript) {
+            this.scriptPath = scriptPath;
+            this.lastModified = lastModified;
+            this.engineFactory = engineFactory;
+            this.compiledScript = compiledScript;
+        }
+
+        @Override
+        public String getScriptPath() {
+            return scriptPath;
+        }
+
+        @Override
+        public CompiledScript getCompiledScript() {
+            return compiledScript;
+        }
+    }
 
 }
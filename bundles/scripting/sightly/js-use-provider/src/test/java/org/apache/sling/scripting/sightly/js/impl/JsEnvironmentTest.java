@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.js.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.scripting.api.CachedScript;
+import org.apache.sling.scripting.api.ScriptCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class JsEnvironmentTest {
+
+    private static final String SCRIPT_PATH = "/apps/test/use.js";
+
+    private ScriptEngine engine;
+    private Resource scriptResource;
+    private ResourceMetadata metadata;
+    private JsEnvironment environment;
+
+    @Before
+    public void setUp() throws Exception {
+        engine = mock(ScriptEngine.class, withSettings().extraInterfaces(Compilable.class));
+        when(engine.getFactory()).thenReturn(mock(ScriptEngineFactory.class));
+        when(((Compilable) engine).compile(any(Reader.class))).thenAnswer(new Answer<CompiledScript>() {
+            @Override
+            public CompiledScript answer(InvocationOnMock invocation) {
+                return mock(CompiledScript.class);
+            }
+        });
+        metadata = new ResourceMetadata();
+        metadata.setModificationTime(1000L);
+        scriptResource = mock(Resource.class);
+        when(scriptResource.getPath()).thenReturn(SCRIPT_PATH);
+        when(scriptResource.getResourceMetadata()).thenReturn(metadata);
+        when(scriptResource.adaptTo(InputStream.class)).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) {
+                return new ByteArrayInputStream("use(function () {});".getBytes());
+            }
+        });
+        environment = new JsEnvironment(engine, new MapScriptCache());
+    }
+
+    @Test
+    public void testCompiledScriptIsCached() throws Exception {
+        CompiledScript script = environment.getCompiledScript(scriptResource);
+        assertSame(script, environment.getCompiledScript(scriptResource));
+        verify((Compilable) engine, times(1)).compile(any(Reader.class));
+    }
+
+    @Test
+    public void testChangedScriptIsRecompiled() throws Exception {
+        CompiledScript script = environment.getCompiledScript(scriptResource);
+
+        // the script cache is not notified about changes of use-scripts
+        metadata.setModificationTime(2000L);
+        CompiledScript changedScript = environment.getCompiledScript(scriptResource);
+        assertNotSame(script, changedScript);
+        assertSame(changedScript, environment.getCompiledScript(scriptResource));
+        verify((Compilable) engine, times(2)).compile(any(Reader.class));
+    }
+
+    @Test
+    public void testScriptWithoutModificationTimeIsNotCached() throws Exception {
+        metadata.remove(ResourceMetadata.MODIFICATION_TIME);
+        assertNotSame(environment.getCompiledScript(scriptResource), environment.getCompiledScript(scriptResource));
+    }
+
+    private static class MapScriptCache implements ScriptCache {
+
+        private final Map<String, CachedScript> scripts = new HashMap<String, CachedScript>();
+
+        @Override
+        public CachedScript getScript(String scriptPath) {
+            return scripts.get(scriptPath);
+        }
+
+        @Override
+        public void putScript(CachedScript script) {
+            scripts.put(script.getScriptPath(), script);
+        }
+
+        @Override
+        public void clear() {
+            scripts.clear();
+        }
+
+        @Override
+        public boolean removeScript(String scriptPath) {
+            return scripts.remove(scriptPath) != null;
+        }
+    }
+}
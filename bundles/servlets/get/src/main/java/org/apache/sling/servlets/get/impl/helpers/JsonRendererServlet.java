@@ -29,9 +29,7 @@ import org.apache.sling.api.resource.ResourceNotFoundException;
 import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
 import org.apache.sling.commons.json.JSONException;
-import org.apache.sling.commons.json.io.JSONRenderer;
 import org.apache.sling.commons.json.io.JSONWriter;
-import org.apache.sling.commons.json.sling.ResourceTraversor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,8 +60,6 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
     public static final int INDENT_SPACES = 2;
 
     private long maximumResults;
-    
-    private final JSONRenderer renderer = new JSONRenderer();
 
     public JsonRendererServlet(long maximumResults) {
         this.maximumResults = maximumResults;
@@ -90,35 +86,20 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
         resp.setCharacterEncoding("UTF-8");
 
         // We check the tree to see if the nr of nodes isn't bigger than the allowed nr.
-        boolean allowDump = true;
-        int allowedLevel = 0;
         final boolean tidy = isTidy(req);
         final boolean harray = hasSelector(req, HARRAY);
-        ResourceTraversor traversor = null;
-        try {
-            traversor = new ResourceTraversor(maxRecursionLevels, maximumResults, r, tidy);
-            allowedLevel = traversor.collectResources();
-            if ( allowedLevel != -1 ) {
-			    allowDump = false;
-            }
-        } catch (final JSONException e) {
-            reportException(e);
-        }
+        final int allowedLevel = JsonResourceWriter.checkResourceCount(r, maxRecursionLevels, maximumResults);
         try {
-            // Dump the resource if we can
-            if (allowDump) {
-                if (tidy || harray) {
-                    final JSONRenderer.Options opt = renderer.options()
-                            .withIndent(tidy ? INDENT_SPACES : 0)
-                            .withArraysForChildren(harray);
-                    resp.getWriter().write(renderer.prettyPrint(traversor.getJSONObject(), opt));
-                } else {
-                    // If no rendering options, use the plain toString() method, for
-                    // backwards compatibility. Output might be slightly different
-                    // with prettyPrint and no options
-                    resp.getWriter().write(traversor.getJSONObject().toString());
-                }
-
+            // Dump the resource if we can, without building the JSON tree in memory
+            if (allowedLevel == -1) {
+                // If no rendering options, the output is the same as the plain
+                // JSONObject.toString() method, for backwards compatibility.
+                final JsonResourceWriter writer = new JsonResourceWriter(resp.getWriter(),
+                        maxRecursionLevels,
+                        tidy || harray,
+                        tidy ? INDENT_SPACES : 0,
+                        harray);
+                writer.write(r);
             } else {
                 // We are not allowed to do the dump.
                 // Send a 300
@@ -126,9 +107,8 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
                 resp.setStatus(HttpServletResponse.SC_MULTIPLE_CHOICES);
                 JSONWriter writer = new JSONWriter(resp.getWriter());
                 writer.array();
-                while (allowedLevel >= 0) {
-                    writer.value(r.getResourceMetadata().getResolutionPath() + "." + tidyUrl + allowedLevel + ".json");
-                    allowedLevel--;
+                for (int level = allowedLevel; level >= 0; level--) {
+                    writer.value(r.getResourceMetadata().getResolutionPath() + "." + tidyUrl + level + ".json");
                 }
                 writer.endArray();
             }
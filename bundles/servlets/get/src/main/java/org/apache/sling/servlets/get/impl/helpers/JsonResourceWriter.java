@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.get.impl.helpers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.io.JSONRenderer;
+import org.apache.sling.commons.json.sling.JsonObjectCreator;
+
+/**
+ * The <code>JsonResourceWriter</code> writes a resource tree as JSON directly
+ * to a writer while walking the tree. Only the properties of the resources on
+ * the path to the currently written resource are kept in memory.
+ * <p>
+ * The output is the same as rendering the <code>JSONObject</code> built by the
+ * <code>ResourceTraversor</code>, either through <code>JSONObject.toString()</code>
+ * or through {@link JSONRenderer#prettyPrint(JSONObject, JSONRenderer.Options)}.
+ */
+class JsonResourceWriter {
+
+    private final JSONRenderer renderer = new JSONRenderer();
+
+    private final Writer writer;
+
+    private final int maxRecursionLevels;
+
+    private final boolean prettyPrint;
+
+    private final int indent;
+
+    private final boolean arraysForChildren;
+
+    /**
+     * @param writer The writer to write to
+     * @param maxRecursionLevels recursion levels limit, -1 means no limit
+     * @param prettyPrint Whether the output is pretty printed
+     * @param indent The indentation if pretty printed
+     * @param arraysForChildren Whether children are rendered as arrays if pretty printed
+     */
+    JsonResourceWriter(final Writer writer,
+            final int maxRecursionLevels,
+            final boolean prettyPrint,
+            final int indent,
+            final boolean arraysForChildren) {
+        this.writer = writer;
+        this.maxRecursionLevels = maxRecursionLevels;
+        this.prettyPrint = prettyPrint;
+        this.indent = indent;
+        this.arraysForChildren = arraysForChildren;
+    }
+
+    /**
+     * Count the resources which would be rendered, breadth first and stopping
+     * as soon as the maximum number of resources is exceeded. The children of
+     * the start resource are always allowed (SLING-2320).
+     *
+     * @param resource The start resource
+     * @param maxRecursionLevels recursion levels limit, -1 means no limit
+     * @param maxResources maximum number of resources
+     * @return -1 if the tree can be rendered, otherwise the level at which the
+     *         maximum number of resources has been exceeded
+     */
+    static int checkResourceCount(final Resource resource,
+            final int maxRecursionLevels,
+            final long maxResources) {
+        if (maxRecursionLevels == 0 || maxRecursionLevels == 1) {
+            return -1;
+        }
+        long count = 0;
+        int currentLevel = 0;
+        LinkedList<Resource> currentQueue = new LinkedList<Resource>();
+        currentQueue.add(resource);
+        while (!currentQueue.isEmpty() && (maxRecursionLevels == -1 || currentLevel < maxRecursionLevels)) {
+            final LinkedList<Resource> nextQueue = new LinkedList<Resource>();
+            for (final Resource current : currentQueue) {
+                final Iterator<Resource> children = ResourceUtil.listChildren(current);
+                while (children.hasNext()) {
+                    count++;
+                    final Resource child = children.next();
+                    if (count > maxResources) {
+                        return currentLevel;
+                    }
+                    nextQueue.addLast(child);
+                }
+            }
+            currentQueue = nextQueue;
+            currentLevel++;
+        }
+        return -1;
+    }
+
+    /**
+     * Write the resource tree
+     * @param resource The start resource
+     * @throws IOException
+     * @throws JSONException
+     */
+    void write(final Resource resource) throws IOException, JSONException {
+        final Map<String, Object> entries = getEntries(resource, 0);
+        if (prettyPrint) {
+            writePrettyObject(entries, 0, arraysForChildren);
+        } else {
+            writeObject(entries);
+        }
+    }
+
+    /**
+     * The properties of a resource followed by its children, in the same
+     * order as in the <code>JSONObject</code> created for the resource.
+     */
+    private Map<String, Object> getEntries(final Resource resource, final int level)
+    throws JSONException {
+        final JSONObject properties = JsonObjectCreator.create(resource, 0);
+        final Map<String, Object> entries = new LinkedHashMap<String, Object>();
+        final Iterator<String> keys = properties.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            entries.put(key, properties.opt(key));
+        }
+        if (maxRecursionLevels == -1 || level < maxRecursionLevels) {
+            final Iterator<Resource> children = ResourceUtil.listChildren(resource);
+            while (children.hasNext()) {
+                final Resource child = children.next();
+                entries.put(ResourceUtil.getName(child), new Child(child, level + 1));
+            }
+        }
+        return entries;
+    }
+
+    private void writeObject(final Map<String, Object> entries)
+    throws IOException, JSONException {
+        writer.write('{');
+        boolean first = true;
+        for (final Map.Entry<String, Object> entry : entries.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(JSONObject.quote(entry.getKey()));
+            writer.write(':');
+            if (entry.getValue() instanceof Child) {
+                final Child child = (Child) entry.getValue();
+                writeObject(getEntries(child.resource, child.level));
+            } else {
+                writer.write(JSONObject.valueToString(entry.getValue()));
+            }
+        }
+        writer.write('}');
+    }
+
+    private void writePrettyObject(final Map<String, Object> entries,
+            final int initialIndent,
+            final boolean arrays)
+    throws IOException, JSONException {
+        final int n = entries.size();
+        if (n == 0) {
+            writer.write("{}");
+            return;
+        }
+        final List<Map.Entry<String, Object>> children = new ArrayList<Map.Entry<String, Object>>();
+        final int newIndent = initialIndent + indent;
+        boolean started = false;
+        writer.write('{');
+        if (n == 1) {
+            final Map.Entry<String, Object> entry = entries.entrySet().iterator().next();
+            if (arrays && entry.getValue() instanceof Child) {
+                children.add(entry);
+            } else {
+                writer.write(renderer.quote(entry.getKey()));
+                writer.write(": ");
+                writePrettyValue(entry.getValue(), initialIndent, arrays);
+                started = true;
+            }
+        } else {
+            for (final Map.Entry<String, Object> entry : entries.entrySet()) {
+                if (arrays && entry.getValue() instanceof Child) {
+                    children.add(entry);
+                    continue;
+                }
+                writer.write(started ? ",\n" : "\n");
+                started = true;
+                writeIndent(newIndent);
+                writer.write(renderer.quote(entry.getKey()));
+                writer.write(": ");
+                writePrettyValue(entry.getValue(), newIndent, false);
+            }
+            if (started) {
+                writer.write('\n');
+                writeIndent(newIndent);
+            }
+        }
+
+        // children skipped above are rendered as an array
+        if (!children.isEmpty()) {
+            writer.write(started ? ",\n" : "\n");
+            final int childIndent = initialIndent + newIndent;
+            writeIndent(childIndent);
+            writer.write(renderer.quote(JSONRenderer.Options.DEFAULT_CHILDREN_KEY));
+            writer.write(':');
+            writePrettyChildArray(children, childIndent);
+        }
+        writer.write('}');
+    }
+
+    private void writePrettyChildArray(final List<Map.Entry<String, Object>> children,
+            final int initialIndent)
+    throws IOException, JSONException {
+        writer.write('[');
+        if (children.size() == 1) {
+            writeNamedChild(children.get(0), initialIndent);
+        } else {
+            final int newIndent = initialIndent + indent;
+            if (indent > 0) {
+                writer.write('\n');
+            }
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                    if (indent > 0) {
+                        writer.write('\n');
+                    }
+                }
+                writeIndent(newIndent);
+                writeNamedChild(children.get(i), initialIndent);
+            }
+            if (indent > 0) {
+                writer.write('\n');
+            }
+            writeIndent(initialIndent);
+        }
+        writer.write(']');
+    }
+
+    private void writeNamedChild(final Map.Entry<String, Object> entry, final int initialIndent)
+    throws IOException, JSONException {
+        final Child child = (Child) entry.getValue();
+        final Map<String, Object> entries = new LinkedHashMap<String, Object>();
+        entries.put(JSONRenderer.Options.DEFAULT_CHILD_NAME_KEY, entry.getKey());
+        entries.putAll(getEntries(child.resource, child.level));
+        writePrettyObject(entries, initialIndent, true);
+    }
+
+    private void writePrettyValue(final Object value, final int initialIndent, final boolean arrays)
+    throws IOException, JSONException {
+        if (value instanceof Child) {
+            final Child child = (Child) value;
+            writePrettyObject(getEntries(child.resource, child.level), initialIndent, arrays);
+        } else {
+            writer.write(renderer.valueToString(value, renderer.options()
+                    .withIndent(indent)
+                    .withInitialIndent(initialIndent)
+                    .withArraysForChildren(arrays)));
+        }
+    }
+
+    private void writeIndent(final int howMuch) throws IOException {
+        for (int i = 0; i < howMuch; i++) {
+            writer.write(' ');
+        }
+    }
+
+    /** A child resource which is written once its parent's properties have been written. */
+    private static final class Child {
+
+        final Resource resource;
+
+        final int level;
+
+        Child(final Resource resource, final int level) {
+            this.resource = resource;
+            this.level = level;
+        }
+    }
+}
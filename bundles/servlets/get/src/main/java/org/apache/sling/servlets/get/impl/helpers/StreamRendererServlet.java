@@ -80,6 +80,10 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
     static final int IO_BUFFER_SIZE = 2048;
 
+    static final String HEADER_ETAG = "ETag";
+
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
     /** default log */
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -142,16 +146,6 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             return;
         }
 
-        // check the last modification time and If-Modified-Since header
-        if (!included) {
-            ResourceMetadata meta = resource.getResourceMetadata();
-            long modifTime = meta.getModificationTime();
-            if (unmodified(request, modifTime)) {
-                response.setStatus(SC_NOT_MODIFIED);
-                return;
-            }
-        }
-
         // fall back to plain text rendering if the resource has no stream
         if (resource.getResourceType().equals(JcrConstants.NT_LINKEDFILE)) {
             try {
@@ -163,6 +157,17 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                 throw new IOException(e);
             }
         }
+
+        // check the If-None-Match and If-Modified-Since headers against the
+        // entity tag and the last modification time of the delivered resource
+        if (!included && unmodified(request, resource)) {
+            final String etag = getETag(resource);
+            if (etag != null) {
+                response.setHeader(HEADER_ETAG, etag);
+            }
+            response.setStatus(SC_NOT_MODIFIED);
+            return;
+        }
         InputStream stream = resource.adaptTo(InputStream.class);
         if (stream != null) {
             if (isHeadRequest(request)) {
@@ -208,6 +213,25 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         return HttpConstants.METHOD_HEAD.equals(request.getMethod());
     }
 
+    /**
+     * Returns <code>true</code> if the client already has the current version
+     * of the resource. If the request has an <code>If-None-Match</code> header,
+     * it is compared to the entity tag of the resource and the
+     * <code>If-Modified-Since</code> header is ignored as required by
+     * RFC 7232. Otherwise the <code>If-Modified-Since</code> header is checked.
+     *
+     * @param request The request checked for the conditional headers.
+     * @param resource The resource to be delivered.
+     * @return <code>true</code> if a <i>304 Not Modified</i> can be sent.
+     */
+    private boolean unmodified(HttpServletRequest request, Resource resource) {
+        final String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, getETag(resource), false);
+        }
+        return unmodified(request, resource.getResourceMetadata().getModificationTime());
+    }
+
     /**
      * Returns <code>true</code> if the request has a
      * <code>If-Modified-Since</code> header whose date value is later than the
@@ -246,8 +270,7 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             } else {
 
                 // parse optional ranges
-                ranges = parseRange(request, response,
-                    resource.getResourceMetadata());
+                ranges = parseRange(request, response, resource);
                 if (ranges == null) {
                     // there was something wrong, the parseRange has sent a
                     // response and we are done
@@ -369,6 +392,11 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             response.setDateHeader(HEADER_LAST_MODIFIED, modifTime);
         }
 
+        final String etag = getETag(resource);
+        if (etag != null) {
+            response.setHeader(HEADER_ETAG, etag);
+        }
+
         final String defaultContentType = "application/octet-stream";
         String contentType = meta.getContentType();
         if (contentType == null || defaultContentType.equals(contentType)) {
@@ -496,9 +524,10 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
     /**
      * Copies a number of ranges from the given resource to the output stream.
-     * Copy the contents of the specified input stream to the specified output
-     * stream, and ensure that both streams are closed before returning (even in
-     * the face of an exception).
+     * The input stream of the resource is only reopened if a range starts
+     * before the end of the previous range, which is not the case for the
+     * usual ascending ranges. All streams are closed before returning (even
+     * in the face of an exception).
      *
      * @param resource The resource from which to send ranges
      * @param ostream The output stream to write to
@@ -511,13 +540,11 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         String contentType = resource.getResourceMetadata().getContentType();
         IOException exception = null;
 
-        while ((exception == null) && (ranges.hasNext())) {
-
-            InputStream resourceInputStream = resource.adaptTo(InputStream.class);
-            InputStream istream = new BufferedInputStream(resourceInputStream,
-                IO_BUFFER_SIZE);
+        InputStream istream = null;
+        long position = 0;
+        try {
+            while ((exception == null) && (ranges.hasNext())) {
 
-            try {
                 Range currentRange = ranges.next();
 
                 // Writing MIME header.
@@ -532,14 +559,24 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
                 // Copy content
                 try {
-                    copy(istream, ostream, currentRange);
+                    if (istream == null || currentRange.start < position) {
+                        closeSilently(istream);
+                        InputStream resourceInputStream = resource.adaptTo(InputStream.class);
+                        istream = new BufferedInputStream(resourceInputStream,
+                            IO_BUFFER_SIZE);
+                        position = 0;
+                    }
+                    log.debug("copy: Serving bytes: {}-{}", currentRange.start, currentRange.end + 1);
+                    staticCopyRange(istream, ostream, currentRange.start - position,
+                        currentRange.end + 1 - position);
+                    position = currentRange.end + 1;
                 } catch(IOException e) {
                     exception = e;
                 }
-            } finally {
-                closeSilently(istream);
-            }
 
+            }
+        } finally {
+            closeSilently(istream);
         }
 
         ostream.println();
@@ -601,6 +638,59 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         }
     }
 
+    /**
+     * Returns the strong entity tag of the binary of the resource. The tag is
+     * built from the path, the last modification time and the length of the
+     * binary, which change together whenever the binary is replaced.
+     *
+     * @return The quoted entity tag or <code>null</code> if the resource does
+     *         not provide a modification time.
+     */
+    static String getETag(final Resource resource) {
+        final ResourceMetadata meta = resource.getResourceMetadata();
+        final long modifTime = meta.getModificationTime();
+        if (modifTime <= 0) {
+            return null;
+        }
+        final long length = meta.getContentLength();
+        return "\"" + Long.toHexString(modifTime) + "-"
+            + Long.toHexString(length < 0 ? 0 : length) + "-"
+            + Integer.toHexString(resource.getPath().hashCode()) + "\"";
+    }
+
+    /**
+     * Returns <code>true</code> if the entity tag matches one of the tags of
+     * the comma separated header value or the header value is <code>*</code>.
+     *
+     * @param headerValue The value of an <code>If-None-Match</code> or
+     *            <code>If-Range</code> header.
+     * @param etag The entity tag of the resource, may be <code>null</code>.
+     * @param strong Whether weak entity tags never match, as required for
+     *            <code>If-Range</code>.
+     */
+    static boolean matchesETag(final String headerValue, final String etag, final boolean strong) {
+        if (etag == null) {
+            return false;
+        }
+        final StringTokenizer tokenizer = new StringTokenizer(headerValue, ",");
+        while (tokenizer.hasMoreTokens()) {
+            String tag = tokenizer.nextToken().trim();
+            if ("*".equals(tag) && !strong) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (strong) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Parse the range header.
      *
@@ -612,9 +702,11 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
      *         finished sending an error status.
      */
     private ArrayList<Range> parseRange(HttpServletRequest request,
-            HttpServletResponse response, ResourceMetadata metadata)
+            HttpServletResponse response, Resource resource)
             throws IOException {
 
+        final ResourceMetadata metadata = resource.getResourceMetadata();
+
         // Checking If-Range
         String headerValue = request.getHeader("If-Range");
         if (headerValue != null) {
@@ -630,8 +722,9 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
                 // If the ETag the client gave does not match the entity
                 // etag, then the entire entity is returned.
-                // Sling: no etag support yet, return full range
-                return FULL;
+                if (!matchesETag(headerValue, getETag(resource), true)) {
+                    return FULL;
+                }
 
             } else if (metadata.getModificationTime() > (headerValueTime + 1000)) {
 
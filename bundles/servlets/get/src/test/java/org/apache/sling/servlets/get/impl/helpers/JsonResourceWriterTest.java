@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.get.impl.helpers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.io.JSONRenderer;
+import org.apache.sling.commons.json.sling.ResourceTraversor;
+import org.apache.sling.commons.testing.sling.MockResource;
+import org.apache.sling.commons.testing.sling.MockResourceResolver;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonResourceWriterTest {
+
+    private final JSONRenderer renderer = new JSONRenderer();
+
+    private MockResourceResolver resolver;
+
+    private Resource root;
+
+    @Before
+    public void setup() {
+        resolver = new MockResourceResolver();
+        root = add("/content", "title", "Root");
+        add("/content/a", "text", "A", "count", 5L);
+        add("/content/a/a1", "tags", new String[] {"one", "two"});
+        add("/content/a/a1/deep", "flag", true);
+        add("/content/b");
+        add("/content/c", "date", Calendar.getInstance(), "empty", new String[0]);
+        add("/content/c/c1", "value", 1.5d);
+        add("/content/c/c2", "single", new Long[] {3L});
+    }
+
+    private Resource add(final String path, final Object... properties) {
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < properties.length; i += 2) {
+            values.put((String) properties[i], properties[i + 1]);
+        }
+        final MockResource resource = new MockResource(resolver, path, "test/type") {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <AdapterType> AdapterType adaptTo(Class<AdapterType> type) {
+                if (type == ValueMap.class) {
+                    return (AdapterType) new ValueMapDecorator(values);
+                }
+                return super.adaptTo(type);
+            }
+        };
+        resolver.addResource(resource);
+        return resource;
+    }
+
+    private String expected(final int levels, final boolean tidy, final boolean harray) throws Exception {
+        final ResourceTraversor traversor = new ResourceTraversor(levels, Long.MAX_VALUE, root, tidy);
+        assertEquals(-1, traversor.collectResources());
+        final JSONObject json = traversor.getJSONObject();
+        if (tidy || harray) {
+            return renderer.prettyPrint(json, renderer.options()
+                    .withIndent(tidy ? JsonRendererServlet.INDENT_SPACES : 0)
+                    .withArraysForChildren(harray));
+        }
+        return json.toString();
+    }
+
+    private String streamed(final int levels, final boolean tidy, final boolean harray) throws Exception {
+        final StringWriter writer = new StringWriter();
+        new JsonResourceWriter(writer, levels, tidy || harray,
+                tidy ? JsonRendererServlet.INDENT_SPACES : 0, harray).write(root);
+        return writer.toString();
+    }
+
+    @Test
+    public void testSameOutputAsJsonObjectTree() throws Exception {
+        for (final int levels : Arrays.asList(0, 1, 2, -1)) {
+            for (final boolean tidy : Arrays.asList(false, true)) {
+                for (final boolean harray : Arrays.asList(false, true)) {
+                    assertEquals("levels=" + levels + ", tidy=" + tidy + ", harray=" + harray,
+                            expected(levels, tidy, harray), streamed(levels, tidy, harray));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResourceCount() throws Exception {
+        // children of the start resource are always allowed
+        assertEquals(-1, JsonResourceWriter.checkResourceCount(root, 1, 1));
+        assertEquals(-1, JsonResourceWriter.checkResourceCount(root, -1, 7));
+        for (final int max : Arrays.asList(0, 2, 3, 5)) {
+            for (final int levels : Arrays.asList(2, 3, -1)) {
+                final ResourceTraversor traversor = new ResourceTraversor(levels, max, root, false);
+                assertEquals("levels=" + levels + ", max=" + max,
+                        traversor.collectResources(), JsonResourceWriter.checkResourceCount(root, levels, max));
+            }
+        }
+    }
+}
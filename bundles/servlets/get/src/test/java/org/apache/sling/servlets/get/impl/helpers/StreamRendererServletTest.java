@@ -19,6 +19,9 @@
 package org.apache.sling.servlets.get.impl.helpers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -27,8 +30,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Random;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
 import junitx.util.PrivateAccessor;
+import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceMetadata;
 import org.junit.Test;
@@ -127,6 +134,85 @@ public class StreamRendererServletTest {
         }
     }
     
+    @Test
+    public void testETag() {
+        final Resource resource = Mockito.mock(Resource.class);
+        final ResourceMetadata meta = new ResourceMetadata();
+        Mockito.when(resource.getResourceMetadata()).thenReturn(meta);
+        Mockito.when(resource.getPath()).thenReturn("/content/file.bin");
+
+        // no modification time, no entity tag
+        assertNull(StreamRendererServlet.getETag(resource));
+
+        meta.setModificationTime(1234567890000L);
+        meta.setContentLength(100);
+        final String etag = StreamRendererServlet.getETag(resource);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, StreamRendererServlet.getETag(resource));
+
+        meta.setContentLength(101);
+        assertFalse(etag.equals(StreamRendererServlet.getETag(resource)));
+    }
+
+    @Test
+    public void testMatchesETag() {
+        final String etag = "\"abc-1\"";
+        assertTrue(StreamRendererServlet.matchesETag(etag, etag, true));
+        assertTrue(StreamRendererServlet.matchesETag("\"other\", " + etag, etag, false));
+        assertTrue(StreamRendererServlet.matchesETag("*", etag, false));
+        assertTrue(StreamRendererServlet.matchesETag("W/" + etag, etag, false));
+        assertFalse(StreamRendererServlet.matchesETag("W/" + etag, etag, true));
+        assertFalse(StreamRendererServlet.matchesETag("*", etag, true));
+        assertFalse(StreamRendererServlet.matchesETag("\"other\"", etag, false));
+        assertFalse(StreamRendererServlet.matchesETag("*", null, false));
+    }
+
+    @Test
+    public void testIfNoneMatch() throws Exception {
+        final Resource resource = Mockito.mock(Resource.class);
+        final ResourceMetadata meta = new ResourceMetadata();
+        meta.setModificationTime(1234567890000L);
+        meta.setContentLength(8);
+        Mockito.when(resource.getResourceMetadata()).thenReturn(meta);
+        Mockito.when(resource.getPath()).thenReturn("/content/file.bin");
+        Mockito.when(resource.getResourceType()).thenReturn("nt:file");
+        final String etag = StreamRendererServlet.getETag(resource);
+        final ServletContext sc = Mockito.mock(ServletContext.class);
+        final StreamRendererServlet servlet = new StreamRendererServlet(true, new String[] {"/"}) {
+            @Override
+            public ServletContext getServletContext() {
+                return sc;
+            }
+        };
+
+        // a matching entity tag is answered with 304 without opening the binary
+        SlingHttpServletResponse response = Mockito.mock(SlingHttpServletResponse.class);
+        servlet.doGet(createRequest(resource, "\"other\", " + etag), response);
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Mockito.verify(response).setHeader(StreamRendererServlet.HEADER_ETAG, etag);
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+        Mockito.verify(resource, Mockito.never()).adaptTo(InputStream.class);
+
+        // otherwise the binary is sent with its entity tag
+        Mockito.when(resource.adaptTo(InputStream.class)).thenReturn(new ByteArrayInputStream("12345678".getBytes()));
+        final ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+        response = Mockito.mock(SlingHttpServletResponse.class);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        servlet.doGet(createRequest(resource, "\"other\""), response);
+        Mockito.verify(response, Mockito.never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Mockito.verify(response).setHeader(StreamRendererServlet.HEADER_ETAG, etag);
+        Mockito.verify(out).write(Mockito.any(byte[].class), Mockito.eq(0), Mockito.eq(8));
+    }
+
+    private static SlingHttpServletRequest createRequest(final Resource resource, final String ifNoneMatch) {
+        final SlingHttpServletRequest request = Mockito.mock(SlingHttpServletRequest.class);
+        Mockito.when(request.getRequestPathInfo()).thenReturn(Mockito.mock(RequestPathInfo.class));
+        Mockito.when(request.getResource()).thenReturn(resource);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getHeader(StreamRendererServlet.HEADER_IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+        return request;
+    }
+
     @Test
     public void test_setHeaders() throws Throwable {
         
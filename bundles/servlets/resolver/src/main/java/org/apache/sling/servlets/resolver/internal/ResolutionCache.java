@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.Servlet;
+
+import org.apache.sling.servlets.resolver.internal.helper.AbstractResourceCollector;
+
+/**
+ * The <code>ResolutionCache</code> caches the result of the script
+ * resolution for a resource collector, including the result that no
+ * script has been found.
+ * <p>
+ * Lookups are lock free. Each entry records the time of its last use and
+ * if the cache grows beyond its maximum size, the least recently used
+ * entries are evicted. Each entry also records the locations which have
+ * been searched, so a change to a resource only invalidates the entries
+ * which searched this resource or one of its ancestors.
+ */
+class ResolutionCache {
+
+    /** The number of entries evicted in addition, to not evict on each put. */
+    private static final int EVICTION_PERCENTAGE = 10;
+
+    private final ConcurrentMap<AbstractResourceCollector, Entry> entries;
+
+    private final int maxSize;
+
+    private final Object evictionLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    ResolutionCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<AbstractResourceCollector, Entry>(maxSize);
+    }
+
+    /**
+     * Get the cached entry
+     * @param key The resource collector
+     * @return The entry or {@code null} if nothing is cached for the key.
+     */
+    Entry get(final AbstractResourceCollector key) {
+        final Entry entry = this.entries.get(key);
+        if (entry == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+            entry.lastAccess = System.nanoTime();
+        }
+        return entry;
+    }
+
+    /**
+     * Cache the resolution result.
+     * @param key The resource collector
+     * @param servlet The servlet or {@code null} if no servlet has been found
+     * @param locations The searched locations
+     */
+    void put(final AbstractResourceCollector key, final Servlet servlet, final Collection<String> locations) {
+        this.entries.put(key, new Entry(servlet, locations.toArray(new String[locations.size()])));
+        if (this.entries.size() > this.maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        synchronized (this.evictionLock) {
+            final int size = this.entries.size();
+            if (size <= this.maxSize) {
+                return;
+            }
+            final List<Map.Entry<AbstractResourceCollector, Entry>> candidates =
+                    new ArrayList<Map.Entry<AbstractResourceCollector, Entry>>(this.entries.entrySet());
+            Collections.sort(candidates, new Comparator<Map.Entry<AbstractResourceCollector, Entry>>() {
+
+                @Override
+                public int compare(final Map.Entry<AbstractResourceCollector, Entry> o1,
+                        final Map.Entry<AbstractResourceCollector, Entry> o2) {
+                    final long diff = o1.getValue().lastAccess - o2.getValue().lastAccess;
+                    return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+                }
+            });
+            final int count = Math.min(candidates.size(),
+                    size - this.maxSize + Math.max(1, this.maxSize * EVICTION_PERCENTAGE / 100));
+            for (int i = 0; i < count; i++) {
+                final Map.Entry<AbstractResourceCollector, Entry> candidate = candidates.get(i);
+                if (this.entries.remove(candidate.getKey(), candidate.getValue())) {
+                    this.evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all entries which searched a location at, below or above the
+     * given path.
+     * @param path The changed path
+     */
+    void invalidate(final String path) {
+        final Iterator<Entry> i = this.entries.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().isAffectedBy(path)) {
+                i.remove();
+            }
+        }
+    }
+
+    void clear() {
+        this.entries.clear();
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+
+    long getEvictions() {
+        return this.evictions.get();
+    }
+
+    static final class Entry {
+
+        private final Servlet servlet;
+
+        private final String[] locations;
+
+        volatile long lastAccess = System.nanoTime();
+
+        Entry(final Servlet servlet, final String[] locations) {
+            this.servlet = servlet;
+            this.locations = locations;
+        }
+
+        /**
+         * The cached servlet or {@code null} if no servlet has been found
+         */
+        Servlet getServlet() {
+            return this.servlet;
+        }
+
+        boolean isAffectedBy(final String path) {
+            for (final String location : this.locations) {
+                if (path.startsWith(location)) {
+                    if (path.length() == location.length() || location.endsWith("/")
+                            || path.charAt(location.length()) == '/') {
+                        return true;
+                    }
+                } else if (location.startsWith(path)) {
+                    if (path.endsWith("/") || location.charAt(path.length()) == '/') {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -40,7 +40,6 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.NotCompliantMBeanException;
 import javax.management.StandardMBean;
@@ -90,6 +89,7 @@ import org.apache.sling.servlets.resolver.internal.defaults.DefaultServlet;
 import org.apache.sling.servlets.resolver.internal.helper.AbstractResourceCollector;
 import org.apache.sling.servlets.resolver.internal.helper.NamedScriptResourceCollector;
 import org.apache.sling.servlets.resolver.internal.helper.ResourceCollector;
+import org.apache.sling.servlets.resolver.internal.helper.ScriptIndex;
 import org.apache.sling.servlets.resolver.internal.helper.SlingServletConfig;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProvider;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProviderFactory;
@@ -183,14 +183,14 @@ public class SlingServletResolver
     private Servlet fallbackErrorServlet;
 
     /** The script resolution cache. */
-    private Map<AbstractResourceCollector, Servlet> cache;
+    private ResolutionCache cache;
+
+    /** The index of the searched script locations. */
+    private volatile ScriptIndex scriptIndex;
 
     /** The cache size. */
     private int cacheSize;
 
-    /** Flag to log warning if cache size exceed only once. */
-    private volatile boolean logCacheSizeWarning;
-
     /** Registration as event handler. */
     private ServiceRegistration eventHandlerReg;
 
@@ -621,15 +621,21 @@ public class SlingServletResolver
     private Servlet getServletInternal(final AbstractResourceCollector locationUtil,
             final SlingHttpServletRequest request,
             final ResourceResolver resolver) {
-        final Servlet scriptServlet = (this.cache != null ? this.cache.get(locationUtil) : null);
-        if (scriptServlet != null) {
+        final ResolutionCache localCache = this.cache;
+        final ResolutionCache.Entry cached = (localCache != null ? localCache.get(locationUtil) : null);
+        if (cached != null) {
             if ( LOGGER.isDebugEnabled() ) {
-                LOGGER.debug("Using cached servlet {}", RequestUtil.getServletName(scriptServlet));
+                if ( cached.getServlet() == null ) {
+                    LOGGER.debug("Using cached result: no servlet found");
+                } else {
+                    LOGGER.debug("Using cached servlet {}", RequestUtil.getServletName(cached.getServlet()));
+                }
             }
-            return scriptServlet;
+            return cached.getServlet();
         }
 
-        final Collection<Resource> candidates = locationUtil.getServlets(resolver);
+        final List<String> locations = (localCache != null ? new ArrayList<String>() : null);
+        final Collection<Resource> candidates = locationUtil.getServlets(resolver, locations, this.scriptIndex);
 
         if (LOGGER.isDebugEnabled()) {
             if (candidates.isEmpty()) {
@@ -651,14 +657,8 @@ public class SlingServletResolver
                 final boolean isOptingServlet = candidate instanceof OptingServlet;
                 boolean servletAcceptsRequest = !isOptingServlet || (request != null && ((OptingServlet) candidate).accepts(request));
                 if (servletAcceptsRequest) {
-                    if (!hasOptingServlet && !isOptingServlet && this.cache != null) {
-                        if ( this.cache.size() < this.cacheSize ) {
-                            this.cache.put(locationUtil, candidate);
-                        } else if ( this.logCacheSizeWarning ) {
-                            this.logCacheSizeWarning = false;
-                            LOGGER.warn("Script cache has reached its limit of {}. You might want to increase the cache size for the servlet resolver.",
-                                    this.cacheSize);
-                        }
+                    if (!hasOptingServlet && !isOptingServlet && localCache != null) {
+                        localCache.put(locationUtil, candidate, locations);
                     }
                     LOGGER.debug("Using servlet provided by candidate resource {}", candidateResource.getPath());
                     return candidate;
@@ -673,6 +673,10 @@ public class SlingServletResolver
         }
 
         // exhausted all candidates, we don't have a servlet
+        // remember this unless an opting servlet might accept another request
+        if (!hasOptingServlet && localCache != null) {
+            localCache.put(locationUtil, null, locations);
+        }
         return null;
     }
 
@@ -837,12 +841,13 @@ public class SlingServletResolver
         // create cache - if a cache size is configured
         this.cacheSize = PropertiesUtil.toInteger(properties.get(PROP_CACHE_SIZE), DEFAULT_CACHE_SIZE);
         if (this.cacheSize > 5) {
-            this.cache = new ConcurrentHashMap<AbstractResourceCollector, Servlet>(cacheSize);
-            this.logCacheSizeWarning = true;
+            this.cache = new ResolutionCache(cacheSize);
         } else {
             this.cacheSize = 0;
         }
 
+        this.scriptIndex = new ScriptIndex();
+
         // setup default servlet
         this.getDefaultServlet();
 
@@ -921,6 +926,7 @@ public class SlingServletResolver
         }
 
         this.cache = null;
+        this.scriptIndex = null;
         this.servletResourceProviderFactory = null;
 
         if (this.mbeanRegistration != null) {
@@ -1010,6 +1016,19 @@ public class SlingServletResolver
                 createServiceProperties(reference, provider, root));
             regs.add(reg);
         }
+        final ResolutionCache localCache = this.cache;
+        if (localCache != null) {
+            // a servlet might now be found where no servlet has been found before
+            for(final String root : provider.getServletPaths()) {
+                localCache.invalidate(root);
+            }
+        }
+        final ScriptIndex localIndex = this.scriptIndex;
+        if (localIndex != null) {
+            for(final String root : provider.getServletPaths()) {
+                localIndex.invalidate(root);
+            }
+        }
         LOGGER.debug("Registered {}", provider.toString());
         synchronized (this.servletsByReference) {
             servletsByReference.put(reference, new ServletReg(servlet, regs));
@@ -1089,8 +1108,10 @@ public class SlingServletResolver
     }
 
     private void flushCache() {
-        this.cache.clear();
-        this.logCacheSizeWarning = true;
+        final ResolutionCache localCache = this.cache;
+        if (localCache != null) {
+            localCache.clear();
+        }
     }
 
     /** The list of property names checked by {@link #getName(ServiceReference)} */
@@ -1385,7 +1406,33 @@ public class SlingServletResolver
 
         @Override
         public int getCacheSize() {
-            return cache != null ? cache.size() : 0;
+            final ResolutionCache localCache = cache;
+            return localCache != null ? localCache.size() : 0;
+        }
+
+        @Override
+        public long getCacheHits() {
+            final ResolutionCache localCache = cache;
+            return localCache != null ? localCache.getHits() : 0;
+        }
+
+        @Override
+        public long getCacheMisses() {
+            final ResolutionCache localCache = cache;
+            return localCache != null ? localCache.getMisses() : 0;
+        }
+
+        @Override
+        public double getCacheHitRatio() {
+            final long hits = getCacheHits();
+            final long total = hits + getCacheMisses();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public long getCacheEvictions() {
+            final ResolutionCache localCache = cache;
+            return localCache != null ? localCache.getEvictions() : 0;
         }
 
         @Override
@@ -1402,27 +1449,27 @@ public class SlingServletResolver
 
     @Override
 	public void onChange(List<ResourceChange> changes) {
-        if (this.cache != null) {
-            boolean flushCache = false;
+        final ResolutionCache localCache = this.cache;
+        final ScriptIndex localIndex = this.scriptIndex;
+        if (localCache != null || localIndex != null) {
             for(ResourceChange change : changes){
-                // we may receive different events
-                final String topic = change.getType().toString();
                 // this is a resource or resource provider event
                 // if the path of the event is a sub path of a search path
-                // we flush the whole cache
+                // we invalidate all entries which searched this path
                 final String path = change.getPath();
                 if ( path != null ) {
-                    int index = 0;
-                    while (!flushCache && index < searchPaths.length) {
-                        if (path.startsWith(this.searchPaths[index])) {
-                            flushCache = true;
+                    for(final String searchPath : this.searchPaths) {
+                        if (path.startsWith(searchPath)) {
+                            if (localCache != null) {
+                                localCache.invalidate(path);
+                            }
+                            if (localIndex != null) {
+                                localIndex.invalidate(path);
+                            }
+                            break;
                         }
-                        index++;
                     }
                 }
-                if (flushCache) {
-                    flushCache();
-                }
             }
         }
     }
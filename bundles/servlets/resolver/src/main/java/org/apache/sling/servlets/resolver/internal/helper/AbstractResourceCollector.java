@@ -65,6 +65,35 @@ public abstract class AbstractResourceCollector {
     }
 
     public final Collection<Resource> getServlets(final ResourceResolver resolver) {
+        return getServlets(resolver, null);
+    }
+
+    /**
+     * Find the servlets and record the searched locations.
+     *
+     * @param resolver The resource resolver
+     * @param searchedLocations If not {@code null} the absolute paths of all
+     *            searched locations are added to this collection.
+     * @return The ordered collection of candidate resources
+     */
+    public final Collection<Resource> getServlets(final ResourceResolver resolver,
+            final Collection<String> searchedLocations) {
+        return getServlets(resolver, searchedLocations, null);
+    }
+
+    /**
+     * Find the servlets and record the searched locations.
+     *
+     * @param resolver The resource resolver
+     * @param searchedLocations If not {@code null} the absolute paths of all
+     *            searched locations are added to this collection.
+     * @param index The index of the locations or {@code null} to read all
+     *            locations through the resolver.
+     * @return The ordered collection of candidate resources
+     */
+    public final Collection<Resource> getServlets(final ResourceResolver resolver,
+            final Collection<String> searchedLocations,
+            final ScriptIndex index) {
 
         final SortedSet<Resource> resources = new TreeSet<Resource>();
         final Iterator<String> locations = new LocationIterator(resourceType, resourceSuperType,
@@ -81,8 +110,15 @@ public abstract class AbstractResourceCollector {
             } else {
                 path = location;
             }
-            final Resource locationRes = getResource(resolver, path);
-            getWeightedResources(resources, locationRes);
+            if ( searchedLocations != null ) {
+                searchedLocations.add(path);
+            }
+            if ( index != null ) {
+                getWeightedResources(resources, resolver, path, index);
+            } else {
+                final Resource locationRes = getResource(resolver, path);
+                getWeightedResources(resources, locationRes);
+            }
         }
 
         return resources;
@@ -91,6 +127,17 @@ public abstract class AbstractResourceCollector {
     abstract protected void getWeightedResources(final Set<Resource> resources,
                                                  final Resource location);
 
+    /**
+     * Find the weighted resources of a location using the index. This
+     * implementation reads the location through the resolver.
+     */
+    protected void getWeightedResources(final Set<Resource> resources,
+                                        final ResourceResolver resolver,
+                                        final String location,
+                                        final ScriptIndex index) {
+        getWeightedResources(resources, getResource(resolver, location));
+    }
+
     /**
      * Creates a {@link WeightedResource} and adds it to the set of resources.
      * The number of resources already present in the set is used as the ordinal
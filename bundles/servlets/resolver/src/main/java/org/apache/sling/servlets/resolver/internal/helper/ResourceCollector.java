@@ -27,6 +27,7 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.servlets.resolver.internal.ServletResolverConstants;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProviderFactory;
 
@@ -213,45 +214,110 @@ public class ResourceCollector extends AbstractResourceCollector {
 
                 scriptName = scriptName.substring(0, lastDot);
 
-                if (isGet
-                    && checkScriptName(scriptName, selector, parentName,
-                        suffExt, null, resources, child, selIdx)) {
-                    continue;
-                }
+                addMatchingScript(scriptName, selector, parentName, resources,
+                    resolver, child, child.getPath(), selIdx);
+            }
 
-                if (checkScriptName(scriptName, selector, parentName,
-                    suffExtMethod, suffMethod, resources, child, selIdx)) {
-                    continue;
-                }
+            if (selector != null) {
+                current = resolver.getResource(current, selector);
+                parentName = selector;
+                selIdx++;
+            }
+        } while (selector != null && current != null);
 
-                // SLING-754: Not technically really correct because
-                // the request extension is only optional in the script
-                // name for HTML methods, but we keep this for backwards
-                // compatibility.
-                if (selector != null
-                    && matches(scriptName, selector, suffMethod)) {
-                    addWeightedResource(resources, child, selIdx + 1,
-                        WeightedResource.WEIGHT_NONE);
-                    continue;
-                }
+        // special treatment for servlets registered with neither a method
+        // name nor extensions and selectors
+        addLocationServlet(resources, resolver, location.getPath());
+    }
 
-                if (scriptName.equals(methodName)) {
-                    addWeightedResource(resources, child, selIdx,
-                        WeightedResource.WEIGHT_NONE);
+    /**
+     * Finds the weighted resources like
+     * {@link #getWeightedResources(Set, Resource)} but takes the children of
+     * the location and of the selector folders from the index. Only the
+     * matching scripts are read through the resolver.
+     */
+    @Override
+    protected void getWeightedResources(final Set<Resource> resources,
+            final ResourceResolver resolver,
+            final String location,
+            final ScriptIndex index) {
+
+        final ScriptIndex.Location locationEntry = index.getLocation(resolver, location);
+        ScriptIndex.Location current = locationEntry;
+        String currentPath = location;
+        String parentName = ResourceUtil.getName(location);
+
+        int selIdx = 0;
+        String selector;
+        do {
+            selector = (selIdx < numRequestSelectors)
+                    ? requestSelectors[selIdx]
+                    : null;
+
+            for (int i = 0; i < current.size(); i++) {
+                final String scriptName = current.getScriptName(i);
+                // no extension in the name, this is not a script
+                if (scriptName == null || !this.isPathAllowed(current.getPath(i))) {
                     continue;
                 }
+                addMatchingScript(scriptName, selector, parentName, resources,
+                    resolver, null, current.getPath(i), selIdx);
             }
 
             if (selector != null) {
-                current = resolver.getResource(current, selector);
+                currentPath = currentPath + '/' + selector;
+                current = index.getLocation(resolver, currentPath);
                 parentName = selector;
                 selIdx++;
             }
-        } while (selector != null && current != null);
+        } while (selector != null && current.exists());
 
         // special treatment for servlets registered with neither a method
         // name nor extensions and selectors
-        addLocationServlet(resources, location);
+        if (locationEntry.hasLocationServlet()) {
+            addLocationServlet(resources, resolver, location);
+        }
+    }
+
+    /**
+     * Adds the script to the <code>resources</code> if its name matches the
+     * request. The checks are done in order of precedence, only the first
+     * match is added.
+     *
+     * @param child The resource representing the script or <code>null</code>
+     *            if it has not been read yet.
+     * @param childPath The path of the script
+     */
+    private void addMatchingScript(final String scriptName,
+            final String selector, final String parentName,
+            final Set<Resource> resources, final ResourceResolver resolver,
+            final Resource child, final String childPath, final int selIdx) {
+        if (isGet
+            && checkScriptName(scriptName, selector, parentName,
+                suffExt, null, resources, resolver, child, childPath, selIdx)) {
+            return;
+        }
+
+        if (checkScriptName(scriptName, selector, parentName,
+            suffExtMethod, suffMethod, resources, resolver, child, childPath, selIdx)) {
+            return;
+        }
+
+        // SLING-754: Not technically really correct because
+        // the request extension is only optional in the script
+        // name for HTML methods, but we keep this for backwards
+        // compatibility.
+        if (selector != null
+            && matches(scriptName, selector, suffMethod)) {
+            addScript(resources, resolver, child, childPath, selIdx + 1,
+                WeightedResource.WEIGHT_NONE);
+            return;
+        }
+
+        if (scriptName.equals(methodName)) {
+            addScript(resources, resolver, child, childPath, selIdx,
+                WeightedResource.WEIGHT_NONE);
+        }
     }
 
     /**
@@ -275,7 +341,10 @@ public class ResourceCollector extends AbstractResourceCollector {
      *            applicable for GET or HEAD methods only.
      * @param resources The set of weighted resource to which the new weighted
      *            resource is added if a match is found.
-     * @param child The resource representing the script
+     * @param resolver The resolver to read the script if <code>child</code>
+     *            is <code>null</code>
+     * @param child The resource representing the script or <code>null</code>
+     * @param childPath The path of the script
      * @param selIdx The selector weight value
      * @return <code>true</code> if a match has been found and a weighted
      *         resource has been added to the <code>resources</code> set.
@@ -283,36 +352,37 @@ public class ResourceCollector extends AbstractResourceCollector {
     private boolean checkScriptName(final String scriptName,
             final String selector, final String parentName,
             final String suffix, final String htmlSuffix,
-            final Set<Resource> resources, final Resource child,
+            final Set<Resource> resources, final ResourceResolver resolver,
+            final Resource child, final String childPath,
             final int selIdx) {
         if (selector != null && matches(scriptName, selector, suffix)) {
-            addWeightedResource(resources, child, selIdx + 1,
+            addScript(resources, resolver, child, childPath, selIdx + 1,
                 WeightedResource.WEIGHT_EXTENSION);
             return true;
         }
 
         if (matches(scriptName, parentName, suffix)) {
-            addWeightedResource(resources, child, selIdx,
+            addScript(resources, resolver, child, childPath, selIdx,
                 WeightedResource.WEIGHT_EXTENSION
                     + WeightedResource.WEIGHT_PREFIX);
             return true;
         }
 
         if (scriptName.equals(suffix.substring(1))) {
-            addWeightedResource(resources, child, selIdx,
+            addScript(resources, resolver, child, childPath, selIdx,
                 WeightedResource.WEIGHT_EXTENSION);
             return true;
         }
 
         if (isDefaultExtension) {
             if (selector != null && matches(scriptName, selector, htmlSuffix)) {
-                addWeightedResource(resources, child, selIdx + 1,
+                addScript(resources, resolver, child, childPath, selIdx + 1,
                     WeightedResource.WEIGHT_NONE);
                 return true;
             }
 
             if (matches(scriptName, parentName, htmlSuffix)) {
-                addWeightedResource(resources, child, selIdx,
+                addScript(resources, resolver, child, childPath, selIdx,
                     WeightedResource.WEIGHT_PREFIX);
                 return true;
             }
@@ -320,6 +390,21 @@ public class ResourceCollector extends AbstractResourceCollector {
         return false;
     }
 
+    /**
+     * Adds the script as a weighted resource, reading it first if
+     * <code>child</code> is <code>null</code>. An indexed script which does
+     * not exist anymore is ignored.
+     */
+    private void addScript(final Set<Resource> resources,
+            final ResourceResolver resolver, final Resource child,
+            final String childPath, final int numSelectors,
+            final int methodPrefixWeight) {
+        final Resource script = (child != null ? child : resolver.getResource(childPath));
+        if (script != null) {
+            addWeightedResource(resources, script, numSelectors, methodPrefixWeight);
+        }
+    }
+
     private boolean matches(final String scriptName, final String name,
             String suffix) {
         if (suffix == null) {
@@ -334,12 +419,11 @@ public class ResourceCollector extends AbstractResourceCollector {
     }
 
     private void addLocationServlet(final Set<Resource> resources,
-            final Resource location) {
-        final String path = location.getPath()
+            final ResourceResolver resolver, final String location) {
+        final String path = location
             + ServletResourceProviderFactory.SERVLET_PATH_EXTENSION;
         if (this.isPathAllowed(path)) {
-            final Resource servlet = location.getResourceResolver().getResource(
-                path);
+            final Resource servlet = resolver.getResource(path);
             if (servlet != null) {
                 addWeightedResource(resources, servlet, 0,
                     WeightedResource.WEIGHT_LAST_RESSORT);
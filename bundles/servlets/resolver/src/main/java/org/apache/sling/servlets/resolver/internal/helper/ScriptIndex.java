@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal.helper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProviderFactory;
+
+/**
+ * The <code>ScriptIndex</code> keeps the names of the children of the
+ * locations searched for scripts, together with the script names without
+ * the script extension. Finding the candidate scripts of an indexed location
+ * is therefore a lookup, only the matching scripts are read through the
+ * resource resolver.
+ * <p>
+ * A location is indexed when it is searched the first time. A change of a
+ * resource removes the index entries of this resource, its parent and its
+ * descendants, so all other locations stay indexed.
+ */
+public class ScriptIndex {
+
+    /** The maximum number of indexed locations, the index is cleared once it is reached. */
+    static final int MAX_LOCATIONS = 10000;
+
+    private final ConcurrentMap<String, Location> locations = new ConcurrentHashMap<String, Location>();
+
+    /** Incremented on each invalidation, to not index a location read during a change. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the indexed location, reading and indexing it if required.
+     * @param resolver The resource resolver used to read the location
+     * @param path The absolute path of the location
+     * @return The location
+     */
+    public Location getLocation(final ResourceResolver resolver, final String path) {
+        Location location = this.locations.get(path);
+        if (location == null) {
+            final long currentGeneration = this.generation.get();
+            location = read(resolver, path);
+            if (this.locations.size() >= MAX_LOCATIONS) {
+                this.locations.clear();
+            }
+            this.locations.put(path, location);
+            if (this.generation.get() != currentGeneration) {
+                // a change happened while reading, the location might be stale
+                this.locations.remove(path, location);
+            }
+        }
+        return location;
+    }
+
+    /**
+     * Remove the locations which might be affected by a change of the
+     * resource at the given path.
+     * @param path The changed path
+     */
+    public void invalidate(final String path) {
+        this.generation.incrementAndGet();
+        this.locations.remove(path);
+        final String parent = ResourceUtil.getParent(path);
+        if (parent != null) {
+            this.locations.remove(parent);
+        }
+        if (path.endsWith(ServletResourceProviderFactory.SERVLET_PATH_EXTENSION)) {
+            this.locations.remove(path.substring(0,
+                    path.length() - ServletResourceProviderFactory.SERVLET_PATH_EXTENSION.length()));
+        }
+        final String prefix = path.endsWith("/") ? path : path.concat("/");
+        final Iterator<String> i = this.locations.keySet().iterator();
+        while (i.hasNext()) {
+            if (i.next().startsWith(prefix)) {
+                i.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        this.generation.incrementAndGet();
+        this.locations.clear();
+    }
+
+    public int size() {
+        return this.locations.size();
+    }
+
+    private static Location read(final ResourceResolver resolver, final String path) {
+        Resource resource = resolver.getResource(path);
+        final boolean exists = resource != null;
+        if (resource == null) {
+            // there might still be children at this location
+            resource = new SyntheticResource(resolver, path, "$synthetic$");
+        }
+        final List<String> paths = new ArrayList<String>();
+        final List<String> scriptNames = new ArrayList<String>();
+        final Iterator<Resource> children = resolver.listChildren(resource);
+        while (children.hasNext()) {
+            final Resource child = children.next();
+            final String name = child.getName();
+            final int lastDot = name.lastIndexOf('.');
+            paths.add(child.getPath());
+            // no extension in the name, this is not a script
+            scriptNames.add(lastDot < 0 ? null : name.substring(0, lastDot));
+        }
+        final boolean hasLocationServlet =
+                resolver.getResource(path + ServletResourceProviderFactory.SERVLET_PATH_EXTENSION) != null;
+        return new Location(exists, paths.toArray(new String[paths.size()]),
+                scriptNames.toArray(new String[scriptNames.size()]), hasLocationServlet);
+    }
+
+    /**
+     * The immutable index entry of a location.
+     */
+    public static final class Location {
+
+        private final boolean exists;
+
+        private final String[] paths;
+
+        private final String[] scriptNames;
+
+        private final boolean hasLocationServlet;
+
+        Location(final boolean exists, final String[] paths, final String[] scriptNames,
+                final boolean hasLocationServlet) {
+            this.exists = exists;
+            this.paths = paths;
+            this.scriptNames = scriptNames;
+            this.hasLocationServlet = hasLocationServlet;
+        }
+
+        /**
+         * Whether a resource exists at this location
+         */
+        public boolean exists() {
+            return this.exists;
+        }
+
+        /**
+         * The number of children of this location
+         */
+        public int size() {
+            return this.paths.length;
+        }
+
+        /**
+         * The path of a child
+         */
+        public String getPath(final int index) {
+            return this.paths[index];
+        }
+
+        /**
+         * The name of a child without the script extension or {@code null}
+         * if the name has no extension
+         */
+        public String getScriptName(final int index) {
+            return this.scriptNames[index];
+        }
+
+        /**
+         * Whether a servlet is registered for the location itself
+         */
+        public boolean hasLocationServlet() {
+            return this.hasLocationServlet;
+        }
+    }
+}
@@ -40,6 +40,39 @@ public interface SlingServletResolverCacheMBean {
      */
     int getMaximumCacheSize();
 
+    /**
+     * Get the number of lookups answered by the servlet resolver cache
+     *
+     * @return the number of cache hits
+     * @since 2.4.0
+     */
+    long getCacheHits();
+
+    /**
+     * Get the number of lookups not answered by the servlet resolver cache
+     *
+     * @return the number of cache misses
+     * @since 2.4.0
+     */
+    long getCacheMisses();
+
+    /**
+     * Get the ratio of cache hits to all lookups
+     *
+     * @return the hit ratio between 0 and 1
+     * @since 2.4.0
+     */
+    double getCacheHitRatio();
+
+    /**
+     * Get the number of entries evicted from the servlet resolver cache
+     * because the maximum size has been reached
+     *
+     * @return the number of evictions
+     * @since 2.4.0
+     */
+    long getCacheEvictions();
+
     /**
      * Flush the servlet resolver cache.
      */
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.sling.servlets.resolver.internal.helper.AbstractResourceCollector;
+import org.apache.sling.servlets.resolver.internal.helper.NamedScriptResourceCollector;
+import org.junit.Test;
+
+public class ResolutionCacheTest {
+
+    private AbstractResourceCollector collector(final String resourceType) {
+        return new NamedScriptResourceCollector(ServletResolverConstants.DEFAULT_SERVLET_NAME,
+                resourceType, null, "script.jsp", ".jsp", null);
+    }
+
+    @Test
+    public void testNegativeResultIsCached() {
+        final ResolutionCache cache = new ResolutionCache(10);
+        assertNull(cache.get(collector("a/b")));
+        cache.put(collector("a/b"), null, Arrays.asList("/apps/a/b", "/libs/a/b"));
+
+        final ResolutionCache.Entry entry = cache.get(collector("a/b"));
+        assertNotNull(entry);
+        assertNull(entry.getServlet());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testInvalidateByLocation() {
+        final ResolutionCache cache = new ResolutionCache(10);
+        cache.put(collector("a/b"), null, Arrays.asList("/apps/a/b", "/libs/a/b"));
+        cache.put(collector("a/c"), null, Arrays.asList("/apps/a/c", "/libs/a/c"));
+        cache.put(collector("x/y"), null, Arrays.asList("/apps/x/y", "/libs/x/y"));
+
+        // script below a searched location
+        cache.invalidate("/apps/a/b/b.jsp");
+        assertNull(cache.get(collector("a/b")));
+        assertNotNull(cache.get(collector("a/c")));
+
+        // a sibling with the same prefix is not affected
+        cache.invalidate("/apps/a/cd");
+        assertNotNull(cache.get(collector("a/c")));
+
+        // ancestor of a searched location
+        cache.invalidate("/libs/a");
+        assertNull(cache.get(collector("a/c")));
+        assertNotNull(cache.get(collector("x/y")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        final ResolutionCache cache = new ResolutionCache(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put(collector("type/" + i), null, Arrays.asList("/apps/type/" + i));
+            Thread.sleep(1);
+        }
+        // use the first entry
+        assertNotNull(cache.get(collector("type/0")));
+        cache.put(collector("type/10"), null, Arrays.asList("/apps/type/10"));
+
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.getEvictions() > 0);
+        assertNotNull(cache.get(collector("type/0")));
+        assertNull(cache.get(collector("type/1")));
+    }
+}
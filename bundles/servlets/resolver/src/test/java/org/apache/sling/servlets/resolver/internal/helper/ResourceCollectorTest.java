@@ -18,9 +18,11 @@
  */
 package org.apache.sling.servlets.resolver.internal.helper;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.sling.api.resource.Resource;
@@ -286,6 +288,35 @@ public class ResourceCollectorTest extends HelperTestBase {
         }
 
         assertFalse(rIter.hasNext());
+
+        // the indexed lookup finds the same scripts in the same order
+        assertEquals(getPaths(res), getPaths(lu.getServlets(request.getResourceResolver(), null, new ScriptIndex())));
+    }
+
+    public void testScriptIndexInvalidation() {
+        final ScriptIndex index = new ScriptIndex();
+        final String base = "/apps/" + resourceTypePath;
+        createScriptResource(base + "/" + label + ".esp", "nt:file");
+
+        final ResourceCollector lu = ResourceCollector.create(request, null, new String[] {"html"});
+        assertEquals(1, lu.getServlets(request.getResourceResolver(), null, index).size());
+
+        // the new script is not seen until its location is invalidated
+        createScriptResource(base + "/html.esp", "nt:file");
+        assertEquals(1, lu.getServlets(request.getResourceResolver(), null, index).size());
+
+        index.invalidate(base + "/html.esp");
+        final Collection<Resource> res = lu.getServlets(request.getResourceResolver(), null, index);
+        assertEquals(2, res.size());
+        assertEquals(getPaths(lu.getServlets(request.getResourceResolver())), getPaths(res));
+    }
+
+    private List<String> getPaths(final Collection<Resource> resources) {
+        final List<String> paths = new ArrayList<String>();
+        for (final Resource resource : resources) {
+            paths.add(resource.getPath());
+        }
+        return paths;
     }
 
     protected MockResource createScriptResource(String path, String type) {
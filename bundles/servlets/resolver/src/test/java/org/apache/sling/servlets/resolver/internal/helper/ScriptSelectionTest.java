@@ -69,8 +69,13 @@ public class ScriptSelectionTest extends HelperTestBase {
         // Create mock request and get scripts from ResourceCollector
         final MockSlingHttpServletRequest req = makeRequest(method, selectors, extension);
         final ResourceCollector u = ResourceCollector.create(req, null, new String[] {"html"});
-        final Collection<Resource> s = u.getServlets(req.getResourceResolver());
+        assertFirstScript(u.getServlets(req.getResourceResolver()), expectedScript);
 
+        // the same script is selected using the script index
+        assertFirstScript(u.getServlets(req.getResourceResolver(), null, new ScriptIndex()), expectedScript);
+    }
+
+    private void assertFirstScript(final Collection<Resource> s, final String expectedScript) {
         if(expectedScript == null) {
             assertFalse("No script must be found", s.iterator().hasNext());
         } else {